@@ -0,0 +1,44 @@
+package de.atextor.syntax.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. Accepts the regular JMH command line options, but by default enables the GC
+ * profiler (to report allocation rates) and writes the results as JSON to {@code jmh-result.json}, so that results
+ * of different releases can be compared with each other, e.g. using https://jmh.morethan.io.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks
+     *
+     * @param args the JMH command line options
+     * @throws CommandLineOptionException if the command line options are invalid
+     * @throws RunnerException if running the benchmarks fails
+     */
+    public static void main( final String[] args ) throws CommandLineOptionException, RunnerException {
+        final CommandLineOptions commandLineOptions = new CommandLineOptions( args );
+        final OptionsBuilder builder = new OptionsBuilder();
+        builder.parent( commandLineOptions );
+        if ( !commandLineOptions.getResultFormat().hasValue() ) {
+            builder.resultFormat( ResultFormatType.JSON );
+        }
+        if ( !commandLineOptions.getResult().hasValue() ) {
+            builder.result( "jmh-result.json" );
+        }
+        if ( commandLineOptions.getProfilers().isEmpty() ) {
+            builder.addProfiler( GCProfiler.class );
+        }
+        final Options options = builder.build();
+        new Runner( options ).run();
+    }
+}
@@ -0,0 +1,66 @@
+package de.atextor.syntax.benchmark;
+
+import de.atextor.syntax.JSON;
+import de.atextor.syntax.NDJSON;
+import de.atextor.syntax.NTriples;
+import de.atextor.syntax.RegExp;
+import de.atextor.syntax.Turtle;
+import de.atextor.syntax.XML;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures the throughput of the bundled checkers on valid literals of different sizes. Run with the GC profiler
+ * (which {@link BenchmarkRunner} enables by default) to also get the allocation rate.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class CheckerBenchmark {
+    @Param( { "JSON", "XML", "TURTLE", "REGEXP", "NTRIPLES", "NDJSON" } )
+    private Literals.Language language;
+
+    @Param( { "TINY", "SMALL", "LARGE", "HUGE" } )
+    private Literals.Size size;
+
+    private Function<String, Optional<String>> checker;
+
+    private String literal;
+
+    @Setup
+    public void setup() {
+        checker = switch ( language ) {
+            case JSON -> new JSON();
+            case XML -> new XML();
+            case TURTLE -> new Turtle();
+            case REGEXP -> new RegExp();
+            case NTRIPLES -> new NTriples();
+            case NDJSON -> new NDJSON();
+        };
+        literal = language.generate( size );
+        checker.apply( literal ).ifPresent( message -> {
+            throw new IllegalStateException( "Generated " + language + " literal is invalid: " + message );
+        } );
+    }
+
+    @Benchmark
+    public Optional<String> check() {
+        return checker.apply( literal );
+    }
+}
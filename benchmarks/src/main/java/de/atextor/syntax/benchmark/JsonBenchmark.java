@@ -0,0 +1,89 @@
+package de.atextor.syntax.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import de.atextor.syntax.JSON;
+import de.atextor.syntax.StrictJSON;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares the built-in JSON checkers with the Jackson based check that the JSON checker used before, which
+ * deserializes the whole document into a map. Run with the GC profiler to compare the allocation rates.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class JsonBenchmark {
+    /**
+     * The JSON checker implementations
+     */
+    public enum Implementation {
+        BUILT_IN,
+        STRICT,
+        JACKSON
+    }
+
+    @Param( { "BUILT_IN", "STRICT", "JACKSON" } )
+    private Implementation implementation;
+
+    @Param( { "TINY", "SMALL", "LARGE", "HUGE" } )
+    private Literals.Size size;
+
+    private Function<String, Optional<String>> checker;
+
+    private String literal;
+
+    @Setup
+    public void setup() {
+        checker = switch ( implementation ) {
+            case BUILT_IN -> new JSON();
+            case STRICT -> new StrictJSON();
+            case JACKSON -> new JacksonJson();
+        };
+        literal = Literals.Language.JSON.generate( size );
+        checker.apply( literal ).ifPresent( message -> {
+            throw new IllegalStateException( "Generated JSON literal is invalid: " + message );
+        } );
+    }
+
+    @Benchmark
+    public Optional<String> check() {
+        return checker.apply( literal );
+    }
+
+    /**
+     * The baseline: Jackson based check that reads the document into a map
+     */
+    private static class JacksonJson implements Function<String, Optional<String>> {
+        private final ObjectReader reader = new ObjectMapper().readerFor( Map.class );
+
+        @Override
+        public Optional<String> apply( final String jsonString ) {
+            try {
+                reader.readValue( jsonString );
+                return Optional.empty();
+            } catch ( final JsonProcessingException exception ) {
+                return Optional.of( exception.getMessage() );
+            }
+        }
+    }
+}
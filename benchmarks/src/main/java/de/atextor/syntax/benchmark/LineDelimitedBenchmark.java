@@ -0,0 +1,70 @@
+package de.atextor.syntax.benchmark;
+
+import de.atextor.syntax.NDJSON;
+import de.atextor.syntax.NTriples;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Measures how the line-oriented checkers scale with the number of threads. The checkers are called on a fork-join
+ * pool with the given parallelism, so that they split the literal into chunks for that parallelism and check them
+ * on that pool. With one thread, the chunks are checked one after the other, which is the baseline.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class LineDelimitedBenchmark {
+    @Param( { "NTRIPLES", "NDJSON" } )
+    private Literals.Language language;
+
+    @Param( { "1", "2", "4", "8" } )
+    private int threads;
+
+    private Function<String, Optional<String>> checker;
+
+    private String literal;
+
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        checker = switch ( language ) {
+            case NTRIPLES -> new NTriples();
+            case NDJSON -> new NDJSON();
+            default -> throw new IllegalArgumentException( language + " is not a line-oriented language" );
+        };
+        literal = language.generate( Literals.Size.HUGE );
+        pool = new ForkJoinPool( threads );
+        check().ifPresent( message -> {
+            throw new IllegalStateException( "Generated " + language + " literal is invalid: " + message );
+        } );
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Optional<String> check() {
+        return pool.submit( () -> checker.apply( literal ) ).join();
+    }
+}
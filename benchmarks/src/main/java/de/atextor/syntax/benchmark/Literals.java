@@ -0,0 +1,81 @@
+package de.atextor.syntax.benchmark;
+
+import java.util.function.IntFunction;
+
+/**
+ * Generates syntactically valid literals of a given approximate size for each of the bundled languages
+ */
+public final class Literals {
+    private Literals() {
+    }
+
+    /**
+     * The approximate size of a generated literal
+     */
+    public enum Size {
+        TINY( 100 ),
+        SMALL( 10_000 ),
+        LARGE( 1_000_000 ),
+        HUGE( 4_000_000 );
+
+        private final int characters;
+
+        Size( final int characters ) {
+            this.characters = characters;
+        }
+
+        /**
+         * Returns the minimum number of characters of a literal of this size
+         *
+         * @return the number of characters
+         */
+        public int characters() {
+            return characters;
+        }
+    }
+
+    /**
+     * The languages supported by the bundled checkers
+     */
+    public enum Language {
+        JSON( "{\"items\":[", index -> ( index > 0 ? "," : "" )
+            + "{\"id\":" + index + ",\"name\":\"item " + index + "\",\"tags\":[\"a\",\"b\"],\"valid\":true}",
+            "]}" ),
+        XML( "<items>", index -> "<item id=\"" + index + "\"><name>item " + index + "</name><tag>a</tag></item>",
+            "</items>" ),
+        TURTLE( "@prefix ex: <http://example.com/> .\n",
+            index -> "ex:item" + index + " a ex:Item ; ex:name \"item " + index + "\" ; ex:tag \"a\", \"b\" .\n",
+            "" ),
+        REGEXP( "(?:", index -> ( index > 0 ? "|" : "" ) + "item" + index + "[a-z]+\\d{1,3}", ")" ),
+        NTRIPLES( "", index -> "<http://example.com/item" + index + "> <http://example.com/name> \"item " + index
+            + "\" .\n", "" ),
+        NDJSON( "", index -> "{\"id\":" + index + ",\"name\":\"item " + index + "\",\"tags\":[\"a\",\"b\"]}\n",
+            "" );
+
+        private final String prefix;
+
+        private final IntFunction<String> element;
+
+        private final String suffix;
+
+        Language( final String prefix, final IntFunction<String> element, final String suffix ) {
+            this.prefix = prefix;
+            this.element = element;
+            this.suffix = suffix;
+        }
+
+        /**
+         * Generates a valid literal in this language
+         *
+         * @param size the approximate size of the literal
+         * @return the literal
+         */
+        public String generate( final Size size ) {
+            final StringBuilder builder = new StringBuilder( size.characters() + 256 ).append( prefix );
+            for ( int index = 0; builder.length() < size.characters(); index++ ) {
+                builder.append( element.apply( index ) );
+            }
+            return builder.append( suffix ).toString();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package de.atextor.syntax.benchmark;
+
+import de.atextor.syntax.annotation.processor.SyntaxProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the end-to-end time of compiling generated sources, with and without the {@link SyntaxProcessor} and
+ * with and without {@code @Syntax} annotations in the sources. The difference between the runs with and without the
+ * processor is the overhead the processor adds to a build.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+@State( Scope.Benchmark )
+public class ProcessorBenchmark {
+    @Param( { "false", "true" } )
+    private boolean processor;
+
+    @Param( { "false", "true" } )
+    private boolean annotated;
+
+    @Param( { "200" } )
+    private int classes;
+
+    @Param( { "10" } )
+    private int fieldsPerClass;
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+    private List<JavaFileObject> sources;
+
+    private Path outputDirectory;
+
+    @Setup( Level.Trial )
+    public void setup() throws IOException {
+        sources = new ArrayList<>();
+        for ( int index = 0; index < classes; index++ ) {
+            sources.add( new GeneratedSource( "Generated" + index, generateClass( "Generated" + index ) ) );
+        }
+        outputDirectory = Files.createTempDirectory( "syntax-annotation-benchmark" );
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown() throws IOException {
+        try ( final Stream<Path> files = Files.walk( outputDirectory ) ) {
+            files.sorted( Comparator.reverseOrder() ).forEach( file -> {
+                try {
+                    Files.delete( file );
+                } catch ( final IOException exception ) {
+                    throw new UncheckedIOException( exception );
+                }
+            } );
+        }
+    }
+
+    @Benchmark
+    public boolean compile() throws IOException {
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try ( final StandardJavaFileManager fileManager = compiler.getStandardFileManager( diagnostics, null, null ) ) {
+            final List<String> options = new ArrayList<>( List.of(
+                "-d", outputDirectory.toString(),
+                "-classpath", System.getProperty( "java.class.path" ) ) );
+            if ( !processor ) {
+                options.add( "-proc:none" );
+            }
+            final JavaCompiler.CompilationTask task =
+                compiler.getTask( null, fileManager, diagnostics, options, null, sources );
+            if ( processor ) {
+                task.setProcessors( List.of( new SyntaxProcessor() ) );
+            }
+            if ( !task.call() ) {
+                throw new IllegalStateException( "Compilation failed: " + diagnostics.getDiagnostics() );
+            }
+            return true;
+        }
+    }
+
+    private String generateClass( final String className ) {
+        final String annotation = annotated ? "@Syntax( %s.class ) " : "";
+        final StringBuilder source = new StringBuilder()
+            .append( "package generated;\n\n" )
+            .append( "import de.atextor.syntax.annotation.Syntax;\n" )
+            .append( "import de.atextor.syntax.JSON;\n" )
+            .append( "import de.atextor.syntax.RegExp;\n" )
+            .append( "import de.atextor.syntax.XML;\n\n" )
+            .append( "public class " ).append( className ).append( " {\n" );
+        for ( int field = 0; field < fieldsPerClass; field++ ) {
+            switch ( field % 3 ) {
+                case 0 -> source.append( "    " ).append( annotation.formatted( "XML" ) )
+                    .append( "static final String XML_" ).append( field )
+                    .append( " = \"<item id=\\\"" ).append( field ).append( "\\\"><name>item</name></item>\";\n" );
+                case 1 -> source.append( "    " ).append( annotation.formatted( "JSON" ) )
+                    .append( "static final String JSON_" ).append( field )
+                    .append( " = \"{\\\"id\\\": " ).append( field ).append( ", \\\"name\\\": \\\"item\\\"}\";\n" );
+                default -> source.append( "    " ).append( annotation.formatted( "RegExp" ) )
+                    .append( "static final String REGEXP_" ).append( field )
+                    .append( " = \"item" ).append( field ).append( "[a-z]+\\\\d{1,3}\";\n" );
+            }
+        }
+        source.append( "\n    void method() {\n" )
+            .append( "        " ).append( annotation.formatted( "XML" ) )
+            .append( "String local = \"<local/>\";\n" )
+            .append( "    }\n" )
+            .append( "}\n" );
+        return source.toString();
+    }
+
+    /**
+     * An in-memory source file
+     */
+    private static class GeneratedSource extends SimpleJavaFileObject {
+        private final String content;
+
+        GeneratedSource( final String className, final String content ) {
+            super( URI.create( "string:///generated/" + className + Kind.SOURCE.extension ), Kind.SOURCE );
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent( final boolean ignoreEncodingErrors ) {
+            return content;
+        }
+    }
+}
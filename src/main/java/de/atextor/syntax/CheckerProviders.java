@@ -0,0 +1,176 @@
+package de.atextor.syntax;
+
+import de.atextor.syntax.annotation.CheckerProvider;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The {@link CheckerProvider}s of the bundled checkers. The checker classes are only referenced in
+ * {@link CheckerProvider#create()}, so that they and the libraries they depend on (e.g. Apache Jena for
+ * {@link Turtle}) are only loaded when a string of the language is validated.
+ */
+public final class CheckerProviders {
+    private CheckerProviders() {
+    }
+
+    /**
+     * Provides {@link JSON}
+     */
+    public static final class JSONProvider implements CheckerProvider {
+        @Override
+        public String language() {
+            return "JSON";
+        }
+
+        @Override
+        public String checkerClassName() {
+            return "de.atextor.syntax.JSON";
+        }
+
+        @Override
+        public Function<String, Optional<String>> create() {
+            return new JSON();
+        }
+    }
+
+    /**
+     * Provides {@link StrictJSON}
+     */
+    public static final class StrictJSONProvider implements CheckerProvider {
+        @Override
+        public String language() {
+            return "StrictJSON";
+        }
+
+        @Override
+        public String checkerClassName() {
+            return "de.atextor.syntax.StrictJSON";
+        }
+
+        @Override
+        public Function<String, Optional<String>> create() {
+            return new StrictJSON();
+        }
+    }
+
+    /**
+     * Provides {@link RegExp}
+     */
+    public static final class RegExpProvider implements CheckerProvider {
+        @Override
+        public String language() {
+            return "RegExp";
+        }
+
+        @Override
+        public String checkerClassName() {
+            return "de.atextor.syntax.RegExp";
+        }
+
+        @Override
+        public Function<String, Optional<String>> create() {
+            return new RegExp();
+        }
+    }
+
+    /**
+     * Provides {@link Turtle}
+     */
+    public static final class TurtleProvider implements CheckerProvider {
+        @Override
+        public String language() {
+            return "Turtle";
+        }
+
+        @Override
+        public String checkerClassName() {
+            return "de.atextor.syntax.Turtle";
+        }
+
+        @Override
+        public Function<String, Optional<String>> create() {
+            return new Turtle();
+        }
+    }
+
+    /**
+     * Provides {@link XML}
+     */
+    public static final class XMLProvider implements CheckerProvider {
+        @Override
+        public String language() {
+            return "XML";
+        }
+
+        @Override
+        public String checkerClassName() {
+            return "de.atextor.syntax.XML";
+        }
+
+        @Override
+        public Function<String, Optional<String>> create() {
+            return new XML();
+        }
+    }
+
+    /**
+     * Provides {@link XMLSchema}
+     */
+    public static final class XMLSchemaProvider implements CheckerProvider {
+        @Override
+        public String language() {
+            return "XMLSchema";
+        }
+
+        @Override
+        public String checkerClassName() {
+            return "de.atextor.syntax.XMLSchema";
+        }
+
+        @Override
+        public Function<String, Optional<String>> create() {
+            return new XMLSchema();
+        }
+    }
+
+    /**
+     * Provides {@link NDJSON}
+     */
+    public static final class NDJSONProvider implements CheckerProvider {
+        @Override
+        public String language() {
+            return "NDJSON";
+        }
+
+        @Override
+        public String checkerClassName() {
+            return "de.atextor.syntax.NDJSON";
+        }
+
+        @Override
+        public Function<String, Optional<String>> create() {
+            return new NDJSON();
+        }
+    }
+
+    /**
+     * Provides {@link NTriples}
+     */
+    public static final class NTriplesProvider implements CheckerProvider {
+        @Override
+        public String language() {
+            return "N-Triples";
+        }
+
+        @Override
+        public String checkerClassName() {
+            return "de.atextor.syntax.NTriples";
+        }
+
+        @Override
+        public Function<String, Optional<String>> create() {
+            return new NTriples();
+        }
+    }
+}
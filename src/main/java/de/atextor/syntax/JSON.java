@@ -1,24 +1,373 @@
 package de.atextor.syntax;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import de.atextor.syntax.annotation.LocatingChecker;
+import de.atextor.syntax.annotation.ReusableChecker;
+import de.atextor.syntax.annotation.SyntaxError;
 
-import java.util.Map;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 
 /**
- * Function that checks whether a given string is syntactically valid JSON
+ * Function that checks whether a given string is syntactically valid JSON according to RFC 8259, i.e., any JSON
+ * value including top level arrays and scalars. The check is a state machine over the characters of the string
+ * which builds no representation of the document: Apart from the error message, it allocates nothing for
+ * documents nested up to 64 levels deep.
+ *
+ * <p>Subclasses can enable additional strictness checks using {@link #JSON(boolean, int)}, see {@link StrictJSON}.
  */
-public class JSON implements Function<String, Optional<String>> {
+public class JSON implements Function<String, Optional<String>>, LocatingChecker, ReusableChecker {
+    private final boolean rejectDuplicateKeys;
+
+    private final int maxDepth;
+
+    /**
+     * Signals a syntax error at a given offset. It has no stack trace, as it is only used for control flow.
+     */
+    private static final class InvalidJsonException extends RuntimeException {
+        private final int offset;
+
+        private InvalidJsonException( final int offset, final String message ) {
+            super( message, null, false, false );
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Creates a checker that accepts all syntactically valid JSON
+     */
+    public JSON() {
+        this( false, Integer.MAX_VALUE );
+    }
+
+    /**
+     * Creates a checker with additional strictness checks
+     *
+     * @param rejectDuplicateKeys whether objects with duplicate keys are rejected. Note that this requires the keys
+     * of each object to be kept in memory.
+     * @param maxDepth the maximum nesting depth of arrays and objects
+     */
+    protected JSON( final boolean rejectDuplicateKeys, final int maxDepth ) {
+        this.rejectDuplicateKeys = rejectDuplicateKeys;
+        this.maxDepth = maxDepth;
+    }
+
     @Override
     public Optional<String> apply( final String jsonString ) {
-        final ObjectMapper mapper = new ObjectMapper();
+        return check( jsonString ).map( SyntaxError::formatted );
+    }
+
+    @Override
+    public Optional<SyntaxError> check( final String jsonString ) {
+        try {
+            validate( jsonString, 0, jsonString.length() );
+            return Optional.empty();
+        } catch ( final InvalidJsonException exception ) {
+            return Optional.of( SyntaxError.atOffset( exception.getMessage(), jsonString, exception.offset,
+                SyntaxError.Severity.ERROR ) );
+        }
+    }
+
+    /**
+     * Checks whether a line of a string is a valid JSON value, without copying it
+     *
+     * @param json the string
+     * @param start the start of the line
+     * @param end the end of the line (exclusive)
+     * @return the error, with line 1 and its column in the line, or empty if the line is valid
+     */
+    Optional<SyntaxError> checkLine( final String json, final int start, final int end ) {
         try {
-            @SuppressWarnings( "unchecked" ) final Map<String, String> map = mapper.readValue( jsonString, Map.class );
+            validate( json, start, end );
             return Optional.empty();
-        } catch ( final JsonProcessingException exception ) {
-            return Optional.of( exception.getMessage() );
+        } catch ( final InvalidJsonException exception ) {
+            return Optional.of( new SyntaxError( exception.getMessage(), 1, exception.offset - start + 1L ) );
+        }
+    }
+
+    private void validate( final String json, final int start, final int end ) {
+        final Deque<Set<String>> objectKeys = rejectDuplicateKeys ? new ArrayDeque<>() : null;
+        // The kinds of the enclosing containers (bit set: object, bit clear: array); the innermost 64 levels are
+        // kept in a long, only deeper levels need an array
+        long containerKinds = 0L;
+        long[] deeperContainerKinds = null;
+        int depth = 0;
+        boolean expectValue = true;
+        int position = start;
+        while ( true ) {
+            position = skipWhitespace( json, position, end );
+            if ( expectValue ) {
+                if ( position >= end ) {
+                    throw new InvalidJsonException( position, "Unexpected end of input: expected a value" );
+                }
+                final char character = json.charAt( position );
+                if ( character != '{' && character != '[' ) {
+                    position = skipScalar( json, position, end );
+                    expectValue = false;
+                    continue;
+                }
+                if ( depth >= maxDepth ) {
+                    throw new InvalidJsonException( position, "Maximum nesting depth of " + maxDepth + " exceeded" );
+                }
+                final boolean isObject = character == '{';
+                if ( depth < Long.SIZE ) {
+                    containerKinds = isObject ? containerKinds | 1L << depth : containerKinds & ~( 1L << depth );
+                } else {
+                    deeperContainerKinds = withKind( deeperContainerKinds, depth - Long.SIZE, isObject );
+                }
+                depth++;
+                position = skipWhitespace( json, position + 1, end );
+                if ( position < end && json.charAt( position ) == ( isObject ? '}' : ']' ) ) {
+                    depth--;
+                    position++;
+                    expectValue = false;
+                } else if ( isObject ) {
+                    if ( objectKeys != null ) {
+                        objectKeys.push( new HashSet<>() );
+                    }
+                    position = skipMemberName( json, position, end, objectKeys );
+                }
+                continue;
+            }
+
+            if ( depth == 0 ) {
+                if ( position < end ) {
+                    throw new InvalidJsonException( position,
+                        "Unexpected character " + describe( json.charAt( position ) ) + " after the end of the value" );
+                }
+                return;
+            }
+            final int level = depth - 1;
+            final boolean inObject = level < Long.SIZE
+                ? ( containerKinds >>> level & 1L ) != 0
+                : ( deeperContainerKinds[( level - Long.SIZE ) >>> 6] >>> ( level & 63 ) & 1L ) != 0;
+            final char closingCharacter = inObject ? '}' : ']';
+            if ( position >= end ) {
+                throw new InvalidJsonException( position,
+                    "Unexpected end of input: expected ',' or '" + closingCharacter + "'" );
+            }
+            final char character = json.charAt( position );
+            if ( character == ',' ) {
+                position = inObject
+                    ? skipMemberName( json, skipWhitespace( json, position + 1, end ), end, objectKeys )
+                    : position + 1;
+                expectValue = true;
+            } else if ( character == closingCharacter ) {
+                if ( inObject && objectKeys != null ) {
+                    objectKeys.pop();
+                }
+                depth--;
+                position++;
+            } else {
+                throw new InvalidJsonException( position, "Unexpected character " + describe( character )
+                    + ": expected ',' or '" + closingCharacter + "'" );
+            }
+        }
+    }
+
+    private static long[] withKind( final long[] containerKinds, final int level, final boolean isObject ) {
+        long[] result = containerKinds;
+        if ( result == null ) {
+            result = new long[4];
+        } else if ( level >>> 6 >= result.length ) {
+            final long[] grown = new long[result.length * 2];
+            System.arraycopy( result, 0, grown, 0, result.length );
+            result = grown;
+        }
+        if ( isObject ) {
+            result[level >>> 6] |= 1L << ( level & 63 );
+        } else {
+            result[level >>> 6] &= ~( 1L << ( level & 63 ) );
+        }
+        return result;
+    }
+
+    /**
+     * Skips the name of an object member and the following colon
+     *
+     * @return the position after the colon
+     */
+    private static int skipMemberName( final String json, final int position, final int end,
+                                       final Deque<Set<String>> objectKeys ) {
+        if ( position >= end || json.charAt( position ) != '"' ) {
+            throw new InvalidJsonException( position, position >= end
+                ? "Unexpected end of input: expected a member name"
+                : "Unexpected character " + describe( json.charAt( position ) ) + ": expected a member name" );
+        }
+        final int nameEnd = skipString( json, position, end );
+        if ( objectKeys != null ) {
+            final String key = decodeString( json, position + 1, nameEnd - 1 );
+            if ( !objectKeys.element().add( key ) ) {
+                throw new InvalidJsonException( position, "Duplicate member name \"" + key + "\"" );
+            }
+        }
+        final int colon = skipWhitespace( json, nameEnd, end );
+        if ( colon >= end || json.charAt( colon ) != ':' ) {
+            throw new InvalidJsonException( colon, colon >= end
+                ? "Unexpected end of input: expected ':'"
+                : "Unexpected character " + describe( json.charAt( colon ) ) + ": expected ':'" );
+        }
+        return colon + 1;
+    }
+
+    private static int skipWhitespace( final String json, final int position, final int end ) {
+        int index = position;
+        while ( index < end ) {
+            final char character = json.charAt( index );
+            if ( character != ' ' && character != '\t' && character != '\n' && character != '\r' ) {
+                break;
+            }
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipScalar( final String json, final int position, final int end ) {
+        final char character = json.charAt( position );
+        return switch ( character ) {
+            case '"' -> skipString( json, position, end );
+            case 't' -> skipKeyword( json, position, end, "true" );
+            case 'f' -> skipKeyword( json, position, end, "false" );
+            case 'n' -> skipKeyword( json, position, end, "null" );
+            default -> {
+                if ( character == '-' || isDigit( character ) ) {
+                    yield skipNumber( json, position, end );
+                }
+                throw new InvalidJsonException( position,
+                    "Unexpected character " + describe( character ) + ": expected a value" );
+            }
+        };
+    }
+
+    private static int skipKeyword( final String json, final int position, final int end, final String keyword ) {
+        if ( position + keyword.length() > end || !json.startsWith( keyword, position ) ) {
+            throw new InvalidJsonException( position, "Invalid literal: expected '" + keyword + "'" );
+        }
+        return position + keyword.length();
+    }
+
+    private static int skipNumber( final String json, final int position, final int end ) {
+        int index = position;
+        if ( json.charAt( index ) == '-' ) {
+            index++;
+        }
+        if ( index < end && json.charAt( index ) == '0' ) {
+            index++;
+        } else {
+            index = skipDigits( json, index, end, "Invalid number: expected a digit" );
+        }
+        if ( index < end && json.charAt( index ) == '.' ) {
+            index = skipDigits( json, index + 1, end, "Invalid number: expected a digit after the decimal point" );
+        }
+        if ( index < end && ( json.charAt( index ) == 'e' || json.charAt( index ) == 'E' ) ) {
+            index++;
+            if ( index < end && ( json.charAt( index ) == '+' || json.charAt( index ) == '-' ) ) {
+                index++;
+            }
+            index = skipDigits( json, index, end, "Invalid number: expected a digit in the exponent" );
+        }
+        return index;
+    }
+
+    private static int skipDigits( final String json, final int position, final int end, final String message ) {
+        int index = position;
+        while ( index < end && isDigit( json.charAt( index ) ) ) {
+            index++;
         }
+        if ( index == position ) {
+            throw new InvalidJsonException( position, message );
+        }
+        return index;
+    }
+
+    private static boolean isDigit( final char character ) {
+        return character >= '0' && character <= '9';
+    }
+
+    /**
+     * Skips a string
+     *
+     * @param json the document
+     * @param position the position of the opening quote
+     * @return the position after the closing quote
+     */
+    private static int skipString( final String json, final int position, final int end ) {
+        int index = position + 1;
+        while ( index < end ) {
+            final char character = json.charAt( index );
+            if ( character == '"' ) {
+                return index + 1;
+            }
+            if ( character == '\\' ) {
+                index = skipEscapeSequence( json, index, end );
+            } else if ( character < 0x20 ) {
+                throw new InvalidJsonException( index,
+                    "Invalid character " + describe( character ) + " in string: control characters must be escaped" );
+            } else {
+                index++;
+            }
+        }
+        throw new InvalidJsonException( position, "Unterminated string" );
+    }
+
+    private static int skipEscapeSequence( final String json, final int position, final int end ) {
+        if ( position + 1 >= end ) {
+            throw new InvalidJsonException( position, "Unterminated string" );
+        }
+        return switch ( json.charAt( position + 1 ) ) {
+            case '"', '\\', '/', 'b', 'f', 'n', 'r', 't' -> position + 2;
+            case 'u' -> {
+                for ( int index = position + 2; index < position + 6; index++ ) {
+                    if ( index >= end || Character.digit( json.charAt( index ), 16 ) < 0 ) {
+                        throw new InvalidJsonException( position, "Invalid escape sequence: expected four hex digits" );
+                    }
+                }
+                yield position + 6;
+            }
+            default -> throw new InvalidJsonException( position,
+                "Invalid escape sequence \\" + json.charAt( position + 1 ) );
+        };
+    }
+
+    /**
+     * Decodes the content of a string that has already been validated
+     */
+    private static String decodeString( final String json, final int start, final int end ) {
+        int firstEscape = start;
+        while ( firstEscape < end && json.charAt( firstEscape ) != '\\' ) {
+            firstEscape++;
+        }
+        if ( firstEscape == end ) {
+            return json.substring( start, end );
+        }
+        final StringBuilder builder = new StringBuilder( end - start ).append( json, start, firstEscape );
+        for ( int index = firstEscape; index < end; index++ ) {
+            final char character = json.charAt( index );
+            if ( character != '\\' ) {
+                builder.append( character );
+                continue;
+            }
+            final char escaped = json.charAt( ++index );
+            switch ( escaped ) {
+                case 'b' -> builder.append( '\b' );
+                case 'f' -> builder.append( '\f' );
+                case 'n' -> builder.append( '\n' );
+                case 'r' -> builder.append( '\r' );
+                case 't' -> builder.append( '\t' );
+                case 'u' -> {
+                    builder.append( (char) Integer.parseInt( json, index + 1, index + 5, 16 ) );
+                    index += 4;
+                }
+                default -> builder.append( escaped );
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String describe( final char character ) {
+        return character < 0x20 ? String.format( "'\\u%04x'", (int) character ) : "'" + character + "'";
     }
 }
@@ -0,0 +1,147 @@
+package de.atextor.syntax;
+
+import de.atextor.syntax.annotation.LocatingChecker;
+import de.atextor.syntax.annotation.ReusableChecker;
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Base class of functions that check line-oriented formats, in which each line is a record that can be checked
+ * independently of the others, such as {@link NTriples} and {@link NDJSON}. Large strings are split at line breaks
+ * into chunks that are checked in parallel on the common fork-join pool (or the pool the checker is called from).
+ * The chunks and records are passed as ranges of the original string, so the string is never copied. The chunks
+ * count their lines, so that the first error is reported with its line number in the whole string; once an error
+ * has been found, the chunks after it stop early. Chunks are at least 64 Ki characters long, so strings of less
+ * than 128 Ki characters are checked on the calling thread. Lines are separated by \n, \r or \r\n; empty lines are
+ * skipped.
+ */
+public abstract class LineDelimitedChecker implements Function<String, Optional<String>>, LocatingChecker,
+    ReusableChecker {
+    private static final int MIN_CHUNK_LENGTH = 1 << 16;
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The result of checking a chunk
+     *
+     * @param lineBreaks the number of line breaks in the chunk, which is only complete if there is no error
+     * @param error the first error, with its line number relative to the start of the chunk
+     */
+    private record ChunkResult( long lineBreaks, Optional<SyntaxError> error ) {
+    }
+
+    /**
+     * Constructor for subclasses
+     */
+    protected LineDelimitedChecker() {
+    }
+
+    /**
+     * Checks a single non-empty line
+     *
+     * @param string the whole string
+     * @param start the start of the line
+     * @param end the end of the line (exclusive), i.e., the position of the line break or the end of the string
+     * @return the first error in the line, with line 1 and its column in the line, or empty if the line is valid
+     */
+    protected abstract Optional<SyntaxError> checkLine( String string, int start, int end );
+
+    @Override
+    public Optional<String> apply( final String string ) {
+        return check( string ).map( SyntaxError::formatted );
+    }
+
+    @Override
+    public Optional<SyntaxError> check( final String string ) {
+        final int[] boundaries = chunkBoundaries( string );
+        final AtomicInteger firstFailedChunk = new AtomicInteger( Integer.MAX_VALUE );
+        final List<ChunkResult> results = boundaries.length == 2
+            ? List.of( checkChunk( string, 0, boundaries, firstFailedChunk ) )
+            : IntStream.range( 0, boundaries.length - 1 )
+            .parallel()
+            .mapToObj( chunk -> checkChunk( string, chunk, boundaries, firstFailedChunk ) )
+            .toList();
+        long precedingLines = 0;
+        for ( final ChunkResult result : results ) {
+            if ( result.error().isPresent() ) {
+                final SyntaxError error = result.error().get();
+                return Optional.of( new SyntaxError( error.message(), precedingLines + error.line(),
+                    error.column(), error.severity() ) );
+            }
+            precedingLines += result.lineBreaks();
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Splits a string into chunks that start at the beginning of a line
+     *
+     * @param string the string
+     * @return the start of each chunk, followed by the length of the string
+     */
+    private static int[] chunkBoundaries( final String string ) {
+        final int length = string.length();
+        final int parallelism = ForkJoinTask.inForkJoinPool()
+            ? ForkJoinTask.getPool().getParallelism()
+            : ForkJoinPool.getCommonPoolParallelism();
+        final int chunks = (int) Math.max( 1, Math.min( (long) Math.max( 1, parallelism ) * CHUNKS_PER_THREAD,
+            length / MIN_CHUNK_LENGTH ) );
+        final int[] boundaries = new int[chunks + 1];
+        int count = 1;
+        for ( int chunk = 1; chunk < chunks; chunk++ ) {
+            int boundary = (int) ( (long) length * chunk / chunks );
+            if ( boundary <= boundaries[count - 1] ) {
+                continue;
+            }
+            while ( boundary < length && string.charAt( boundary ) != '\n' && string.charAt( boundary ) != '\r' ) {
+                boundary++;
+            }
+            boundary += string.startsWith( "\r\n", boundary ) ? 2 : 1;
+            if ( boundary >= length ) {
+                break;
+            }
+            boundaries[count++] = boundary;
+        }
+        boundaries[count++] = length;
+        return Arrays.copyOf( boundaries, count );
+    }
+
+    private ChunkResult checkChunk( final String string, final int chunk, final int[] boundaries,
+                                    final AtomicInteger firstFailedChunk ) {
+        final int end = boundaries[chunk + 1];
+        long line = 1;
+        int lineStart = boundaries[chunk];
+        while ( lineStart < end ) {
+            if ( firstFailedChunk.get() < chunk ) {
+                // An earlier chunk has an error, so the result of this chunk is not needed
+                return new ChunkResult( line - 1, Optional.empty() );
+            }
+            int lineEnd = lineStart;
+            while ( lineEnd < end && string.charAt( lineEnd ) != '\n' && string.charAt( lineEnd ) != '\r' ) {
+                lineEnd++;
+            }
+            if ( lineEnd > lineStart ) {
+                final Optional<SyntaxError> error = checkLine( string, lineStart, lineEnd );
+                if ( error.isPresent() ) {
+                    firstFailedChunk.accumulateAndGet( chunk, Math::min );
+                    return new ChunkResult( line - 1, Optional.of( new SyntaxError( error.get().message(), line,
+                        error.get().column(), error.get().severity() ) ) );
+                }
+            }
+            if ( lineEnd >= end ) {
+                break;
+            }
+            lineStart = lineEnd + ( string.startsWith( "\r\n", lineEnd ) ? 2 : 1 );
+            line++;
+        }
+        return new ChunkResult( line - 1, Optional.empty() );
+    }
+}
@@ -0,0 +1,29 @@
+package de.atextor.syntax;
+
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.util.Optional;
+
+/**
+ * Function that checks whether a given string is valid <a href="https://github.com/ndjson/ndjson-spec">newline
+ * delimited JSON</a>, i.e., whether each line is a JSON value as checked by {@link JSON}. Lines that only contain
+ * whitespace are ignored. Large strings are checked in parallel, see {@link LineDelimitedChecker}.
+ */
+public class NDJSON extends LineDelimitedChecker {
+    private final JSON json = new JSON();
+
+    /**
+     * Creates the checker
+     */
+    public NDJSON() {
+    }
+
+    @Override
+    protected Optional<SyntaxError> checkLine( final String string, final int start, final int end ) {
+        int index = start;
+        while ( index < end && ( string.charAt( index ) == ' ' || string.charAt( index ) == '\t' ) ) {
+            index++;
+        }
+        return index == end ? Optional.empty() : json.checkLine( string, start, end );
+    }
+}
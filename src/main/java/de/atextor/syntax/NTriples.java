@@ -0,0 +1,274 @@
+package de.atextor.syntax;
+
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.util.Optional;
+
+/**
+ * Function that checks whether a given string is syntactically valid <a href="https://www.w3.org/TR/n-triples/">RDF
+ * 1.1 N-Triples</a>. Each line is checked against the grammar of a triple by a scanner that builds no representation
+ * of the triples, so, unlike {@link Turtle}, this checker does not need Apache Jena. IRIs must be absolute, i.e.,
+ * start with a scheme. Large strings are checked in parallel, see {@link LineDelimitedChecker}.
+ */
+public class NTriples extends LineDelimitedChecker {
+    /**
+     * Signals a syntax error at a given offset. It has no stack trace, as it is only used for control flow.
+     */
+    private static final class InvalidTripleException extends RuntimeException {
+        private final int offset;
+
+        private InvalidTripleException( final int offset, final String message ) {
+            super( message, null, false, false );
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Creates the checker
+     */
+    public NTriples() {
+    }
+
+    @Override
+    protected Optional<SyntaxError> checkLine( final String string, final int start, final int end ) {
+        try {
+            validate( string, start, end );
+            return Optional.empty();
+        } catch ( final InvalidTripleException exception ) {
+            return Optional.of( new SyntaxError( exception.getMessage(), 1, exception.offset - start + 1L ) );
+        }
+    }
+
+    private static void validate( final String line, final int start, final int end ) {
+        int position = skipWhitespace( line, start, end );
+        if ( position == end || line.charAt( position ) == '#' ) {
+            return;
+        }
+        position = skipWhitespace( line, skipSubject( line, position, end ), end );
+        position = skipWhitespace( line, skipIri( line, position, end, "a predicate IRI" ), end );
+        position = skipWhitespace( line, skipObject( line, position, end ), end );
+        if ( position >= end || line.charAt( position ) != '.' ) {
+            throw unexpected( line, position, end, "'.'" );
+        }
+        position = skipWhitespace( line, position + 1, end );
+        if ( position < end && line.charAt( position ) != '#' ) {
+            throw new InvalidTripleException( position, "Unexpected character " + describe( line.charAt( position ) )
+                + " after the end of the triple" );
+        }
+    }
+
+    private static int skipWhitespace( final String line, final int position, final int end ) {
+        int index = position;
+        while ( index < end && ( line.charAt( index ) == ' ' || line.charAt( index ) == '\t' ) ) {
+            index++;
+        }
+        return index;
+    }
+
+    private static int skipSubject( final String line, final int position, final int end ) {
+        if ( line.startsWith( "_:", position ) ) {
+            return skipBlankNode( line, position, end );
+        }
+        return skipIri( line, position, end, "a subject IRI or blank node" );
+    }
+
+    private static int skipObject( final String line, final int position, final int end ) {
+        if ( line.startsWith( "_:", position ) ) {
+            return skipBlankNode( line, position, end );
+        }
+        if ( position < end && line.charAt( position ) == '"' ) {
+            return skipLiteral( line, position, end );
+        }
+        return skipIri( line, position, end, "an object IRI, blank node or literal" );
+    }
+
+    /**
+     * Skips an IRI reference, which must be absolute
+     *
+     * @param line the string
+     * @param position the position of the opening angle bracket
+     * @param end the end of the line
+     * @param expected the description of the expected term, used in the error message
+     * @return the position after the closing angle bracket
+     */
+    private static int skipIri( final String line, final int position, final int end, final String expected ) {
+        if ( position >= end || line.charAt( position ) != '<' ) {
+            throw unexpected( line, position, end, expected );
+        }
+        int index = position + 1;
+        int schemeEnd = -1;
+        boolean schemeValid = index < end && isAsciiLetter( line.charAt( index ) );
+        while ( index < end ) {
+            final char character = line.charAt( index );
+            if ( character == '>' ) {
+                if ( schemeEnd < 0 ) {
+                    throw new InvalidTripleException( position, "Relative IRI: IRIs must start with a scheme" );
+                }
+                return index + 1;
+            }
+            if ( character == '\\' ) {
+                if ( index + 1 >= end || line.charAt( index + 1 ) != 'u' && line.charAt( index + 1 ) != 'U' ) {
+                    throw new InvalidTripleException( index, "Invalid escape sequence in IRI: expected \\u or \\U" );
+                }
+                index = skipUnicodeEscape( line, index, end );
+                schemeValid = false;
+                continue;
+            }
+            if ( character <= 0x20 || "<\"{}|^`".indexOf( character ) >= 0 ) {
+                throw new InvalidTripleException( index, "Invalid character " + describe( character ) + " in IRI" );
+            }
+            if ( schemeEnd < 0 && schemeValid ) {
+                if ( character == ':' ) {
+                    schemeEnd = index;
+                } else if ( !isAsciiLetter( character ) && !isDigit( character ) && character != '+'
+                    && character != '-' && character != '.' ) {
+                    schemeValid = false;
+                }
+            }
+            index++;
+        }
+        throw new InvalidTripleException( position, "Unterminated IRI" );
+    }
+
+    private static int skipBlankNode( final String line, final int position, final int end ) {
+        int index = position + 2;
+        if ( index >= end ) {
+            throw new InvalidTripleException( index, "Unexpected end of line: expected a blank node label" );
+        }
+        final int first = line.codePointAt( index );
+        if ( !isLabelStart( first ) ) {
+            throw new InvalidTripleException( index, "Invalid character " + describe( first )
+                + " at the start of a blank node label" );
+        }
+        index += Character.charCount( first );
+        while ( index < end ) {
+            final int character = line.codePointAt( index );
+            if ( !isLabelCharacter( character ) && character != '.' ) {
+                break;
+            }
+            index += Character.charCount( character );
+        }
+        // A label can not end with a dot, so trailing dots belong to the triple
+        while ( line.charAt( index - 1 ) == '.' ) {
+            index--;
+        }
+        return index;
+    }
+
+    private static int skipLiteral( final String line, final int position, final int end ) {
+        int index = position + 1;
+        while ( true ) {
+            if ( index >= end ) {
+                throw new InvalidTripleException( position, "Unterminated literal" );
+            }
+            final char character = line.charAt( index );
+            if ( character == '"' ) {
+                index++;
+                break;
+            }
+            if ( character == '\\' ) {
+                index = skipEscapeSequence( line, index, end );
+            } else {
+                index++;
+            }
+        }
+        if ( line.startsWith( "^^", index ) ) {
+            return skipIri( line, index + 2, end, "a datatype IRI" );
+        }
+        if ( index < end && line.charAt( index ) == '@' ) {
+            return skipLanguageTag( line, index, end );
+        }
+        return index;
+    }
+
+    private static int skipLanguageTag( final String line, final int position, final int end ) {
+        int index = position + 1;
+        final int primaryStart = index;
+        while ( index < end && isAsciiLetter( line.charAt( index ) ) ) {
+            index++;
+        }
+        if ( index == primaryStart ) {
+            throw new InvalidTripleException( index, "Invalid language tag: expected a letter" );
+        }
+        while ( index < end && line.charAt( index ) == '-' ) {
+            final int subtagStart = ++index;
+            while ( index < end && ( isAsciiLetter( line.charAt( index ) ) || isDigit( line.charAt( index ) ) ) ) {
+                index++;
+            }
+            if ( index == subtagStart ) {
+                throw new InvalidTripleException( index, "Invalid language tag: expected a letter or digit" );
+            }
+        }
+        return index;
+    }
+
+    private static int skipEscapeSequence( final String line, final int position, final int end ) {
+        if ( position + 1 >= end ) {
+            throw new InvalidTripleException( position, "Unterminated literal" );
+        }
+        return switch ( line.charAt( position + 1 ) ) {
+            case 't', 'b', 'n', 'r', 'f', '"', '\'', '\\' -> position + 2;
+            case 'u', 'U' -> skipUnicodeEscape( line, position, end );
+            default -> throw new InvalidTripleException( position,
+                "Invalid escape sequence \\" + line.charAt( position + 1 ) );
+        };
+    }
+
+    private static int skipUnicodeEscape( final String line, final int position, final int end ) {
+        final int digits = line.charAt( position + 1 ) == 'u' ? 4 : 8;
+        for ( int index = position + 2; index < position + 2 + digits; index++ ) {
+            if ( index >= end || Character.digit( line.charAt( index ), 16 ) < 0 ) {
+                throw new InvalidTripleException( position, "Invalid escape sequence: expected " + digits
+                    + " hex digits" );
+            }
+        }
+        return position + 2 + digits;
+    }
+
+    private static boolean isLabelStart( final int character ) {
+        return isBaseCharacter( character ) || character == '_' || character == ':' || isDigit( character );
+    }
+
+    private static boolean isLabelCharacter( final int character ) {
+        return isLabelStart( character ) || character == '-' || character == 0xB7
+            || character >= 0x300 && character <= 0x36F || character >= 0x203F && character <= 0x2040;
+    }
+
+    /**
+     * Determines whether a character is in the production PN_CHARS_BASE of the N-Triples grammar
+     */
+    private static boolean isBaseCharacter( final int character ) {
+        return isAsciiLetter( character )
+            || character >= 0xC0 && character <= 0xD6
+            || character >= 0xD8 && character <= 0xF6
+            || character >= 0xF8 && character <= 0x2FF
+            || character >= 0x370 && character <= 0x37D
+            || character >= 0x37F && character <= 0x1FFF
+            || character >= 0x200C && character <= 0x200D
+            || character >= 0x2070 && character <= 0x218F
+            || character >= 0x2C00 && character <= 0x2FEF
+            || character >= 0x3001 && character <= 0xD7FF
+            || character >= 0xF900 && character <= 0xFDCF
+            || character >= 0xFDF0 && character <= 0xFFFD
+            || character >= 0x10000 && character <= 0xEFFFF;
+    }
+
+    private static boolean isAsciiLetter( final int character ) {
+        return character >= 'a' && character <= 'z' || character >= 'A' && character <= 'Z';
+    }
+
+    private static boolean isDigit( final int character ) {
+        return character >= '0' && character <= '9';
+    }
+
+    private static InvalidTripleException unexpected( final String line, final int position, final int end,
+                                                      final String expected ) {
+        return new InvalidTripleException( position, position >= end
+            ? "Unexpected end of line: expected " + expected
+            : "Unexpected character " + describe( line.charAt( position ) ) + ": expected " + expected );
+    }
+
+    private static String describe( final int character ) {
+        return character < 0x20 ? String.format( "'\\u%04x'", character ) : "'" + Character.toString( character ) + "'";
+    }
+}
@@ -1,22 +1,78 @@
 package de.atextor.syntax;
 
+import de.atextor.syntax.annotation.CheckerConfiguration;
+import de.atextor.syntax.annotation.ConfigurableChecker;
+import de.atextor.syntax.annotation.LocatingChecker;
+import de.atextor.syntax.annotation.ReusableChecker;
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.util.Locale;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 /**
- * Function that checks whether a given string is a syntactically valid regular expression
+ * Function that checks whether a given string is a syntactically valid regular expression. Optionally, valid
+ * expressions are also analyzed for constructs that can cause catastrophic backtracking on hostile input, such as
+ * nested quantifiers ({@code (a+)+}) or overlapping alternatives under a repetition ({@code (a|aa)*}). The analysis
+ * is enabled using the processor option {@value #REDOS_OPTION}, set to {@code warning} or {@code error}, and
+ * disabled with {@code off}; any other value is reported as an error at each expression.
  */
-public class RegExp implements Function<String, Optional<String>> {
+public class RegExp implements Function<String, Optional<String>>, LocatingChecker, ConfigurableChecker,
+    ReusableChecker {
+    /**
+     * The processor option that enables the backtracking analysis and sets the severity of its findings
+     */
+    public static final String REDOS_OPTION = "syntax.regexp.redos";
+
+    private Optional<SyntaxError.Severity> backtrackingSeverity = Optional.empty();
+
+    private Optional<String> configurationError = Optional.empty();
+
+    @Override
+    public void configure( final CheckerConfiguration configuration ) {
+        final Optional<String> value = configuration.option( REDOS_OPTION )
+            .map( option -> option.trim().toLowerCase( Locale.ROOT ) );
+        backtrackingSeverity = value.flatMap( option -> switch ( option ) {
+            case "error", "true" -> Optional.of( SyntaxError.Severity.ERROR );
+            case "warning" -> Optional.of( SyntaxError.Severity.WARNING );
+            default -> Optional.empty();
+        } );
+        configurationError = value
+            .filter( option -> backtrackingSeverity.isEmpty() && !option.equals( "off" ) && !option.equals( "false" ) )
+            .map( option -> "Invalid value of " + REDOS_OPTION + ": expected warning, error or off" );
+    }
+
+    /**
+     * Identifies the severity of the backtracking analysis. With an invalid option value, outcomes are not cached, as
+     * they only report the configuration error.
+     */
+    @Override
+    public Optional<String> configurationFingerprint() {
+        if ( configurationError.isPresent() ) {
+            return Optional.empty();
+        }
+        return Optional.of( REDOS_OPTION + "=" + backtrackingSeverity.map( Enum::name ).orElse( "" ) );
+    }
+
     @Override
     public Optional<String> apply( final String regExpString ) {
+        return check( regExpString ).map( SyntaxError::formatted );
+    }
+
+    @Override
+    public Optional<SyntaxError> check( final String regExpString ) {
         try {
             Pattern.compile( regExpString );
-            return Optional.empty();
         } catch ( final PatternSyntaxException e ) {
-            return Optional.of( e.getMessage() );
-
+            // The message of the exception already contains the index of the error and the pattern
+            return Optional.of( new SyntaxError( e.getMessage(), -1, -1 ) );
+        }
+        if ( configurationError.isPresent() ) {
+            return configurationError.map( message -> new SyntaxError( message, -1, -1 ) );
         }
+        return backtrackingSeverity.flatMap( severity -> RegExpAnalyzer.analyze( regExpString )
+            .map( finding -> SyntaxError.atOffset( finding.message(), regExpString, finding.offset(), severity ) ) );
     }
 }
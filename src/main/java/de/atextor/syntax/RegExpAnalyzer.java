@@ -0,0 +1,774 @@
+package de.atextor.syntax;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Static analysis of regular expressions for constructs that can lead to catastrophic (exponential) backtracking
+ * in a backtracking regular expression engine such as {@link java.util.regex.Pattern}. The expression is parsed into
+ * a simplified syntax tree in which each character matcher is approximated by the set of ASCII characters it can
+ * match, plus a flag for non-ASCII characters. Two constructs are detected inside repetitions with an unbounded
+ * maximum, such as {@code *}, {@code +} or <code>{2,}</code>:
+ * <ul>
+ *     <li>Nested quantifiers: An inner repetition of variable length, where everything else that is matched between two
+ *     occurrences of the inner repetition can match a string of characters the inner repetition can match as well,
+ *     e.g. {@code (a+)+}, {@code (\w+\s?)*}, {@code (.*,)*} or {@code ([a-z]+.)+}. A run of such characters can be
+ *     split between the inner and the outer repetition in exponentially many ways.</li>
+ *     <li>Overlapping alternatives: Two alternatives of an alternation that can start and end with the same
+ *     characters and of which one only uses characters the other can match as well, e.g. {@code (a|aa)*} or
+ *     {@code (\w|\d)+}. Each repetition multiplies the number of ways to match the input.</li>
+ * </ul>
+ * Possessive quantifiers and atomic groups do not backtrack, so repetitions that are possessive or are located
+ * within an atomic group are not reported. The analysis is a heuristic: It may miss vulnerable expressions and
+ * report safe ones. It expects a syntactically valid expression.
+ */
+class RegExpAnalyzer {
+    private static final int UNBOUNDED = -1;
+
+    private final String pattern;
+
+    private int position;
+
+    private boolean caseInsensitive;
+
+    private boolean comments;
+
+    /**
+     * A problematic construct in a regular expression
+     *
+     * @param message the description of the construct
+     * @param offset the offset of the construct in the expression
+     */
+    record Finding( String message, int offset ) {
+    }
+
+    /**
+     * A set of characters: the ASCII characters given by a bit set, and all non-ASCII characters if the flag is set
+     */
+    private record CharacterSet( BitSet ascii, boolean nonAscii ) {
+        private static final CharacterSet EMPTY = new CharacterSet( new BitSet( 128 ), false );
+
+        private static final CharacterSet ANY = EMPTY.complement();
+
+        static CharacterSet of( final int codePoint ) {
+            if ( codePoint >= 128 ) {
+                return new CharacterSet( new BitSet( 128 ), true );
+            }
+            final BitSet ascii = new BitSet( 128 );
+            ascii.set( codePoint );
+            return new CharacterSet( ascii, false );
+        }
+
+        static CharacterSet range( final int from, final int to ) {
+            final BitSet ascii = new BitSet( 128 );
+            if ( from < 128 ) {
+                ascii.set( from, Math.min( to, 127 ) + 1 );
+            }
+            return new CharacterSet( ascii, to >= 128 );
+        }
+
+        static CharacterSet ofChars( final String characters ) {
+            CharacterSet result = EMPTY;
+            for ( int index = 0; index < characters.length(); index++ ) {
+                result = result.union( of( characters.charAt( index ) ) );
+            }
+            return result;
+        }
+
+        CharacterSet union( final CharacterSet other ) {
+            final BitSet union = (BitSet) ascii.clone();
+            union.or( other.ascii );
+            return new CharacterSet( union, nonAscii || other.nonAscii );
+        }
+
+        CharacterSet intersection( final CharacterSet other ) {
+            final BitSet intersection = (BitSet) ascii.clone();
+            intersection.and( other.ascii );
+            return new CharacterSet( intersection, nonAscii && other.nonAscii );
+        }
+
+        CharacterSet complement() {
+            final BitSet complement = (BitSet) ascii.clone();
+            complement.flip( 0, 128 );
+            return new CharacterSet( complement, !nonAscii );
+        }
+
+        CharacterSet withOtherCase() {
+            final BitSet result = (BitSet) ascii.clone();
+            for ( int character = ascii.nextSetBit( 0 ); character >= 0;
+                  character = ascii.nextSetBit( character + 1 ) ) {
+                if ( Character.isLetter( character ) ) {
+                    result.set( Character.toLowerCase( character ) );
+                    result.set( Character.toUpperCase( character ) );
+                }
+            }
+            return new CharacterSet( result, nonAscii );
+        }
+
+        boolean isEmpty() {
+            return ascii.isEmpty() && !nonAscii;
+        }
+
+        boolean intersects( final CharacterSet other ) {
+            return ascii.intersects( other.ascii ) || ( nonAscii && other.nonAscii );
+        }
+
+        boolean isSubsetOf( final CharacterSet other ) {
+            final BitSet difference = (BitSet) ascii.clone();
+            difference.andNot( other.ascii );
+            return difference.isEmpty() && ( !nonAscii || other.nonAscii );
+        }
+    }
+
+    /**
+     * Node of the simplified syntax tree. Each node knows its range in the expression.
+     */
+    private sealed interface Node {
+        int start();
+
+        int end();
+    }
+
+    /**
+     * Matches one character of a set
+     */
+    private record Atom( CharacterSet characters, int start, int end ) implements Node {
+    }
+
+    /**
+     * Matches the empty string, e.g. an anchor or a lookaround
+     */
+    private record Empty( int start, int end ) implements Node {
+    }
+
+    private record Sequence( List<Node> elements, int start, int end ) implements Node {
+    }
+
+    private record Alternation( List<Node> branches, int start, int end ) implements Node {
+    }
+
+    /**
+     * A quantified node
+     *
+     * @param max the maximum number of repetitions, or {@link #UNBOUNDED}
+     */
+    private record Repetition( Node body, int min, int max, boolean possessive, int start, int end ) implements Node {
+    }
+
+    /**
+     * An atomic group or a lookaround: Its content is not backtracked into once it has matched
+     */
+    private record Atomic( Node body, boolean consuming, int start, int end ) implements Node {
+    }
+
+    /**
+     * A back reference, which can match any string
+     */
+    private record BackReference( int start, int end ) implements Node {
+    }
+
+    private RegExpAnalyzer( final String pattern ) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * Analyzes a syntactically valid regular expression
+     *
+     * @param pattern the expression
+     * @return the first problematic construct found, or empty if none was found
+     */
+    static Optional<Finding> analyze( final String pattern ) {
+        final RegExpAnalyzer analyzer = new RegExpAnalyzer( pattern );
+        return analyzer.findFirst( analyzer.parseAlternation() );
+    }
+
+    // Parsing
+
+    private Node parseAlternation() {
+        final int start = position;
+        final List<Node> branches = new ArrayList<>();
+        branches.add( parseSequence() );
+        while ( position < pattern.length() && pattern.charAt( position ) == '|' ) {
+            position++;
+            branches.add( parseSequence() );
+        }
+        return branches.size() == 1 ? branches.getFirst() : new Alternation( branches, start, position );
+    }
+
+    private Node parseSequence() {
+        final int start = position;
+        final List<Node> elements = new ArrayList<>();
+        while ( true ) {
+            skipComments();
+            if ( position >= pattern.length() || pattern.charAt( position ) == '|'
+                || pattern.charAt( position ) == ')' ) {
+                break;
+            }
+            final int atomStart = position;
+            final Node atom = parseAtom();
+            skipComments();
+            elements.add( parseQuantifier( atom, atomStart ) );
+        }
+        return elements.size() == 1 ? elements.getFirst() : new Sequence( elements, start, position );
+    }
+
+    private void skipComments() {
+        while ( comments && position < pattern.length() ) {
+            final char character = pattern.charAt( position );
+            if ( Character.isWhitespace( character ) ) {
+                position++;
+            } else if ( character == '#' ) {
+                while ( position < pattern.length() && pattern.charAt( position ) != '\n' ) {
+                    position++;
+                }
+            } else {
+                break;
+            }
+        }
+    }
+
+    private Node parseQuantifier( final Node atom, final int start ) {
+        if ( position >= pattern.length() ) {
+            return atom;
+        }
+        final int min;
+        final int max;
+        switch ( pattern.charAt( position ) ) {
+            case '*' -> {
+                min = 0;
+                max = UNBOUNDED;
+                position++;
+            }
+            case '+' -> {
+                min = 1;
+                max = UNBOUNDED;
+                position++;
+            }
+            case '?' -> {
+                min = 0;
+                max = 1;
+                position++;
+            }
+            case '{' -> {
+                final int closingBrace = pattern.indexOf( '}', position );
+                final String[] bounds = closingBrace < 0
+                    ? new String[0]
+                    : pattern.substring( position + 1, closingBrace ).split( ",", -1 );
+                if ( bounds.length == 0 || bounds.length > 2 || !isBound( bounds[0] )
+                    || ( bounds.length == 2 && !bounds[1].isBlank() && !isBound( bounds[1] ) ) ) {
+                    // Not a valid bound, which Pattern would have rejected: Leave the brace to the next atom
+                    return atom;
+                }
+                min = Integer.parseInt( bounds[0].trim() );
+                max = bounds.length == 1 ? min
+                    : bounds[1].isBlank() ? UNBOUNDED : Integer.parseInt( bounds[1].trim() );
+                position = closingBrace + 1;
+            }
+            default -> {
+                return atom;
+            }
+        }
+        boolean possessive = false;
+        if ( position < pattern.length()
+            && ( pattern.charAt( position ) == '?' || pattern.charAt( position ) == '+' ) ) {
+            possessive = pattern.charAt( position ) == '+';
+            position++;
+        }
+        return new Repetition( atom, min, max, possessive, start, position );
+    }
+
+    private static boolean isBound( final String bound ) {
+        final String digits = bound.trim();
+        return !digits.isEmpty() && digits.length() < 10
+            && digits.chars().allMatch( character -> character >= '0' && character <= '9' );
+    }
+
+    private Node parseAtom() {
+        final int start = position;
+        final int codePoint = pattern.codePointAt( position );
+        position += Character.charCount( codePoint );
+        return switch ( codePoint ) {
+            case '(' -> parseGroup( start );
+            case '[' -> new Atom( caseFolded( parseCharacterClass() ), start, position );
+            case '.' -> new Atom( CharacterSet.ANY, start, position );
+            case '^', '$' -> new Empty( start, position );
+            case '\\' -> parseEscape( start );
+            default -> new Atom( caseFolded( CharacterSet.of( codePoint ) ), start, position );
+        };
+    }
+
+    private Node parseGroup( final int start ) {
+        boolean atomic = false;
+        boolean lookaround = false;
+        if ( pattern.startsWith( "?", position ) ) {
+            position++;
+            final char kind = pattern.charAt( position );
+            if ( kind == ':' ) {
+                position++;
+            } else if ( kind == '>' ) {
+                atomic = true;
+                position++;
+            } else if ( kind == '=' || kind == '!' ) {
+                lookaround = true;
+                position++;
+            } else if ( pattern.startsWith( "<=", position ) || pattern.startsWith( "<!", position ) ) {
+                lookaround = true;
+                position += 2;
+            } else if ( kind == '<' ) {
+                position = pattern.indexOf( '>', position ) + 1;
+            } else {
+                // Inline flags, either (?flags) or (?flags:X)
+                boolean enable = true;
+                while ( pattern.charAt( position ) != ')' && pattern.charAt( position ) != ':' ) {
+                    final char flag = pattern.charAt( position++ );
+                    if ( flag == '-' ) {
+                        enable = false;
+                    } else if ( flag == 'i' ) {
+                        caseInsensitive = enable;
+                    } else if ( flag == 'x' ) {
+                        comments = enable;
+                    }
+                }
+                if ( pattern.charAt( position++ ) == ')' ) {
+                    return new Empty( start, position );
+                }
+            }
+        }
+        final Node body = parseAlternation();
+        // Skip the closing parenthesis
+        position++;
+        if ( atomic || lookaround ) {
+            return new Atomic( body, atomic, start, position );
+        }
+        return body;
+    }
+
+    private Node parseEscape( final int start ) {
+        final char escaped = pattern.charAt( position++ );
+        return switch ( escaped ) {
+            case 'b', 'B', 'A', 'G', 'z', 'Z' -> {
+                if ( escaped == 'b' && pattern.startsWith( "{g}", position ) ) {
+                    position += 3;
+                }
+                yield new Empty( start, position );
+            }
+            case 'Q' -> {
+                final int end = pattern.indexOf( "\\E", position );
+                final int literalEnd = end < 0 ? pattern.length() : end;
+                final List<Node> literal = new ArrayList<>();
+                for ( int index = position; index < literalEnd; index++ ) {
+                    final CharacterSet character = caseFolded( CharacterSet.of( pattern.charAt( index ) ) );
+                    literal.add( new Atom( character, index, index + 1 ) );
+                }
+                position = end < 0 ? pattern.length() : end + 2;
+                yield new Sequence( literal, start, position );
+            }
+            case 'k' -> {
+                position = pattern.indexOf( '>', position ) + 1;
+                yield new BackReference( start, position );
+            }
+            case 'R', 'X' -> new Repetition( new Atom( CharacterSet.ANY, start, position ), 1, 2, false, start,
+                position );
+            default -> {
+                if ( escaped >= '1' && escaped <= '9' ) {
+                    while ( position < pattern.length() && Character.isDigit( pattern.charAt( position ) ) ) {
+                        position++;
+                    }
+                    yield new BackReference( start, position );
+                }
+                yield new Atom( caseFolded( escapedCharacters( escaped ) ), start, position );
+            }
+        };
+    }
+
+    /**
+     * Parses the remainder of an escape sequence that matches a single character, starting after the escaped
+     * character
+     */
+    private CharacterSet escapedCharacters( final char escaped ) {
+        return switch ( escaped ) {
+            case 'd' -> CharacterSet.range( '0', '9' );
+            case 'D' -> CharacterSet.range( '0', '9' ).complement();
+            case 'w' -> wordCharacters();
+            case 'W' -> wordCharacters().complement();
+            case 's' -> CharacterSet.ofChars( " \t\n\u000B\f\r" );
+            case 'S' -> CharacterSet.ofChars( " \t\n\u000B\f\r" ).complement();
+            case 'h' -> CharacterSet.ofChars( " \t" ).union( CharacterSet.of( 0xA0 ) );
+            case 'H' -> CharacterSet.ofChars( " \t" ).complement();
+            case 'v' -> CharacterSet.ofChars( "\n\u000B\f\r" ).union( CharacterSet.of( 0x85 ) );
+            case 'V' -> CharacterSet.ofChars( "\n\u000B\f\r" ).complement();
+            case 't' -> CharacterSet.of( '\t' );
+            case 'n' -> CharacterSet.of( '\n' );
+            case 'r' -> CharacterSet.of( '\r' );
+            case 'f' -> CharacterSet.of( '\f' );
+            case 'a' -> CharacterSet.of( 7 );
+            case 'e' -> CharacterSet.of( 27 );
+            case 'c' -> CharacterSet.of( pattern.charAt( position++ ) ^ 64 );
+            case 'p', 'P' -> {
+                // Unicode and POSIX classes are approximated as any character
+                if ( pattern.charAt( position ) == '{' ) {
+                    position = pattern.indexOf( '}', position ) + 1;
+                } else {
+                    position++;
+                }
+                yield CharacterSet.ANY;
+            }
+            case 'x' -> {
+                final int digitsEnd;
+                if ( pattern.charAt( position ) == '{' ) {
+                    digitsEnd = pattern.indexOf( '}', position );
+                    final int codePoint = Integer.parseInt( pattern, position + 1, digitsEnd, 16 );
+                    position = digitsEnd + 1;
+                    yield CharacterSet.of( codePoint );
+                }
+                digitsEnd = position + 2;
+                final int codePoint = Integer.parseInt( pattern, position, digitsEnd, 16 );
+                position = digitsEnd;
+                yield CharacterSet.of( codePoint );
+            }
+            case 'u' -> {
+                final int codePoint = Integer.parseInt( pattern, position, position + 4, 16 );
+                position += 4;
+                yield CharacterSet.of( codePoint );
+            }
+            case 'N' -> {
+                // A named character, \N{name}
+                final int nameEnd = pattern.indexOf( '}', position );
+                final String name = pattern.substring( position + 1, nameEnd );
+                position = nameEnd + 1;
+                yield CharacterSet.of( Character.codePointOf( name ) );
+            }
+            case '0' -> {
+                int value = 0;
+                int digits = 0;
+                while ( digits < 3 && position < pattern.length() && pattern.charAt( position ) >= '0'
+                    && pattern.charAt( position ) <= '7' && value * 8 + pattern.charAt( position ) - '0' <= 0377 ) {
+                    value = value * 8 + pattern.charAt( position++ ) - '0';
+                    digits++;
+                }
+                yield CharacterSet.of( value );
+            }
+            default -> CharacterSet.of( escaped );
+        };
+    }
+
+    private static CharacterSet wordCharacters() {
+        return CharacterSet.range( 'a', 'z' ).union( CharacterSet.range( 'A', 'Z' ) )
+            .union( CharacterSet.range( '0', '9' ) ).union( CharacterSet.of( '_' ) );
+    }
+
+    /**
+     * Parses a character class, starting after the opening bracket and ending after the closing bracket
+     */
+    private CharacterSet parseCharacterClass() {
+        final boolean negated = pattern.charAt( position ) == '^';
+        if ( negated ) {
+            position++;
+        }
+        CharacterSet characters = CharacterSet.EMPTY;
+        boolean first = true;
+        while ( pattern.charAt( position ) != ']' || first ) {
+            first = false;
+            if ( pattern.startsWith( "&&", position ) ) {
+                position += 2;
+                if ( pattern.charAt( position ) == ']' ) {
+                    // An empty right operand is ignored
+                    continue;
+                }
+                final CharacterSet intersected = pattern.charAt( position ) == '['
+                    ? parseNestedCharacterClass()
+                    : parseCharacterClassOperand();
+                characters = characters.intersection( intersected );
+                continue;
+            }
+            if ( pattern.charAt( position ) == '[' ) {
+                characters = characters.union( parseNestedCharacterClass() );
+                continue;
+            }
+            characters = characters.union( parseCharacterClassOperand() );
+        }
+        position++;
+        return negated ? characters.complement() : characters;
+    }
+
+    private CharacterSet parseNestedCharacterClass() {
+        position++;
+        return parseCharacterClass();
+    }
+
+    /**
+     * Parses the characters of a character class up to the closing bracket or an intersection operator
+     */
+    private CharacterSet parseCharacterClassOperand() {
+        CharacterSet characters = CharacterSet.EMPTY;
+        do {
+            final int rangeStart;
+            if ( pattern.charAt( position ) == '\\' ) {
+                position++;
+                final char escaped = pattern.charAt( position++ );
+                if ( escaped == 'Q' ) {
+                    final int end = pattern.indexOf( "\\E", position );
+                    characters = characters.union( CharacterSet.ofChars( pattern.substring( position, end ) ) );
+                    position = end + 2;
+                    continue;
+                }
+                final CharacterSet escapedCharacters = escapedCharacters( escaped );
+                if ( escapedCharacters.ascii().cardinality() != 1 || escapedCharacters.nonAscii() ) {
+                    characters = characters.union( escapedCharacters );
+                    continue;
+                }
+                rangeStart = escapedCharacters.ascii().nextSetBit( 0 );
+            } else {
+                rangeStart = pattern.codePointAt( position );
+                position += Character.charCount( rangeStart );
+            }
+            if ( pattern.charAt( position ) == '-' && pattern.charAt( position + 1 ) != ']'
+                && pattern.charAt( position + 1 ) != '[' ) {
+                position++;
+                final int rangeEnd;
+                if ( pattern.charAt( position ) == '\\' ) {
+                    position++;
+                    rangeEnd = escapedCharacters( pattern.charAt( position++ ) ).ascii().nextSetBit( 0 );
+                } else {
+                    rangeEnd = pattern.codePointAt( position );
+                    position += Character.charCount( rangeEnd );
+                }
+                characters = characters.union( CharacterSet.range( rangeStart, Math.max( rangeStart, rangeEnd ) ) );
+            } else {
+                characters = characters.union( CharacterSet.of( rangeStart ) );
+            }
+        } while ( pattern.charAt( position ) != ']' && pattern.charAt( position ) != '['
+            && !pattern.startsWith( "&&", position ) );
+        return characters;
+    }
+
+    private CharacterSet caseFolded( final CharacterSet characters ) {
+        return caseInsensitive ? characters.withOtherCase() : characters;
+    }
+
+    // Properties of nodes
+
+    private static boolean isNullable( final Node node ) {
+        return switch ( node ) {
+            case Atom atom -> false;
+            case Empty empty -> true;
+            case Sequence sequence -> sequence.elements().stream().allMatch( RegExpAnalyzer::isNullable );
+            case Alternation alternation -> alternation.branches().stream().anyMatch( RegExpAnalyzer::isNullable );
+            case Repetition repetition -> repetition.min() == 0 || isNullable( repetition.body() );
+            case Atomic atomic -> !atomic.consuming() || isNullable( atomic.body() );
+            case BackReference backReference -> true;
+        };
+    }
+
+    /**
+     * Whether a node can match a string, possibly the empty one, that consists only of characters of a set
+     */
+    private static boolean canMatchWithin( final Node node, final CharacterSet characters ) {
+        return switch ( node ) {
+            case Atom atom -> atom.characters().intersects( characters );
+            case Empty empty -> true;
+            case Sequence sequence -> sequence.elements().stream()
+                .allMatch( element -> canMatchWithin( element, characters ) );
+            case Alternation alternation -> alternation.branches().stream()
+                .anyMatch( branch -> canMatchWithin( branch, characters ) );
+            case Repetition repetition -> repetition.min() == 0 || canMatchWithin( repetition.body(), characters );
+            case Atomic atomic -> !atomic.consuming() || canMatchWithin( atomic.body(), characters );
+            case BackReference backReference -> true;
+        };
+    }
+
+    /**
+     * Returns all characters a node can match
+     */
+    private static CharacterSet characters( final Node node ) {
+        return switch ( node ) {
+            case Atom atom -> atom.characters();
+            case Empty empty -> CharacterSet.EMPTY;
+            case Sequence sequence -> sequence.elements().stream().map( RegExpAnalyzer::characters )
+                .reduce( CharacterSet.EMPTY, CharacterSet::union );
+            case Alternation alternation -> alternation.branches().stream().map( RegExpAnalyzer::characters )
+                .reduce( CharacterSet.EMPTY, CharacterSet::union );
+            case Repetition repetition -> repetition.max() == 0 ? CharacterSet.EMPTY : characters( repetition.body() );
+            case Atomic atomic -> atomic.consuming() ? characters( atomic.body() ) : CharacterSet.EMPTY;
+            case BackReference backReference -> CharacterSet.ANY;
+        };
+    }
+
+    /**
+     * Returns the characters a node can start with (or end with, if {@code fromEnd} is set)
+     */
+    private static CharacterSet boundaryCharacters( final Node node, final boolean fromEnd ) {
+        return switch ( node ) {
+            case Sequence sequence -> {
+                CharacterSet result = CharacterSet.EMPTY;
+                final List<Node> elements = fromEnd ? sequence.elements().reversed() : sequence.elements();
+                for ( final Node element : elements ) {
+                    result = result.union( boundaryCharacters( element, fromEnd ) );
+                    if ( !isNullable( element ) ) {
+                        break;
+                    }
+                }
+                yield result;
+            }
+            case Alternation alternation -> alternation.branches().stream()
+                .map( branch -> boundaryCharacters( branch, fromEnd ) )
+                .reduce( CharacterSet.EMPTY, CharacterSet::union );
+            case Repetition repetition ->
+                repetition.max() == 0 ? CharacterSet.EMPTY : boundaryCharacters( repetition.body(), fromEnd );
+            case Atomic atomic ->
+                atomic.consuming() ? boundaryCharacters( atomic.body(), fromEnd ) : CharacterSet.EMPTY;
+            default -> characters( node );
+        };
+    }
+
+    // Analysis
+
+    private Optional<Finding> findFirst( final Node node ) {
+        if ( node instanceof final Repetition repetition && isBacktrackingLoop( repetition ) ) {
+            final Optional<Finding> finding = findNestedQuantifier( repetition )
+                .or( () -> findOverlappingAlternatives( repetition, repetition.body() ) );
+            if ( finding.isPresent() ) {
+                return finding;
+            }
+        }
+        return switch ( node ) {
+            case Sequence sequence -> findFirst( sequence.elements() );
+            case Alternation alternation -> findFirst( alternation.branches() );
+            case Repetition repetition -> findFirst( repetition.body() );
+            case Atomic atomic -> findFirst( atomic.body() );
+            default -> Optional.empty();
+        };
+    }
+
+    private Optional<Finding> findFirst( final List<Node> nodes ) {
+        for ( final Node node : nodes ) {
+            final Optional<Finding> finding = findFirst( node );
+            if ( finding.isPresent() ) {
+                return finding;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isBacktrackingLoop( final Repetition repetition ) {
+        return repetition.max() == UNBOUNDED && !repetition.possessive()
+            && !characters( repetition.body() ).isEmpty();
+    }
+
+    /**
+     * Whether a repetition can match a run of characters in more than one way together with an enclosing repetition,
+     * e.g. {@code a+} or <code>a{1,5}</code> in contrast to {@code a?} or <code>a{3}</code>
+     */
+    private static boolean isVariableRepetition( final Repetition repetition ) {
+        return !repetition.possessive() && !characters( repetition.body() ).isEmpty()
+            && ( repetition.max() == UNBOUNDED || repetition.max() > Math.max( 1, repetition.min() ) );
+    }
+
+    private Optional<Finding> findNestedQuantifier( final Repetition outer ) {
+        return findNestedQuantifier( outer, outer.body(), List.of() );
+    }
+
+    /**
+     * Looks for an inner repetition within a node of the body of an outer repetition
+     *
+     * @param outer the outer repetition
+     * @param node the current node
+     * @param gap the nodes that are matched between two occurrences of the current node
+     */
+    private Optional<Finding> findNestedQuantifier( final Repetition outer, final Node node, final List<Node> gap ) {
+        switch ( node ) {
+            case Repetition inner -> {
+                if ( isVariableRepetition( inner ) ) {
+                    final CharacterSet innerCharacters = characters( inner.body() );
+                    final boolean gapIsAbsorbed =
+                        gap.stream().allMatch( gapNode -> canMatchWithin( gapNode, innerCharacters ) );
+                    if ( gapIsAbsorbed ) {
+                        return Optional.of( new Finding( String.format( "Possible catastrophic backtracking: The "
+                                + "repetition '%s' contains the repetition '%s', and the same input can be split "
+                                + "between them in exponentially many ways. Make a quantifier possessive, use an "
+                                + "atomic group, or change the expression so that the inner and the outer "
+                                + "repetition can not match the same characters.", text( outer ), text( inner ) ),
+                            inner.start() ) );
+                    }
+                }
+                return findNestedQuantifier( outer, inner.body(), gap );
+            }
+            case Sequence sequence -> {
+                for ( int index = 0; index < sequence.elements().size(); index++ ) {
+                    final List<Node> elementGap = new ArrayList<>( gap );
+                    elementGap.addAll( sequence.elements().subList( 0, index ) );
+                    elementGap.addAll( sequence.elements().subList( index + 1, sequence.elements().size() ) );
+                    final Optional<Finding> finding =
+                        findNestedQuantifier( outer, sequence.elements().get( index ), elementGap );
+                    if ( finding.isPresent() ) {
+                        return finding;
+                    }
+                }
+                return Optional.empty();
+            }
+            case Alternation alternation -> {
+                for ( final Node branch : alternation.branches() ) {
+                    final Optional<Finding> finding = findNestedQuantifier( outer, branch, gap );
+                    if ( finding.isPresent() ) {
+                        return finding;
+                    }
+                }
+                return Optional.empty();
+            }
+            default -> {
+                // Atomic groups and lookarounds are not backtracked into
+                return Optional.empty();
+            }
+        }
+    }
+
+    private Optional<Finding> findOverlappingAlternatives( final Repetition outer, final Node node ) {
+        return switch ( node ) {
+            case Alternation alternation -> {
+                final List<Node> branches = alternation.branches();
+                for ( int first = 0; first < branches.size(); first++ ) {
+                    for ( int second = first + 1; second < branches.size(); second++ ) {
+                        if ( overlap( branches.get( first ), branches.get( second ) ) ) {
+                            yield Optional.of( new Finding( String.format( "Possible catastrophic backtracking: The "
+                                    + "alternatives '%s' and '%s' can match the same input, and the repetition "
+                                    + "'%s' multiplies the number of ways to match it. Change the alternatives so "
+                                    + "that they can not match the same input.", text( branches.get( first ) ),
+                                text( branches.get( second ) ), text( outer ) ), alternation.start() ) );
+                        }
+                    }
+                }
+                yield findOverlappingAlternatives( outer, branches );
+            }
+            case Sequence sequence -> findOverlappingAlternatives( outer, sequence.elements() );
+            case Repetition repetition -> repetition.possessive()
+                ? Optional.empty()
+                : findOverlappingAlternatives( outer, repetition.body() );
+            default -> Optional.empty();
+        };
+    }
+
+    private Optional<Finding> findOverlappingAlternatives( final Repetition outer, final List<Node> nodes ) {
+        for ( final Node node : nodes ) {
+            final Optional<Finding> finding = findOverlappingAlternatives( outer, node );
+            if ( finding.isPresent() ) {
+                return finding;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean overlap( final Node first, final Node second ) {
+        final CharacterSet firstCharacters = characters( first );
+        final CharacterSet secondCharacters = characters( second );
+        return !firstCharacters.isEmpty() && !secondCharacters.isEmpty()
+            && boundaryCharacters( first, false ).intersects( boundaryCharacters( second, false ) )
+            && boundaryCharacters( first, true ).intersects( boundaryCharacters( second, true ) )
+            && ( firstCharacters.isSubsetOf( secondCharacters ) || secondCharacters.isSubsetOf( firstCharacters ) );
+    }
+
+    private String text( final Node node ) {
+        return pattern.substring( node.start(), node.end() );
+    }
+}
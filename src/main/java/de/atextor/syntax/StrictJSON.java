@@ -0,0 +1,16 @@
+package de.atextor.syntax;
+
+/**
+ * Function that checks whether a given string is syntactically valid JSON, like {@link JSON}, and additionally
+ * rejects objects with duplicate member names as well as arrays and objects nested more than 64 levels deep
+ */
+public class StrictJSON extends JSON {
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * Creates the checker
+     */
+    public StrictJSON() {
+        super( true, MAX_DEPTH );
+    }
+}
@@ -1,25 +1,96 @@
 package de.atextor.syntax;
 
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.ModelFactory;
+import de.atextor.syntax.annotation.BatchChecker;
+import de.atextor.syntax.annotation.LocatingChecker;
+import de.atextor.syntax.annotation.ReusableChecker;
+import de.atextor.syntax.annotation.SyntaxError;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RDFParserBuilder;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.ErrorHandler;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.apache.jena.sys.JenaSystem;
 
-import java.io.StringReader;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 
 /**
- * Function that checks whether a given string is syntactically valid RDF/Turtle
+ * Function that checks whether a given string is syntactically valid RDF/Turtle. The string is parsed in streaming
+ * mode and the parsed triples are discarded immediately, so that memory use does not depend on the size of the
+ * string. As a {@link BatchChecker}, all strings of a compilation are parsed in one call with the same parser
+ * configuration and sink; each string is still parsed on its own, so that an error in one string does not affect
+ * the others.
  */
-public class Turtle implements Function<String, Optional<String>> {
+public class Turtle implements Function<String, Optional<String>>, LocatingChecker, BatchChecker, ReusableChecker {
+    /**
+     * Creates the checker and runs Jena's one-time initialization, so that it is not part of the first check
+     */
+    public Turtle() {
+        JenaSystem.init();
+    }
+
     @Override
     public Optional<String> apply( final String turtleString ) {
-        final Model model = ModelFactory.createDefaultModel();
-        final StringReader stringReader = new StringReader( turtleString );
+        return check( turtleString ).map( SyntaxError::formatted );
+    }
+
+    @Override
+    public Optional<SyntaxError> check( final String turtleString ) {
+        return check( RDFParser.create().lang( Lang.TURTLE ), StreamRDFLib.sinkNull(), turtleString );
+    }
+
+    @Override
+    public List<Optional<String>> applyAll( final List<String> turtleStrings ) {
+        return checkAll( turtleStrings ).stream().map( error -> error.map( SyntaxError::formatted ) ).toList();
+    }
+
+    @Override
+    public List<Optional<SyntaxError>> checkAll( final List<String> turtleStrings ) {
+        final RDFParserBuilder parser = RDFParser.create().lang( Lang.TURTLE );
+        final StreamRDF sink = StreamRDFLib.sinkNull();
+        return turtleStrings.stream().map( turtleString -> check( parser, sink, turtleString ) ).toList();
+    }
+
+    private static Optional<SyntaxError> check( final RDFParserBuilder parser, final StreamRDF sink,
+                                                final String turtleString ) {
+        final FirstErrorHandler errorHandler = new FirstErrorHandler();
         try {
-            model.read( stringReader, "", "TTL" );
-        } catch ( final Exception exception ) {
-            return Optional.of( exception.getMessage() );
+            parser.fromString( turtleString )
+                .errorHandler( errorHandler )
+                .parse( sink );
+        } catch ( final RuntimeException exception ) {
+            // Besides the RiotException thrown by the error handler, Jena may throw other exceptions on malformed
+            // input; all of them mean that the string is invalid
+            return Optional.of( errorHandler.firstError.orElseGet( () -> new SyntaxError(
+                Optional.ofNullable( exception.getMessage() ).orElseGet( exception::toString ), -1, -1 ) ) );
+        }
+        return errorHandler.firstError;
+    }
+
+    /**
+     * Error handler that records the first error and aborts parsing. Warnings are ignored.
+     */
+    private static class FirstErrorHandler implements ErrorHandler {
+        private Optional<SyntaxError> firstError = Optional.empty();
+
+        @Override
+        public void warning( final String message, final long line, final long column ) {
+        }
+
+        @Override
+        public void error( final String message, final long line, final long column ) {
+            fatal( message, line, column );
+        }
+
+        @Override
+        public void fatal( final String message, final long line, final long column ) {
+            if ( firstError.isEmpty() ) {
+                firstError = Optional.of( new SyntaxError( message, line, column ) );
+            }
+            throw new RiotException( message );
         }
-        return Optional.empty();
     }
 }
@@ -1,33 +1,88 @@
 package de.atextor.syntax;
 
-import org.w3c.dom.Document;
+import de.atextor.syntax.annotation.LocatingChecker;
+import de.atextor.syntax.annotation.ReusableChecker;
+import de.atextor.syntax.annotation.SyntaxError;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
-import java.io.ByteArrayInputStream;
+import javax.xml.parsers.SAXParserFactory;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 
 /**
- * Function that checks whether a given string is syntactically valid XML
+ * Function that checks whether a given string is well-formed XML. The string is read by a streaming SAX parser
+ * without building a document. Parsers are pooled and reused across strings. The parsers never access external
+ * resources: External DTDs and external entities are neither loaded nor resolved, so a DOCTYPE declaration in the
+ * string does not cause any file or network access.
  */
-public class XML implements Function<String, Optional<String>> {
-    @Override
-    public Optional<String> apply( final String xmlString ) {
-        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+public class XML implements Function<String, Optional<String>>, LocatingChecker, ReusableChecker {
+    private final SAXParserFactory factory = SAXParserFactory.newDefaultInstance();
+
+    /**
+     * Idle parsers. Parsers are not thread-safe, so each one is used by one thread at a time.
+     */
+    private final Queue<XMLReader> parsers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Default constructor
+     */
+    public XML() {
         factory.setValidating( false );
         factory.setNamespaceAware( true );
+        factory.setXIncludeAware( false );
+        try {
+            factory.setFeature( XMLConstants.FEATURE_SECURE_PROCESSING, true );
+            factory.setFeature( "http://xml.org/sax/features/external-general-entities", false );
+            factory.setFeature( "http://xml.org/sax/features/external-parameter-entities", false );
+            factory.setFeature( "http://apache.org/xml/features/nonvalidating/load-external-dtd", false );
+        } catch ( final ParserConfigurationException | SAXException exception ) {
+            throw new IllegalStateException( exception );
+        }
+    }
+
+    @Override
+    public Optional<String> apply( final String xmlString ) {
+        return check( xmlString ).map( SyntaxError::formatted );
+    }
+
+    @Override
+    public Optional<SyntaxError> check( final String xmlString ) {
+        final XMLReader parser = Optional.ofNullable( parsers.poll() ).orElseGet( this::newParser );
+        try {
+            parser.parse( new InputSource( new StringReader( xmlString ) ) );
+            return Optional.empty();
+        } catch ( final SAXParseException exception ) {
+            return Optional.of(
+                new SyntaxError( exception.getMessage(), exception.getLineNumber(), exception.getColumnNumber() ) );
+        } catch ( final SAXException | IOException exception ) {
+            return Optional.of( new SyntaxError( exception.getMessage(), -1, -1 ) );
+        } finally {
+            parsers.offer( parser );
+        }
+    }
 
+    private XMLReader newParser() {
         try {
-            final DocumentBuilder builder = factory.newDocumentBuilder();
-            final Document document = builder.parse( new InputSource( new ByteArrayInputStream( xmlString.getBytes() ) ) );
-        } catch ( final ParserConfigurationException | SAXException | IOException exception ) {
-            return Optional.of( exception.getMessage() );
+            final XMLReader parser;
+            synchronized ( factory ) {
+                parser = factory.newSAXParser().getXMLReader();
+            }
+            parser.setProperty( XMLConstants.ACCESS_EXTERNAL_DTD, "" );
+            parser.setProperty( XMLConstants.ACCESS_EXTERNAL_SCHEMA, "" );
+            // Should an external entity be requested nevertheless, it is resolved to an empty document
+            parser.setEntityResolver( ( publicId, systemId ) -> new InputSource( new StringReader( "" ) ) );
+            return parser;
+        } catch ( final ParserConfigurationException | SAXException exception ) {
+            throw new IllegalStateException( exception );
         }
-        return Optional.empty();
     }
 }
@@ -0,0 +1,193 @@
+package de.atextor.syntax;
+
+import de.atextor.syntax.annotation.CheckerConfiguration;
+import de.atextor.syntax.annotation.ConfigurableChecker;
+import de.atextor.syntax.annotation.LocatingChecker;
+import de.atextor.syntax.annotation.ReusableChecker;
+import de.atextor.syntax.annotation.SyntaxError;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Function that checks whether a given string is XML that is valid according to an XML Schema. The schema is looked
+ * up on the compile class path: Either subclass this class and pass the path of the schema to
+ * {@link #XMLSchema(String)}, so that the schema is identified by the checker class given in the annotation, or use
+ * this class directly and set the default schema using the processor option {@value #SCHEMA_OPTION}.
+ *
+ * <p>Each schema is compiled once and then reused for all strings. Compiled schemas are also kept across compilations
+ * as long as the annotation processor's class is loaded, e.g., in a long-lived build daemon; they are identified by
+ * the location and the content of the schema file. As in {@link XML}, external DTDs and entities in the checked
+ * strings are never loaded; the schema itself may include or import other schemas from files or jars.
+ */
+public class XMLSchema implements Function<String, Optional<String>>, LocatingChecker, ConfigurableChecker,
+    ReusableChecker {
+    /**
+     * The processor option that sets the path of the default schema
+     */
+    public static final String SCHEMA_OPTION = "syntax.xml.schema";
+
+    private static final int MAX_CACHED_SCHEMAS = 32;
+
+    /**
+     * Compiled schemas of this and previous compilations, least recently used first
+     */
+    private static final Map<SchemaKey, Schema> COMPILED_SCHEMAS = new LinkedHashMap<>( 16, 0.75f, true ) {
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry<SchemaKey, Schema> eldest ) {
+            return size() > MAX_CACHED_SCHEMAS;
+        }
+    };
+
+    private final Optional<String> schemaPath;
+
+    private Optional<Schema> schema = Optional.empty();
+
+    private Optional<SchemaKey> schemaKey = Optional.empty();
+
+    private Optional<String> configurationError = Optional.of( "The XML schema checker was not configured" );
+
+    /**
+     * Idle validators. Validators are not thread-safe, so each one is used by one thread at a time.
+     */
+    private final Queue<Validator> validators = new ConcurrentLinkedQueue<>();
+
+    private record SchemaKey( URI location, String contentHash ) {
+    }
+
+    /**
+     * Creates a checker that uses the schema set by the processor option {@value #SCHEMA_OPTION}
+     */
+    public XMLSchema() {
+        schemaPath = Optional.empty();
+    }
+
+    /**
+     * Creates a checker that uses the given schema
+     *
+     * @param schemaPath the path of the schema on the compile class path, e.g. {@code schemas/order.xsd}
+     */
+    protected XMLSchema( final String schemaPath ) {
+        this.schemaPath = Optional.of( schemaPath );
+    }
+
+    @Override
+    public void configure( final CheckerConfiguration configuration ) {
+        final Optional<String> path = schemaPath.or( () -> configuration.option( SCHEMA_OPTION ) );
+        if ( path.isEmpty() ) {
+            configurationError = Optional.of( "No XML schema configured: Set the processor option " + SCHEMA_OPTION
+                + " or use a subclass of " + XMLSchema.class.getName() + " that sets the schema" );
+            return;
+        }
+        final Optional<URI> location = configuration.resource( path.get() );
+        if ( location.isEmpty() ) {
+            configurationError = Optional.of( "XML schema " + path.get() + " not found on the class path" );
+            return;
+        }
+        try {
+            final byte[] content;
+            try ( final InputStream input = location.get().toURL().openStream() ) {
+                content = input.readAllBytes();
+            }
+            final SchemaKey key = new SchemaKey( location.get(), contentHash( content ) );
+            schema = Optional.of( compiledSchema( key, content ) );
+            schemaKey = Optional.of( key );
+            configurationError = Optional.empty();
+        } catch ( final IOException | SAXException exception ) {
+            configurationError = Optional.of( "Invalid XML schema " + path.get() + ": " + exception.getMessage() );
+        }
+    }
+
+    /**
+     * Identifies the schema by its location and the hash of its content, so that cached outcomes are not reused
+     * after the schema was changed or another schema was configured. Schemas included or imported by the schema
+     * are not covered. Without a schema, outcomes are not cached, as they only report the configuration error.
+     */
+    @Override
+    public Optional<String> configurationFingerprint() {
+        return schemaKey.map( key -> key.location() + "#" + key.contentHash() );
+    }
+
+    private static Schema compiledSchema( final SchemaKey key, final byte[] content ) throws SAXException {
+        synchronized ( COMPILED_SCHEMAS ) {
+            final Schema cachedSchema = COMPILED_SCHEMAS.get( key );
+            if ( cachedSchema != null ) {
+                return cachedSchema;
+            }
+        }
+        final SchemaFactory factory = SchemaFactory.newDefaultInstance();
+        factory.setProperty( XMLConstants.ACCESS_EXTERNAL_DTD, "" );
+        factory.setProperty( XMLConstants.ACCESS_EXTERNAL_SCHEMA, "file,jar" );
+        final Schema compiledSchema =
+            factory.newSchema( new StreamSource( new ByteArrayInputStream( content ), key.location().toString() ) );
+        synchronized ( COMPILED_SCHEMAS ) {
+            COMPILED_SCHEMAS.putIfAbsent( key, compiledSchema );
+        }
+        return compiledSchema;
+    }
+
+    private static String contentHash( final byte[] content ) {
+        try {
+            return HexFormat.of().formatHex( MessageDigest.getInstance( "SHA-256" ).digest( content ) );
+        } catch ( final NoSuchAlgorithmException exception ) {
+            // Every Java platform implementation is required to support SHA-256
+            throw new IllegalStateException( exception );
+        }
+    }
+
+    @Override
+    public Optional<String> apply( final String xmlString ) {
+        return check( xmlString ).map( SyntaxError::formatted );
+    }
+
+    @Override
+    public Optional<SyntaxError> check( final String xmlString ) {
+        if ( schema.isEmpty() ) {
+            return configurationError.map( message -> new SyntaxError( message, -1, -1 ) );
+        }
+        final Validator validator = Optional.ofNullable( validators.poll() ).orElseGet( this::newValidator );
+        try {
+            validator.validate( new StreamSource( new StringReader( xmlString ) ) );
+            return Optional.empty();
+        } catch ( final SAXParseException exception ) {
+            return Optional.of(
+                new SyntaxError( exception.getMessage(), exception.getLineNumber(), exception.getColumnNumber() ) );
+        } catch ( final SAXException | IOException exception ) {
+            return Optional.of( new SyntaxError( exception.getMessage(), -1, -1 ) );
+        } finally {
+            // Not reset, as that would also reset the security settings; a validator keeps no state between uses
+            validators.offer( validator );
+        }
+    }
+
+    private Validator newValidator() {
+        final Validator validator = schema.orElseThrow().newValidator();
+        try {
+            validator.setFeature( XMLConstants.FEATURE_SECURE_PROCESSING, true );
+            validator.setProperty( XMLConstants.ACCESS_EXTERNAL_DTD, "" );
+            validator.setProperty( XMLConstants.ACCESS_EXTERNAL_SCHEMA, "" );
+        } catch ( final SAXException exception ) {
+            throw new IllegalStateException( exception );
+        }
+        return validator;
+    }
+}
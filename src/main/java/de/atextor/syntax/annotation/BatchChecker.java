@@ -0,0 +1,38 @@
+package de.atextor.syntax.annotation;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Optional interface for syntax checker functions that can validate many string literals in one call. When a
+ * checker implements this interface in addition to {@link java.util.function.Function}, the annotation processor
+ * collects all literals of the current compilation that are annotated with this checker and passes them in a single
+ * call at the end of the compilation, so that setup costs such as parser initialization are paid only once. Checkers
+ * that do not implement this interface are called once per literal.
+ */
+public interface BatchChecker {
+    /**
+     * Validates a batch of literals
+     *
+     * @param literals the literals to validate
+     * @return the results for the literals, in the same order and with the same size as the input: for each literal
+     * either Optional.empty() if it is valid, or the error message to be displayed if it is not valid
+     */
+    List<Optional<String>> applyAll( List<String> literals );
+
+    /**
+     * Validates a batch of literals and reports the location of the first error in each of them. This is the method
+     * called by the annotation processor; the default implementation calls {@link #applyAll(List)} and reports the
+     * errors without a location. Checkers that can locate errors, e.g. because they also implement
+     * {@link LocatingChecker}, should override it.
+     *
+     * @param literals the literals to validate
+     * @return the results for the literals, in the same order and with the same size as the input: for each literal
+     * either Optional.empty() if it is valid, or the first error if it is not valid
+     */
+    default List<Optional<SyntaxError>> checkAll( final List<String> literals ) {
+        return applyAll( literals ).stream()
+            .map( message -> message.map( text -> new SyntaxError( text, -1, -1 ) ) )
+            .toList();
+    }
+}
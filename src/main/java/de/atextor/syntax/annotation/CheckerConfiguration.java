@@ -0,0 +1,27 @@
+package de.atextor.syntax.annotation;
+
+import java.net.URI;
+import java.util.Optional;
+
+/**
+ * Gives {@link ConfigurableChecker}s access to the configuration of the current compilation
+ */
+public interface CheckerConfiguration {
+    /**
+     * Returns the value of an annotation processor option, i.e., of a compiler argument -A&lt;name&gt;=&lt;value&gt;
+     *
+     * @param name the name of the option
+     * @return the value of the option, or empty if it is not set
+     */
+    Optional<String> option( String name );
+
+    /**
+     * Looks up a resource of the code base being compiled: in the class output directory, on the compile class
+     * path and on the source path, in this order
+     *
+     * @param path the path of the resource relative to the root of the respective location, e.g.
+     * {@code schemas/order.xsd}
+     * @return the URI of the resource, or empty if it can not be found
+     */
+    Optional<URI> resource( String path );
+}
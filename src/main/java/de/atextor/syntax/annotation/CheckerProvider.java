@@ -0,0 +1,42 @@
+package de.atextor.syntax.annotation;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Service provider interface to register syntax checker functions, which are discovered using
+ * {@link java.util.ServiceLoader}: Add the fully qualified name of the implementation to
+ * {@code META-INF/services/de.atextor.syntax.annotation.CheckerProvider} of the jar that contains the checker, or
+ * declare it with {@code provides} in its module descriptor. When a checker class referenced by {@link Syntax} has a
+ * provider, the annotation processor creates its instances using {@link #create()} instead of its default
+ * constructor, so checkers do not need one.
+ *
+ * <p>Providers are instantiated when the annotation processor starts, so they must not load the checker class or
+ * any of its dependencies; this only happens in {@link #create()}, when the first string of the language is
+ * validated. Compilations that do not use a checker thus do not load the libraries it depends on.
+ */
+public interface CheckerProvider {
+    /**
+     * Returns the name of the language the checker validates
+     *
+     * @return the language name, e.g. {@code JSON}
+     */
+    String language();
+
+    /**
+     * Returns the binary name of the checker class, as referenced by {@link Syntax#value()}. The name must be given
+     * as a string rather than using the class literal, so that the checker class is not loaded.
+     *
+     * @return the class name, e.g. {@code de.atextor.syntax.JSON}
+     */
+    String checkerClassName();
+
+    /**
+     * Creates a checker instance. As for checkers created using their default constructor, the instance is
+     * configured afterwards if it implements {@link ConfigurableChecker}, and reused if it implements
+     * {@link ReusableChecker}.
+     *
+     * @return the checker, which must be an instance of the class named by {@link #checkerClassName()}
+     */
+    Function<String, Optional<String>> create();
+}
@@ -0,0 +1,33 @@
+package de.atextor.syntax.annotation;
+
+import java.util.Optional;
+
+/**
+ * Optional interface for syntax checker functions that need configuration from the current compilation, such as
+ * processor options or resources on the compile class path. The annotation processor calls
+ * {@link #configure(CheckerConfiguration)} once on each checker instance before its first use. Checkers that also
+ * implement {@link ReusableChecker} are configured on the compiler thread, all others possibly on a thread of the
+ * validation thread pool.
+ */
+public interface ConfigurableChecker {
+    /**
+     * Configures the checker
+     *
+     * @param configuration the configuration of the current compilation
+     */
+    void configure( CheckerConfiguration configuration );
+
+    /**
+     * Returns a fingerprint of the configuration the checker received, such as the values of the options it read
+     * and the content hashes of the resources it loaded. The fingerprint is part of the key of the persistent
+     * validation cache, so that outcomes are only reused by compilations with the same configuration. It is only
+     * requested from checkers that also implement {@link ReusableChecker}; the outcomes of other configurable
+     * checkers are never cached persistently.
+     *
+     * @return the fingerprint, or empty if the outcomes of the checker must not be cached persistently, which is
+     * the default
+     */
+    default Optional<String> configurationFingerprint() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,18 @@
+package de.atextor.syntax.annotation;
+
+import java.util.Optional;
+
+/**
+ * Optional interface for syntax checker functions that can report the location of the first syntax error in a
+ * structured way. Implementations should return the {@link SyntaxError#formatted() formatted} error from their
+ * {@link java.util.function.Function#apply(Object)} method, so that both methods report the same error.
+ */
+public interface LocatingChecker {
+    /**
+     * Checks a string
+     *
+     * @param literal the string to check
+     * @return the first syntax error in the string, or empty if the string is valid
+     */
+    Optional<SyntaxError> check( String literal );
+}
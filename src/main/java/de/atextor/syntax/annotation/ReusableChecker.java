@@ -0,0 +1,12 @@
+package de.atextor.syntax.annotation;
+
+/**
+ * Marker interface for syntax checker functions that may be instantiated once per compilation and then be reused
+ * for any number of string literals. Checkers implementing this interface declare that their
+ * {@link java.util.function.Function#apply(Object)} method is thread-safe and does not depend on state left behind
+ * by a previous call. Checkers that do not implement this interface are instantiated anew for every annotated
+ * variable. Reusable checkers that do not implement {@link ConfigurableChecker} are even shared by all compilations
+ * in the same JVM, e.g. in an IDE or a build daemon.
+ */
+public interface ReusableChecker {
+}
@@ -8,14 +8,17 @@ import java.util.function.Function;
 
 import static java.lang.annotation.ElementType.FIELD;
 import static java.lang.annotation.ElementType.LOCAL_VARIABLE;
+import static java.lang.annotation.ElementType.PARAMETER;
 
 /**
  * Annotation that can be placed on a string to indicate that its initializer follows a certain syntax.
  * The passed function will be called at compile time to validate the value. The function takes the string
  * literal to be validated as input and returns Optional.empty() if the literal is valid or the error message
- * to be displayed if the literal is not valid.
+ * to be displayed if the literal is not valid. When placed on a parameter of a method or constructor, the
+ * constant arguments passed for the parameter are validated at each call site in the same compilation. When a
+ * {@link #resource()} is given, the content of the resource file is validated instead of the initializer.
  */
-@Target( { FIELD, LOCAL_VARIABLE } )
+@Target( { FIELD, LOCAL_VARIABLE, PARAMETER } )
 @Retention( RetentionPolicy.SOURCE )
 public @interface Syntax {
     /**
@@ -23,4 +26,13 @@ public @interface Syntax {
      * @return the checker function
      */
     Class<? extends Function<String, Optional<String>>> value();
+
+    /**
+     * The path of a resource file whose content is validated using the checker function, e.g.
+     * {@code "vocab/core.ttl"}. The file is looked up in the class output, on the class path and on the source path
+     * of the compilation and must be encoded in UTF-8. Each file is validated once per compilation, even if it is
+     * referenced from several places.
+     * @return the resource path, or the empty string to validate the initializer of the annotated element
+     */
+    String resource() default "";
 }
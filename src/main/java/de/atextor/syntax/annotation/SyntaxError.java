@@ -0,0 +1,76 @@
+package de.atextor.syntax.annotation;
+
+/**
+ * A syntax error found by a syntax checker, with the location of the error within the checked string
+ *
+ * @param message the error message
+ * @param line the line of the error, starting at 1, or -1 if unknown
+ * @param column the column of the error, starting at 1, or -1 if unknown
+ * @param severity whether the finding fails the compilation or is only reported as a warning
+ */
+public record SyntaxError( String message, long line, long column, Severity severity ) {
+    /**
+     * The severity of a finding
+     */
+    public enum Severity {
+        /**
+         * The string is invalid, compilation fails
+         */
+        ERROR,
+
+        /**
+         * The string is valid but problematic, compilation continues
+         */
+        WARNING
+    }
+
+    /**
+     * Creates a syntax error with severity {@link Severity#ERROR}
+     *
+     * @param message the error message
+     * @param line the line of the error, starting at 1, or -1 if unknown
+     * @param column the column of the error, starting at 1, or -1 if unknown
+     */
+    public SyntaxError( final String message, final long line, final long column ) {
+        this( message, line, column, Severity.ERROR );
+    }
+
+    /**
+     * Creates a finding at a given offset in the checked string, whose line and column are computed from the offset.
+     * Lines are separated by \n, \r or \r\n.
+     *
+     * @param message the message
+     * @param text the checked string
+     * @param offset the offset of the finding in the checked string
+     * @param severity the severity of the finding
+     * @return the finding
+     */
+    public static SyntaxError atOffset( final String message, final String text, final int offset,
+                                        final Severity severity ) {
+        long line = 1;
+        int lineStart = 0;
+        for ( int index = 0; index < offset && index < text.length(); index++ ) {
+            final char character = text.charAt( index );
+            if ( character == '\n' || ( character == '\r'
+                && ( index + 1 >= text.length() || text.charAt( index + 1 ) != '\n' ) ) ) {
+                line++;
+                lineStart = index + 1;
+            }
+        }
+        return new SyntaxError( message, line, offset - lineStart + 1, severity );
+    }
+
+    /**
+     * Returns the error message prefixed with the location of the error, if known
+     *
+     * @return the formatted error message
+     */
+    public String formatted() {
+        if ( line < 0 ) {
+            return message;
+        }
+        return column < 0
+            ? String.format( "[line: %d] %s", line, message )
+            : String.format( "[line: %d, col: %d] %s", line, column, message );
+    }
+}
@@ -0,0 +1,157 @@
+package de.atextor.syntax.annotation.processor;
+
+import com.sun.source.tree.CompilationUnitTree;
+import de.atextor.syntax.annotation.Syntax;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the methods and constructors of the compilation that have parameters annotated with {@link Syntax}, used
+ * to validate the constant arguments passed for these parameters at the call sites. The index knows the names
+ * under which the executables can be called (the method name, or the simple name of the class for constructors),
+ * so that compilation units and invocations that can not call any of them are skipped cheaply. As {@link Syntax}
+ * has source retention, only executables declared in the sources of the compilation are indexed.
+ */
+class AnnotatedParameterIndex {
+    private final CheckerClassResolver checkerClassResolver;
+
+    private final Set<String> names = new HashSet<>();
+
+    /**
+     * The names, indexed by their length, so that identifiers in the source text can be compared with the names of
+     * the same length without creating strings
+     */
+    private final List<List<String>> namesByLength = new ArrayList<>();
+
+    private final Map<ExecutableElement, List<List<Class<?>>>> parameterCheckerClasses = new HashMap<>();
+
+    private final Map<CompilationUnitTree, Boolean> scannedUnits = new IdentityHashMap<>();
+
+    /**
+     * Creates an empty index
+     *
+     * @param checkerClassResolver the resolver of the checker classes of the annotated parameters
+     */
+    AnnotatedParameterIndex( final CheckerClassResolver checkerClassResolver ) {
+        this.checkerClassResolver = checkerClassResolver;
+    }
+
+    /**
+     * Registers the executable of an annotated parameter
+     *
+     * @param parameter the annotated parameter; other elements are ignored
+     */
+    void addAnnotatedElement( final Element parameter ) {
+        if ( parameter.getKind() != ElementKind.PARAMETER
+            || !( parameter.getEnclosingElement() instanceof final ExecutableElement executable ) ) {
+            return;
+        }
+        final String name = executable.getKind() == ElementKind.CONSTRUCTOR
+            ? executable.getEnclosingElement().getSimpleName().toString()
+            : executable.getSimpleName().toString();
+        if ( names.add( name ) ) {
+            while ( namesByLength.size() <= name.length() ) {
+                namesByLength.add( new ArrayList<>() );
+            }
+            namesByLength.get( name.length() ).add( name );
+        }
+    }
+
+    /**
+     * Determines whether the index is empty, i.e., whether no executable of the compilation has annotated parameters
+     *
+     * @return true if the index is empty
+     */
+    boolean isEmpty() {
+        return names.isEmpty();
+    }
+
+    /**
+     * Determines whether an annotated executable may be called with the given name
+     *
+     * @param name the name of the invoked method, or the simple name of the instantiated class
+     * @return true if an annotated executable has this name
+     */
+    boolean mayBeCalled( final CharSequence name ) {
+        return !names.isEmpty() && names.contains( name.toString() );
+    }
+
+    /**
+     * Determines whether a compilation unit may call an annotated executable, i.e., whether its source text contains
+     * the name of one. False positives are possible, false negatives are not.
+     *
+     * @param compilationUnit the compilation unit
+     * @return true if the compilation unit may contain a call
+     */
+    boolean mayBeCalledIn( final CompilationUnitTree compilationUnit ) {
+        if ( names.isEmpty() ) {
+            return false;
+        }
+        return scannedUnits.computeIfAbsent( compilationUnit, this::sourceContainsName );
+    }
+
+    private boolean sourceContainsName( final CompilationUnitTree compilationUnit ) {
+        final CharSequence source;
+        try {
+            source = compilationUnit.getSourceFile().getCharContent( true );
+        } catch ( final IOException | RuntimeException exception ) {
+            // If the source can not be read, the unit is conservatively assumed to contain a call
+            return true;
+        }
+        final int length = source.length();
+        int index = 0;
+        while ( index < length ) {
+            if ( !Character.isJavaIdentifierStart( source.charAt( index ) ) ) {
+                index++;
+                continue;
+            }
+            final int start = index;
+            while ( index < length && Character.isJavaIdentifierPart( source.charAt( index ) ) ) {
+                index++;
+            }
+            if ( index - start < namesByLength.size() ) {
+                for ( final String name : namesByLength.get( index - start ) ) {
+                    if ( regionEquals( source, start, name ) ) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionEquals( final CharSequence source, final int start, final String name ) {
+        for ( int index = 0; index < name.length(); index++ ) {
+            if ( source.charAt( start + index ) != name.charAt( index ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the checker classes of the parameters of an executable
+     *
+     * @param executable the invoked method or constructor
+     * @return the checker classes of each parameter, which are empty for parameters that are not annotated, or an
+     * empty list if no parameter is annotated
+     */
+    List<List<Class<?>>> parameterCheckerClasses( final ExecutableElement executable ) {
+        return parameterCheckerClasses.computeIfAbsent( executable, key -> {
+            final List<List<Class<?>>> checkerClasses = executable.getParameters().stream()
+                .map( checkerClassResolver::checkerClasses )
+                .toList();
+            return checkerClasses.stream().allMatch( List::isEmpty ) ? List.of() : checkerClasses;
+        } );
+    }
+}
@@ -0,0 +1,118 @@
+package de.atextor.syntax.annotation.processor;
+
+import de.atextor.syntax.annotation.Syntax;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Determines the checker classes of the {@link Syntax} annotations of an attributed element using the annotation
+ * mirrors of the element. The checker types are mapped to loaded classes by their binary names, so nested checker
+ * classes are supported; the result is cached per checker type, so each checker class is looked up only once per
+ * compilation, and the loaded classes are shared with the following compilations in the same JVM.
+ */
+class CheckerClassResolver {
+    private static final String ANNOTATION_NAME = Syntax.class.getName();
+
+    private final Elements elements;
+
+    private final Map<TypeElement, Optional<Class<?>>> checkerClasses = new HashMap<>();
+
+    /**
+     * Creates a resolver
+     *
+     * @param elements the elements utility of the current compilation
+     */
+    CheckerClassResolver( final Elements elements ) {
+        this.elements = elements;
+    }
+
+    /**
+     * Returns the checker classes of the {@link Syntax} annotations of an element that validate its value, i.e.,
+     * that do not reference a resource
+     *
+     * @param element the annotated element
+     * @return the checker classes that could be loaded, in the order of the annotations
+     */
+    List<Class<?>> checkerClasses( final Element element ) {
+        return element.getAnnotationMirrors().stream()
+            .filter( annotation -> resource( annotation ).isEmpty() )
+            .map( this::checkerClass )
+            .flatMap( Optional::stream )
+            .toList();
+    }
+
+    /**
+     * Returns the checker class of an annotation
+     *
+     * @param annotation the annotation
+     * @return the checker class, or empty if it is not a {@link Syntax} annotation or the class could not be loaded
+     */
+    Optional<Class<?>> checkerClass( final AnnotationMirror annotation ) {
+        return checkerType( annotation ).flatMap( type -> checkerClasses.computeIfAbsent( type, this::load ) );
+    }
+
+    /**
+     * Returns the checker type of an annotation, if it is a {@link Syntax} annotation
+     *
+     * @param annotation the annotation
+     * @return the type given as value of the annotation, or empty for other annotations
+     */
+    static Optional<TypeElement> checkerType( final AnnotationMirror annotation ) {
+        return argument( annotation, "value" )
+            .map( AnnotationValue::getValue )
+            .filter( value -> value instanceof final TypeMirror checkerType
+                && checkerType.getKind() == TypeKind.DECLARED )
+            .map( checkerType -> ( (DeclaredType) checkerType ).asElement() )
+            .filter( TypeElement.class::isInstance )
+            .map( TypeElement.class::cast );
+    }
+
+    /**
+     * Returns the argument of the resource attribute of an annotation, if it is a {@link Syntax} annotation that
+     * references a resource
+     *
+     * @param annotation the annotation
+     * @return the argument, whose value is the non-empty resource path, or empty otherwise
+     */
+    static Optional<AnnotationValue> resource( final AnnotationMirror annotation ) {
+        return argument( annotation, "resource" )
+            .filter( value -> value.getValue() instanceof final String path && !path.isEmpty() );
+    }
+
+    private static Optional<AnnotationValue> argument( final AnnotationMirror annotation, final String name ) {
+        final Element annotationType = annotation.getAnnotationType().asElement();
+        if ( !( annotationType instanceof final TypeElement annotationTypeElement )
+            || !annotationTypeElement.getQualifiedName().contentEquals( ANNOTATION_NAME ) ) {
+            return Optional.empty();
+        }
+        for ( final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> argument
+            : annotation.getElementValues().entrySet() ) {
+            if ( argument.getKey().getSimpleName().contentEquals( name ) ) {
+                return Optional.of( argument.getValue() );
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Class<?>> load( final TypeElement checkerType ) {
+        try {
+            return Optional.of( SharedCaches.loadClass( CheckerClassResolver.class.getClassLoader(),
+                elements.getBinaryName( checkerType ).toString() ) );
+        } catch ( final ClassNotFoundException | LinkageError exception ) {
+            // Checker classes that are not available to the processor are ignored
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package de.atextor.syntax.annotation.processor;
+
+import de.atextor.syntax.annotation.CheckerConfiguration;
+import de.atextor.syntax.annotation.CheckerProvider;
+import de.atextor.syntax.annotation.ConfigurableChecker;
+import de.atextor.syntax.annotation.ReusableChecker;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Provides the instances of syntax checker functions used during one compilation. Checkers that implement
+ * {@link ReusableChecker} are created once and then handed out for every further request; if they do not implement
+ * {@link ConfigurableChecker}, the instance is even shared with the following compilations in the same JVM (see
+ * {@link SharedCaches}). All other checkers are created anew on each request. Checkers that implement
+ * {@link ConfigurableChecker} are configured right after they were created. Checkers are created by their
+ * {@link CheckerProvider}, if one is registered for the checker class, or else by their default constructor.
+ * Providers are discovered using the {@link ServiceLoader} when the first checker is requested.
+ */
+class CheckerRegistry {
+    private final Map<Class<?>, Function<String, Optional<String>>> reusableCheckers = new ConcurrentHashMap<>();
+
+    private final CheckerConfiguration configuration;
+
+    private final ClassLoader classLoader;
+
+    private volatile Map<String, CheckerProvider> providers;
+
+    /**
+     * Creates a registry
+     *
+     * @param configuration the configuration passed to configurable checkers
+     * @param classLoader the class loader the checker providers are discovered with
+     */
+    CheckerRegistry( final CheckerConfiguration configuration, final ClassLoader classLoader ) {
+        this.configuration = configuration;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Returns the registered checker providers
+     *
+     * @return the providers, one for each checker class
+     */
+    Collection<CheckerProvider> providers() {
+        return providersByClassName().values();
+    }
+
+    private Map<String, CheckerProvider> providersByClassName() {
+        Map<String, CheckerProvider> result = providers;
+        if ( result == null ) {
+            synchronized ( this ) {
+                result = providers;
+                if ( result == null ) {
+                    result = discoverProviders();
+                    providers = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<String, CheckerProvider> discoverProviders() {
+        final Map<String, CheckerProvider> result = new LinkedHashMap<>();
+        final Iterator<CheckerProvider> iterator = ServiceLoader.load( CheckerProvider.class, classLoader ).iterator();
+        while ( true ) {
+            try {
+                if ( !iterator.hasNext() ) {
+                    return Map.copyOf( result );
+                }
+                final CheckerProvider provider = iterator.next();
+                result.putIfAbsent( provider.checkerClassName(), provider );
+            } catch ( final ServiceConfigurationError error ) {
+                // Providers that can not be instantiated are ignored, their checkers are created by constructor
+            }
+        }
+    }
+
+    /**
+     * Creates and configures the instance of a reusable, configurable checker class ahead of its first use, so that
+     * it is configured on the calling thread. This does nothing for other checker classes and for checker classes
+     * that can not be instantiated.
+     *
+     * @param checkerClass the checker class
+     */
+    void prepare( final Class<?> checkerClass ) {
+        if ( ReusableChecker.class.isAssignableFrom( checkerClass )
+            && ConfigurableChecker.class.isAssignableFrom( checkerClass )
+            && !reusableCheckers.containsKey( checkerClass ) ) {
+            try {
+                checkerFor( checkerClass );
+            } catch ( final ReflectiveOperationException | RuntimeException | LinkageError exception ) {
+                // Reported as usual when the checker is used
+            }
+        }
+    }
+
+    /**
+     * Returns an instance of the given checker class
+     *
+     * @param checkerClass the checker class
+     * @return the checker instance
+     * @throws ReflectiveOperationException if the checker class can not be instantiated, e.g. because it has no
+     * accessible default constructor
+     */
+    Function<String, Optional<String>> checkerFor( final Class<?> checkerClass ) throws ReflectiveOperationException {
+        if ( !ReusableChecker.class.isAssignableFrom( checkerClass ) ) {
+            return instantiate( checkerClass );
+        }
+        if ( SharedCaches.isShareable( checkerClass ) ) {
+            return SharedCaches.sharedChecker( checkerClass, this::instantiate );
+        }
+        final Function<String, Optional<String>> cachedChecker = reusableCheckers.get( checkerClass );
+        if ( cachedChecker != null ) {
+            return cachedChecker;
+        }
+        final Function<String, Optional<String>> checker = instantiate( checkerClass );
+        final Function<String, Optional<String>> concurrentlyCreatedChecker =
+            reusableCheckers.putIfAbsent( checkerClass, checker );
+        return concurrentlyCreatedChecker != null ? concurrentlyCreatedChecker : checker;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private Function<String, Optional<String>> instantiate( final Class<?> checkerClass )
+        throws ReflectiveOperationException {
+        final CheckerProvider provider = providersByClassName().get( checkerClass.getName() );
+        final Object checker = provider == null
+            ? checkerClass.getDeclaredConstructor().newInstance()
+            : provider.create();
+        if ( !checkerClass.isInstance( checker ) ) {
+            throw new InstantiationException( "The provider of " + checkerClass.getName() + " created an instance of "
+                + ( checker == null ? "null" : checker.getClass().getName() ) );
+        }
+        if ( checker instanceof final ConfigurableChecker configurableChecker ) {
+            configurableChecker.configure( configuration );
+        }
+        return (Function<String, Optional<String>>) checker;
+    }
+}
@@ -0,0 +1,342 @@
+package de.atextor.syntax.annotation.processor;
+
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs checker calls under the limits given by the processor options {@link SyntaxProcessor#CHECKER_TIMEOUT_OPTION}
+ * and {@link SyntaxProcessor#CHECKER_MAX_LENGTH_OPTION}, so that a pathological string or a faulty checker can not
+ * stall the compilation. With a timeout, checker calls run on virtual threads while the calling thread watches them:
+ * A sequence of tasks passed to {@link #runAll(List)} runs on a single worker thread, so that the calls do not need a
+ * thread switch each; checker calls made outside of such tasks run on a new virtual thread each. A call that does
+ * not finish in time is interrupted and abandoned. Checkers that exceed a limit or throw an exception or error,
+ * such as a {@link LinkageError} caused by a missing dependency, produce a finding with the severity given by
+ * {@link SyntaxProcessor#CHECKER_FAILURES_OPTION} instead.
+ */
+class CheckerWatchdog {
+    /**
+     * The default timeout of a checker call in milliseconds
+     */
+    static final long DEFAULT_TIMEOUT = 60_000;
+
+    /**
+     * The longest timeout in milliseconds that can be measured using {@link System#nanoTime()}
+     */
+    private static final long MAX_TIMEOUT = TimeUnit.NANOSECONDS.toMillis( Long.MAX_VALUE );
+
+    private static final ThreadLocal<Worker> CURRENT_WORKER = new ThreadLocal<>();
+
+    private final long timeout;
+
+    private final long maxLength;
+
+    private final SyntaxError.Severity failureSeverity;
+
+    /**
+     * Thrown when a checker call failed, carrying the finding to report instead of the result of the checker
+     */
+    static final class CheckerFailure extends Exception {
+        private final transient SyntaxError finding;
+
+        private CheckerFailure( final SyntaxError finding, final Throwable cause ) {
+            super( finding.message(), cause );
+            this.finding = finding;
+        }
+
+        /**
+         * Returns the finding that reports the failure
+         *
+         * @return the finding
+         */
+        SyntaxError finding() {
+            return finding;
+        }
+    }
+
+    /**
+     * A task of {@link #runAll(List)} that calls checkers through {@link #call(Class, int, Callable)}
+     */
+    interface WatchedTask {
+        /**
+         * Runs the task. The task must not throw exceptions.
+         */
+        void run();
+
+        /**
+         * Completes the task with a failure after its checker call was abandoned. This may happen concurrently
+         * with the completion of the task by {@link #run()}, if the checker call finishes at the same time.
+         *
+         * @param failure the failure
+         */
+        void abandon( CheckerFailure failure );
+    }
+
+    /**
+     * A checker call that is currently running on a worker
+     *
+     * @param checkerClass the checker class
+     * @param timeout the timeout of the call in milliseconds
+     * @param deadline the {@link System#nanoTime()} at which the call times out
+     */
+    private record WatchedCall( Class<?> checkerClass, long timeout, long deadline ) {
+    }
+
+    /**
+     * Creates a watchdog
+     *
+     * @param timeout the timeout of a checker call per string in milliseconds, or 0 to call checkers directly
+     * on the calling thread without a timeout
+     * @param maxLength the maximum length of a string passed to a checker, or 0 for no limit
+     * @param failureSeverity the severity of the findings that report failed checker calls
+     */
+    CheckerWatchdog( final long timeout, final long maxLength, final SyntaxError.Severity failureSeverity ) {
+        this.timeout = Math.min( timeout, MAX_TIMEOUT );
+        this.maxLength = maxLength;
+        this.failureSeverity = failureSeverity;
+    }
+
+    /**
+     * Creates a watchdog configured by the processor options
+     *
+     * @param options the processor options
+     * @return the watchdog
+     * @throws IllegalArgumentException if an option has an invalid value
+     */
+    static CheckerWatchdog fromOptions( final Map<String, String> options ) {
+        final long timeout = Optional.ofNullable( options.get( SyntaxProcessor.CHECKER_TIMEOUT_OPTION ) )
+            .map( value -> nonNegative( SyntaxProcessor.CHECKER_TIMEOUT_OPTION, value ) )
+            .orElse( DEFAULT_TIMEOUT );
+        final long maxLength = Optional.ofNullable( options.get( SyntaxProcessor.CHECKER_MAX_LENGTH_OPTION ) )
+            .map( value -> nonNegative( SyntaxProcessor.CHECKER_MAX_LENGTH_OPTION, value ) )
+            .orElse( 0L );
+        final SyntaxError.Severity failureSeverity =
+            switch ( Optional.ofNullable( options.get( SyntaxProcessor.CHECKER_FAILURES_OPTION ) )
+                .orElse( "warning" ).toLowerCase( Locale.ROOT ) ) {
+                case "warning" -> SyntaxError.Severity.WARNING;
+                case "error" -> SyntaxError.Severity.ERROR;
+                default -> throw new IllegalArgumentException( "Invalid value of "
+                    + SyntaxProcessor.CHECKER_FAILURES_OPTION + ": expected warning or error" );
+            };
+        return new CheckerWatchdog( timeout, maxLength, failureSeverity );
+    }
+
+    private static long nonNegative( final String option, final String value ) {
+        try {
+            final long number = Long.parseLong( value.trim() );
+            if ( number >= 0 ) {
+                return number;
+            }
+        } catch ( final NumberFormatException exception ) {
+            // Reported below
+        }
+        throw new IllegalArgumentException( "Invalid value of " + option + ": expected a non-negative number" );
+    }
+
+    /**
+     * Checks whether a string exceeds the maximum length of strings passed to checkers
+     *
+     * @param checkerClass the checker class the string would be passed to
+     * @param literal the string
+     * @return the finding that reports the exceeded limit, or empty if the string may be checked
+     */
+    Optional<SyntaxError> exceedsMaxLength( final Class<?> checkerClass, final String literal ) {
+        if ( maxLength == 0 || literal.length() <= maxLength ) {
+            return Optional.empty();
+        }
+        return Optional.of( failure( String.format( "%s was not called: The string has %d characters, the limit "
+            + "is %d (%s)", checkerClass.getSimpleName(), literal.length(), maxLength,
+            SyntaxProcessor.CHECKER_MAX_LENGTH_OPTION ) ) );
+    }
+
+    /**
+     * Calls a checker under the timeout
+     *
+     * @param checkerClass the checker class, used in the finding that reports a failure
+     * @param literals the number of strings passed in the call; the timeout applies to each of them
+     * @param call the checker call
+     * @param <T> the type of the result of the call
+     * @return the result of the call
+     * @throws CheckerFailure if the call did not finish in time or threw an exception
+     */
+    <T> T call( final Class<?> checkerClass, final int literals, final Callable<T> call ) throws CheckerFailure {
+        if ( timeout == 0 ) {
+            return callDirectly( checkerClass, call );
+        }
+        final long callTimeout = Math.max( 1, literals ) > MAX_TIMEOUT / timeout
+            ? MAX_TIMEOUT
+            : timeout * Math.max( 1, literals );
+        final Worker worker = CURRENT_WORKER.get();
+        if ( worker != null ) {
+            worker.call = new WatchedCall( checkerClass, callTimeout,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( callTimeout ) );
+            try {
+                return callDirectly( checkerClass, call );
+            } finally {
+                worker.call = null;
+            }
+        }
+        final FutureTask<T> task = new FutureTask<>( call );
+        Thread.ofVirtual().name( "syntax-checker-" + checkerClass.getSimpleName() ).start( task );
+        try {
+            return task.get( callTimeout, TimeUnit.MILLISECONDS );
+        } catch ( final TimeoutException exception ) {
+            task.cancel( true );
+            throw timedOut( checkerClass, callTimeout );
+        } catch ( final InterruptedException exception ) {
+            task.cancel( true );
+            Thread.currentThread().interrupt();
+            throw interrupted();
+        } catch ( final ExecutionException exception ) {
+            throw thrown( checkerClass, exception.getCause() );
+        }
+    }
+
+    private <T> T callDirectly( final Class<?> checkerClass, final Callable<T> call ) throws CheckerFailure {
+        try {
+            return call.call();
+        } catch ( final Exception | Error throwable ) {
+            throw thrown( checkerClass, throwable );
+        }
+    }
+
+    /**
+     * Runs tasks one after the other. With a timeout, they run on a worker thread while the calling thread watches
+     * the checker calls they make; when a call times out, its task is abandoned and the remaining tasks are run on
+     * a new worker thread. Returns when all tasks are completed or abandoned.
+     *
+     * @param tasks the tasks
+     */
+    void runAll( final List<? extends WatchedTask> tasks ) {
+        if ( timeout == 0 ) {
+            tasks.forEach( WatchedTask::run );
+            return;
+        }
+        int next = 0;
+        while ( next < tasks.size() ) {
+            final Worker worker = new Worker( tasks, next );
+            worker.thread = Thread.ofVirtual().name( "syntax-checker" ).start( worker );
+            next = worker.watch();
+        }
+    }
+
+    /**
+     * Creates the failure that reports a checker that could not be instantiated
+     *
+     * @param checkerClass the checker class
+     * @param throwable the exception or error thrown when creating the checker
+     * @return the failure
+     */
+    CheckerFailure notInstantiated( final Class<?> checkerClass, final Throwable throwable ) {
+        return new CheckerFailure( failure( checkerClass.getSimpleName() + " could not be instantiated: "
+            + throwable + missingDependencyHint( throwable ) ), throwable );
+    }
+
+    private CheckerFailure timedOut( final Class<?> checkerClass, final long callTimeout ) {
+        return new CheckerFailure( failure( String.format( "%s did not finish within %d ms (%s)",
+            checkerClass.getSimpleName(), callTimeout, SyntaxProcessor.CHECKER_TIMEOUT_OPTION ) ), null );
+    }
+
+    private CheckerFailure interrupted() {
+        return new CheckerFailure( failure( "The compilation was interrupted while checking the string" ), null );
+    }
+
+    private CheckerFailure thrown( final Class<?> checkerClass, final Throwable throwable ) {
+        return new CheckerFailure( failure( checkerClass.getSimpleName() + " threw " + throwable
+            + missingDependencyHint( throwable ) ), throwable );
+    }
+
+    private static String missingDependencyHint( final Throwable throwable ) {
+        return throwable instanceof LinkageError
+            ? " (check that the dependencies of the checker are on the annotation processor path)"
+            : "";
+    }
+
+    private SyntaxError failure( final String message ) {
+        return new SyntaxError( message, -1, -1, failureSeverity );
+    }
+
+    /**
+     * Runs tasks on its thread until they are done or the watching thread abandons it
+     */
+    private final class Worker implements Runnable {
+        private final List<? extends WatchedTask> tasks;
+
+        private Thread thread;
+
+        private int current;
+
+        private boolean abandoned;
+
+        private boolean finished;
+
+        private volatile WatchedCall call;
+
+        private Worker( final List<? extends WatchedTask> tasks, final int first ) {
+            this.tasks = tasks;
+            current = first;
+        }
+
+        @Override
+        public void run() {
+            CURRENT_WORKER.set( this );
+            try {
+                for ( int index = current; index < tasks.size(); index++ ) {
+                    synchronized ( this ) {
+                        if ( abandoned ) {
+                            return;
+                        }
+                        current = index;
+                    }
+                    tasks.get( index ).run();
+                }
+            } finally {
+                synchronized ( this ) {
+                    finished = true;
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Waits until the worker is finished or its current checker call times out. The call is only set while
+         * the task at {@link #current} is running, as {@link #current} is only advanced after the call.
+         *
+         * @return the index of the first task that still needs to run
+         */
+        private synchronized int watch() {
+            while ( !finished ) {
+                final WatchedCall watchedCall = call;
+                final long remaining = watchedCall == null
+                    ? TimeUnit.MILLISECONDS.toNanos( timeout )
+                    : watchedCall.deadline() - System.nanoTime();
+                if ( remaining <= 0 ) {
+                    abandoned = true;
+                    tasks.get( current ).abandon( timedOut( watchedCall.checkerClass(), watchedCall.timeout() ) );
+                    thread.interrupt();
+                    return current + 1;
+                }
+                try {
+                    wait( TimeUnit.NANOSECONDS.toMillis( remaining ) + 1 );
+                } catch ( final InterruptedException exception ) {
+                    abandoned = true;
+                    for ( final WatchedTask task : tasks.subList( current, tasks.size() ) ) {
+                        task.abandon( interrupted() );
+                    }
+                    thread.interrupt();
+                    Thread.currentThread().interrupt();
+                    return tasks.size();
+                }
+            }
+            return tasks.size();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package de.atextor.syntax.annotation.processor;
+
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.IdentifierTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.ParenthesizedTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.SimpleTreeVisitor;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.VariableElement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+/**
+ * Evaluates the initializers of variables and other expressions as compile time constant expressions. Where the
+ * compiler has already computed the constant value of a variable (i.e., for final variables with constant
+ * initializers), that value is used directly. Otherwise, the expression is folded: Literals are taken as decoded by
+ * the compiler, i.e., with all escape sequences resolved and, for text blocks, with incidental indentation stripped;
+ * string concatenations using + are evaluated, and references to other constants are resolved to their values.
+ */
+class ConstantExpressionEvaluator extends SimpleTreeVisitor<Optional<Object>, TreePath> {
+    private final Trees trees;
+
+    /**
+     * Creates an evaluator
+     *
+     * @param trees the trees utility of the current compilation
+     */
+    ConstantExpressionEvaluator( final Trees trees ) {
+        super( Optional.empty() );
+        this.trees = trees;
+    }
+
+    /**
+     * Evaluates the initializer of a variable to a string
+     *
+     * @param variablePath the path to the variable
+     * @return the value of the initializer, or empty if the variable has no initializer, or the initializer is
+     * not a constant expression of type String
+     */
+    Optional<String> evaluateInitializer( final TreePath variablePath ) {
+        if ( !( variablePath.getLeaf() instanceof final VariableTree variable ) || variable.getInitializer() == null ) {
+            return Optional.empty();
+        }
+        final Optional<Object> compilerConstant = constantValue( variablePath );
+        final Optional<Object> value = compilerConstant.isPresent()
+            ? compilerConstant
+            : evaluate( variable.getInitializer(), variablePath );
+        return value.filter( String.class::isInstance ).map( String.class::cast );
+    }
+
+    /**
+     * Evaluates an expression, e.g. a method argument, to a string
+     *
+     * @param expressionPath the path to the expression
+     * @return the value of the expression, or empty if it is not a constant expression of type String
+     */
+    Optional<String> evaluateExpression( final TreePath expressionPath ) {
+        return expressionPath.getLeaf().accept( this, expressionPath )
+            .filter( String.class::isInstance )
+            .map( String.class::cast );
+    }
+
+    /**
+     * Evaluates an operand of a string concatenation, which may also be of another type than String
+     *
+     * @param operandPath the path to the operand
+     * @return the value of the operand, or empty if it is not a constant expression
+     */
+    Optional<Object> evaluateOperand( final TreePath operandPath ) {
+        return operandPath.getLeaf().accept( this, operandPath );
+    }
+
+    private Optional<Object> evaluate( final ExpressionTree expression, final TreePath parentPath ) {
+        return expression.accept( this, new TreePath( parentPath, expression ) );
+    }
+
+    private Optional<Object> constantValue( final TreePath path ) {
+        final Element element = trees.getElement( path );
+        if ( element instanceof final VariableElement variableElement ) {
+            return Optional.ofNullable( variableElement.getConstantValue() );
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Object> visitLiteral( final LiteralTree node, final TreePath path ) {
+        return Optional.ofNullable( node.getValue() );
+    }
+
+    @Override
+    public Optional<Object> visitParenthesized( final ParenthesizedTree node, final TreePath path ) {
+        return evaluate( node.getExpression(), path );
+    }
+
+    @Override
+    public Optional<Object> visitBinary( final BinaryTree node, final TreePath path ) {
+        if ( node.getKind() != Tree.Kind.PLUS ) {
+            return Optional.empty();
+        }
+        // Flatten the left-nested chain a + b + c into its operands, so that long concatenations are built in one go
+        final Deque<TreePath> operands = new ArrayDeque<>();
+        TreePath current = path;
+        while ( current.getLeaf() instanceof final BinaryTree binary && binary.getKind() == Tree.Kind.PLUS ) {
+            operands.push( new TreePath( current, binary.getRightOperand() ) );
+            current = new TreePath( current, binary.getLeftOperand() );
+        }
+        operands.push( current );
+
+        Object firstOperand = null;
+        StringBuilder concatenation = null;
+        for ( final TreePath operand : operands ) {
+            final Optional<Object> value = operand.getLeaf().accept( this, operand );
+            if ( value.isEmpty() ) {
+                return Optional.empty();
+            }
+            if ( concatenation != null ) {
+                concatenation.append( value.get() );
+            } else if ( firstOperand == null ) {
+                firstOperand = value.get();
+            } else if ( firstOperand instanceof String || value.get() instanceof String ) {
+                concatenation = new StringBuilder().append( firstOperand ).append( value.get() );
+            } else {
+                // Only string concatenation is folded; numeric addition is left to the compiler's constant values
+                return Optional.empty();
+            }
+        }
+        return Optional.ofNullable( concatenation != null ? concatenation.toString() : firstOperand );
+    }
+
+    @Override
+    public Optional<Object> visitIdentifier( final IdentifierTree node, final TreePath path ) {
+        return constantValue( path );
+    }
+
+    @Override
+    public Optional<Object> visitMemberSelect( final MemberSelectTree node, final TreePath path ) {
+        return constantValue( path );
+    }
+}
@@ -0,0 +1,165 @@
+package de.atextor.syntax.annotation.processor;
+
+import de.atextor.syntax.annotation.Syntax;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.ModuleElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Helpers for the classes generated next to the types that declare fields annotated with {@link Syntax}: Each such
+ * type gets one holder class in the same package, named after the type (joined with its enclosing types by '_')
+ * and a suffix, e.g. {@code Order_LinePatterns} for the nested type {@code Order.Line}.
+ */
+final class HolderClasses {
+    private static final String GENERATED_ANNOTATION = "javax.annotation.processing.Generated";
+
+    private HolderClasses() {
+    }
+
+    /**
+     * Selects the fields annotated with {@code @Syntax} with the given checker class that validates their
+     * initializers, i.e., that does not reference a resource, and groups them by their declaring type
+     *
+     * @param annotatedElements the elements annotated with {@link Syntax}
+     * @param checkerClassName the fully qualified name of the checker class
+     * @return the fields by their declaring type, each in declaration order
+     */
+    static Map<TypeElement, List<Element>> annotatedFieldsByType( final Set<? extends Element> annotatedElements,
+                                                                   final String checkerClassName ) {
+        final Map<TypeElement, List<Element>> fieldsByType = new LinkedHashMap<>();
+        for ( final Element element : annotatedElements ) {
+            if ( element.getKind() == ElementKind.FIELD && isAnnotatedWith( element, checkerClassName ) ) {
+                fieldsByType.computeIfAbsent( (TypeElement) element.getEnclosingElement(), type -> new ArrayList<>() )
+                    .add( element );
+            }
+        }
+        fieldsByType.replaceAll( ( type, fields ) ->
+            type.getEnclosedElements().stream().filter( fields::contains ).map( Element.class::cast ).toList() );
+        return fieldsByType;
+    }
+
+    private static boolean isAnnotatedWith( final Element element, final String checkerClassName ) {
+        return element.getAnnotationMirrors().stream()
+            .filter( annotation -> CheckerClassResolver.resource( annotation ).isEmpty() )
+            .map( CheckerClassResolver::checkerType )
+            .flatMap( Optional::stream )
+            .anyMatch( checkerType -> checkerType.getQualifiedName().contentEquals( checkerClassName ) );
+    }
+
+    /**
+     * Returns the simple name of the holder class of a type
+     *
+     * @param type the type
+     * @param suffix the suffix of the holder class name
+     * @return the simple name of the holder class
+     */
+    static String holderName( final TypeElement type, final String suffix ) {
+        final List<String> names = new ArrayList<>();
+        Element current = type;
+        while ( current instanceof final TypeElement typeElement ) {
+            names.addFirst( typeElement.getSimpleName().toString() );
+            current = typeElement.getEnclosingElement();
+        }
+        return String.join( "_", names ) + suffix;
+    }
+
+    /**
+     * Returns the fully qualified name of a class in a package
+     *
+     * @param packageElement the package
+     * @param simpleName the simple name of the class
+     * @return the fully qualified name
+     */
+    static String qualifiedName( final PackageElement packageElement, final String simpleName ) {
+        return packageElement.isUnnamed() ? simpleName : packageElement.getQualifiedName() + "." + simpleName;
+    }
+
+    /**
+     * Returns the package declaration of a generated source file
+     *
+     * @param packageElement the package
+     * @return the package declaration followed by an empty line, or the empty string for the unnamed package
+     */
+    static String packageDeclaration( final PackageElement packageElement ) {
+        return packageElement.isUnnamed() ? "" : "package " + packageElement.getQualifiedName() + ";\n\n";
+    }
+
+    /**
+     * Returns the {@code @Generated} annotation of a generated class. The annotation is declared in the module
+     * {@code java.compiler}, which named modules usually do not read, so it is omitted if it is not visible from the
+     * module of the type.
+     *
+     * @param elements the elements utility of the current compilation
+     * @param type the type the class is generated for
+     * @return the annotation followed by a line break, or the empty string if the annotation is not visible
+     */
+    static String generatedAnnotation( final Elements elements, final TypeElement type ) {
+        final ModuleElement module = elements.getModuleOf( type );
+        final TypeElement annotation = module == null
+            ? elements.getTypeElement( GENERATED_ANNOTATION )
+            : elements.getTypeElement( module, GENERATED_ANNOTATION );
+        return annotation == null
+            ? ""
+            : "@" + GENERATED_ANNOTATION + "( \"" + SyntaxProcessor.class.getName() + "\" )\n";
+    }
+
+    /**
+     * Determines whether the holder class of a type is public, which is the case if the type and all of its
+     * enclosing types are public
+     *
+     * @param type the type
+     * @return true if the holder class is public
+     */
+    static boolean isPublic( final TypeElement type ) {
+        Element current = type;
+        while ( current instanceof final TypeElement typeElement ) {
+            if ( !typeElement.getModifiers().contains( Modifier.PUBLIC ) ) {
+                return false;
+            }
+            current = typeElement.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * Renders a string as a Java string literal. Control characters are written as octal escapes and non-ASCII
+     * characters as unicode escapes, so that the generated source is independent of the source file encoding.
+     *
+     * @param string the string
+     * @return the string literal
+     */
+    static String javaStringLiteral( final String string ) {
+        final StringBuilder literal = new StringBuilder( string.length() + 16 ).append( '"' );
+        for ( int index = 0; index < string.length(); index++ ) {
+            final char character = string.charAt( index );
+            switch ( character ) {
+                case '"' -> literal.append( "\\\"" );
+                case '\\' -> literal.append( "\\\\" );
+                case '\n' -> literal.append( "\\n" );
+                case '\r' -> literal.append( "\\r" );
+                case '\t' -> literal.append( "\\t" );
+                default -> {
+                    if ( character < 0x20 ) {
+                        literal.append( String.format( "\\%03o", (int) character ) );
+                    } else if ( character >= 0x7f ) {
+                        literal.append( String.format( "\\u%04x", (int) character ) );
+                    } else {
+                        literal.append( character );
+                    }
+                }
+            }
+        }
+        return literal.append( '"' ).toString();
+    }
+}
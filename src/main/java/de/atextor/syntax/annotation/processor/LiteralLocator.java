@@ -0,0 +1,359 @@
+package de.atextor.syntax.annotation.processor;
+
+import com.sun.source.tree.BinaryTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.ParenthesizedTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Maps the location of a finding within a validated string back to the Java source file. The string expression is
+ * split into the operands of its concatenation; the operand containing the finding is the tree the diagnostic is
+ * reported at. If that operand is a string literal or text block, the position within it is mapped to the exact
+ * source position by decoding the literal as the compiler does, i.e., stripping the incidental indentation of text
+ * blocks and interpreting escape sequences, while keeping track of the source position of each character. If the
+ * decoded text does not match the validated string, e.g. because of unicode escapes, only the operand is located.
+ */
+class LiteralLocator {
+    private final Trees trees;
+
+    private final ConstantExpressionEvaluator constantExpressionEvaluator;
+
+    /**
+     * The location of a finding in the Java source
+     *
+     * @param tree the smallest tree containing the finding, at which the diagnostic is reported
+     * @param position the position of the finding in the source file
+     * @param line the line of the finding in the source file, starting at 1
+     * @param column the column of the finding in the source file, starting at 1
+     */
+    record SourceLocation( Tree tree, long position, long line, long column ) {
+    }
+
+    /**
+     * Creates a locator
+     *
+     * @param trees the trees utility of the current compilation
+     * @param constantExpressionEvaluator the evaluator used to determine the values of the operands
+     */
+    LiteralLocator( final Trees trees, final ConstantExpressionEvaluator constantExpressionEvaluator ) {
+        this.trees = trees;
+        this.constantExpressionEvaluator = constantExpressionEvaluator;
+    }
+
+    /**
+     * Locates a finding in the Java source
+     *
+     * @param validation the validation whose checker reported the finding
+     * @param finding the finding
+     * @return the location of the finding, or empty if the finding has no location, it can not be mapped to the
+     * source, or it is located in a resource file
+     */
+    Optional<SourceLocation> locate( final Validation validation, final SyntaxError finding ) {
+        final CompilationUnitTree compilationUnit = validation.compilationUnit();
+        final Optional<Integer> offset = offset( validation.literal(), finding );
+        if ( offset.isEmpty() || validation.resource().isPresent() ) {
+            return Optional.empty();
+        }
+
+        final List<TreePath> operands = operands( validation.expression() );
+        final List<Integer> operandLengths = new ArrayList<>( operands.size() );
+        for ( final TreePath operand : operands ) {
+            final Optional<Object> value = constantExpressionEvaluator.evaluateOperand( operand );
+            if ( value.isEmpty() ) {
+                return Optional.empty();
+            }
+            operandLengths.add( String.valueOf( value.get() ).length() );
+        }
+        // Operands that are not part of the string concatenation, e.g. in 1 + 2 + "a", can not be mapped
+        if ( operandLengths.stream().mapToInt( Integer::intValue ).sum() != validation.literal().length() ) {
+            return Optional.empty();
+        }
+
+        int operandStart = 0;
+        for ( int index = 0; index < operands.size(); index++ ) {
+            final int operandEnd = operandStart + operandLengths.get( index );
+            if ( offset.get() < operandEnd || index == operands.size() - 1 ) {
+                final Tree operand = operands.get( index ).getLeaf();
+                final long position = operand instanceof final LiteralTree literal
+                    && literal.getValue() instanceof final String string
+                    ? sourcePosition( compilationUnit, literal, string, offset.get() - operandStart )
+                    : startPosition( compilationUnit, operand );
+                if ( position < 0 ) {
+                    return Optional.empty();
+                }
+                final LineMap lineMap = compilationUnit.getLineMap();
+                return Optional.of( new SourceLocation( operand, position, lineMap.getLineNumber( position ),
+                    lineMap.getColumnNumber( position ) ) );
+            }
+            operandStart = operandEnd;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Computes the offset of a finding in the validated string from its line and column
+     */
+    private static Optional<Integer> offset( final String literal, final SyntaxError finding ) {
+        if ( finding.line() < 1 ) {
+            return Optional.empty();
+        }
+        int lineStart = 0;
+        for ( long line = 1; line < finding.line(); line++ ) {
+            final int lineEnd = lineEnd( literal, lineStart );
+            if ( lineEnd >= literal.length() ) {
+                return Optional.empty();
+            }
+            lineStart = lineEnd + ( literal.startsWith( "\r\n", lineEnd ) ? 2 : 1 );
+        }
+        final long column = Math.max( finding.column(), 1 );
+        return Optional.of( (int) Math.min( lineStart + column - 1, lineEnd( literal, lineStart ) ) );
+    }
+
+    private static int lineEnd( final String literal, final int lineStart ) {
+        int index = lineStart;
+        while ( index < literal.length() && literal.charAt( index ) != '\n' && literal.charAt( index ) != '\r' ) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Splits a string concatenation into its operands, removing parentheses
+     */
+    private static List<TreePath> operands( final TreePath expressionPath ) {
+        final List<TreePath> operands = new ArrayList<>();
+        final Deque<TreePath> pending = new ArrayDeque<>();
+        pending.push( expressionPath );
+        while ( !pending.isEmpty() ) {
+            final TreePath path = pending.pop();
+            if ( path.getLeaf() instanceof final ParenthesizedTree parenthesized ) {
+                pending.push( new TreePath( path, parenthesized.getExpression() ) );
+            } else if ( path.getLeaf() instanceof final BinaryTree binary && binary.getKind() == Tree.Kind.PLUS ) {
+                pending.push( new TreePath( path, binary.getRightOperand() ) );
+                pending.push( new TreePath( path, binary.getLeftOperand() ) );
+            } else {
+                operands.add( path );
+            }
+        }
+        return operands;
+    }
+
+    private long startPosition( final CompilationUnitTree compilationUnit, final Tree tree ) {
+        return trees.getSourcePositions().getStartPosition( compilationUnit, tree );
+    }
+
+    /**
+     * Maps an offset in the value of a string literal to the position in the source file. As javac's parser folds
+     * concatenations of string literals into a single literal tree, the source of the literal may consist of several
+     * string literals and text blocks joined by {@code +}.
+     *
+     * @return the source position, or the start of the literal if the offset can not be mapped
+     */
+    private long sourcePosition( final CompilationUnitTree compilationUnit, final LiteralTree literal,
+                                 final String value, final int offset ) {
+        final SourcePositions sourcePositions = trees.getSourcePositions();
+        final long start = sourcePositions.getStartPosition( compilationUnit, literal );
+        final long end = sourcePositions.getEndPosition( compilationUnit, literal );
+        final CharSequence source;
+        try {
+            source = compilationUnit.getSourceFile().getCharContent( true );
+        } catch ( final IOException | RuntimeException exception ) {
+            return start;
+        }
+        if ( start < 0 || end > source.length() || end <= start ) {
+            return start;
+        }
+        final String raw = source.subSequence( (int) start, (int) end ).toString();
+        final StringBuilder decoded = new StringBuilder( value.length() );
+        final List<Integer> positions = new ArrayList<>( value.length() + 1 );
+        int valueEnd = 0;
+        int index = 0;
+        while ( index < raw.length() ) {
+            if ( raw.startsWith( "//", index ) || raw.startsWith( "/*", index ) ) {
+                final int commentEnd = raw.startsWith( "//", index )
+                    ? lineEnd( raw, index )
+                    : raw.indexOf( "*/", index + 2 ) + 2;
+                index = commentEnd < 2 ? raw.length() : commentEnd;
+                continue;
+            }
+            if ( raw.charAt( index ) != '"' ) {
+                index++;
+                continue;
+            }
+            final int tokenStart = index;
+            final int tokenEnd = literalEnd( raw, tokenStart );
+            if ( tokenEnd < 0 ) {
+                return start;
+            }
+            final String token = raw.substring( tokenStart, tokenEnd );
+            final boolean isTextBlock = token.startsWith( "\"\"\"" );
+            final List<Integer> tokenPositions = new ArrayList<>( token.length() );
+            decodeEscapes( isTextBlock ? textBlockCharacters( token ) : stringCharacters( token ), decoded,
+                tokenPositions );
+            tokenPositions.forEach( position -> positions.add( tokenStart + position ) );
+            valueEnd = tokenEnd - ( isTextBlock ? 3 : 1 );
+            index = tokenEnd;
+        }
+        if ( !decoded.toString().equals( value ) ) {
+            return start;
+        }
+        positions.add( valueEnd );
+        return start + positions.get( Math.min( offset, positions.size() - 1 ) );
+    }
+
+    /**
+     * Returns the end of the string literal or text block starting at the given index of the source, or -1 if it is
+     * not terminated
+     */
+    private static int literalEnd( final String raw, final int start ) {
+        final String delimiter = raw.startsWith( "\"\"\"", start ) ? "\"\"\"" : "\"";
+        int index = start + delimiter.length();
+        while ( index < raw.length() ) {
+            if ( raw.charAt( index ) == '\\' ) {
+                index += 2;
+            } else if ( raw.startsWith( delimiter, index ) ) {
+                return index + delimiter.length();
+            } else {
+                index++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the characters between the quotes of a string literal, each with its position in the raw literal
+     */
+    private static List<int[]> stringCharacters( final String raw ) {
+        final List<int[]> characters = new ArrayList<>( raw.length() );
+        for ( int index = 1; index < raw.length() - 1; index++ ) {
+            characters.add( new int[]{ raw.charAt( index ), index } );
+        }
+        return characters;
+    }
+
+    /**
+     * Returns the content characters of a text block after line terminators were normalized and incidental
+     * white space was stripped, each with its position in the raw text block
+     */
+    private static List<int[]> textBlockCharacters( final String raw ) {
+        int contentStart = 3;
+        while ( contentStart < raw.length() && raw.charAt( contentStart ) != '\n'
+            && raw.charAt( contentStart ) != '\r' ) {
+            contentStart++;
+        }
+        contentStart += raw.startsWith( "\r\n", contentStart ) ? 2 : 1;
+        final int contentEnd = raw.length() - 3;
+
+        final List<int[]> lines = new ArrayList<>();
+        int lineStart = contentStart;
+        while ( lineStart <= contentEnd ) {
+            int lineEnd = lineStart;
+            while ( lineEnd < contentEnd && raw.charAt( lineEnd ) != '\n' && raw.charAt( lineEnd ) != '\r' ) {
+                lineEnd++;
+            }
+            lines.add( new int[]{ lineStart, lineEnd } );
+            if ( lineEnd >= contentEnd ) {
+                break;
+            }
+            lineStart = lineEnd + ( raw.startsWith( "\r\n", lineEnd ) ? 2 : 1 );
+        }
+
+        int indentation = Integer.MAX_VALUE;
+        for ( int index = 0; index < lines.size(); index++ ) {
+            final int[] line = lines.get( index );
+            final int leadingWhiteSpace = leadingWhiteSpace( raw, line[0], line[1] );
+            final boolean isBlank = leadingWhiteSpace == line[1] - line[0];
+            // The line of the closing delimiter always counts, even if it is blank
+            if ( !isBlank || index == lines.size() - 1 ) {
+                indentation = Math.min( indentation, leadingWhiteSpace );
+            }
+        }
+
+        final List<int[]> characters = new ArrayList<>( raw.length() );
+        for ( int index = 0; index < lines.size(); index++ ) {
+            final int[] line = lines.get( index );
+            final boolean isLastLine = index == lines.size() - 1;
+            int end = line[1];
+            while ( end > line[0] && Character.isWhitespace( raw.charAt( end - 1 ) ) ) {
+                end--;
+            }
+            for ( int position = Math.min( line[0] + indentation, end ); position < end; position++ ) {
+                characters.add( new int[]{ raw.charAt( position ), position } );
+            }
+            if ( !isLastLine ) {
+                characters.add( new int[]{ '\n', line[1] } );
+            }
+        }
+        return characters;
+    }
+
+    private static int leadingWhiteSpace( final String raw, final int start, final int end ) {
+        int index = start;
+        while ( index < end && Character.isWhitespace( raw.charAt( index ) ) ) {
+            index++;
+        }
+        return index - start;
+    }
+
+    /**
+     * Interprets the escape sequences in the characters of a literal
+     *
+     * @param characters the characters, each with its position
+     * @param decoded the decoded text
+     * @param positions the position of each character of the decoded text
+     */
+    private static void decodeEscapes( final List<int[]> characters, final StringBuilder decoded,
+                                       final List<Integer> positions ) {
+        int index = 0;
+        while ( index < characters.size() ) {
+            final int[] character = characters.get( index );
+            if ( character[0] != '\\' || index + 1 >= characters.size() ) {
+                decoded.append( (char) character[0] );
+                positions.add( character[1] );
+                index++;
+                continue;
+            }
+            final char escaped = (char) characters.get( index + 1 )[0];
+            index += 2;
+            switch ( escaped ) {
+                case 'b' -> decoded.append( '\b' );
+                case 't' -> decoded.append( '\t' );
+                case 'n' -> decoded.append( '\n' );
+                case 'f' -> decoded.append( '\f' );
+                case 'r' -> decoded.append( '\r' );
+                case 's' -> decoded.append( ' ' );
+                case '\n' -> {
+                    // Line continuation in a text block
+                    continue;
+                }
+                default -> {
+                    if ( escaped >= '0' && escaped <= '7' ) {
+                        int code = escaped - '0';
+                        final int maxDigits = escaped <= '3' ? 3 : 2;
+                        for ( int digit = 1; digit < maxDigits && index < characters.size()
+                            && characters.get( index )[0] >= '0' && characters.get( index )[0] <= '7'; digit++ ) {
+                            code = code * 8 + characters.get( index++ )[0] - '0';
+                        }
+                        decoded.append( (char) code );
+                    } else {
+                        decoded.append( escaped );
+                    }
+                }
+            }
+            positions.add( character[1] );
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package de.atextor.syntax.annotation.processor;
+
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+import de.atextor.syntax.RegExp;
+import de.atextor.syntax.annotation.Syntax;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+/**
+ * Generates a holder class with precompiled {@link Pattern} constants for the fields annotated with
+ * {@code @Syntax(RegExp.class)}. For each type declaring such fields, a class named after the type with the suffix
+ * {@code Patterns} is generated in the same package, e.g. {@code OrderPatterns} for {@code Order} or
+ * {@code Order_LinePatterns} for the nested type {@code Order.Line}. It contains one constant per field, named after
+ * the field in upper case with underscores, e.g. {@code EMAIL_ADDRESS} for {@code emailAddress}. The patterns are
+ * compiled once when the holder class is initialized. Fields whose constants would have the same name are reported as
+ * errors.
+ */
+class PatternHolderGenerator {
+    private static final String HOLDER_SUFFIX = "Patterns";
+
+    private final Filer filer;
+
+    private final Messager messager;
+
+    private final Elements elements;
+
+    private final ConstantExpressionEvaluator constantExpressionEvaluator;
+
+    private final Trees trees;
+
+    private final int flags;
+
+    private final String flagsExpression;
+
+    /**
+     * A pattern constant in a holder class
+     *
+     * @param name the name of the constant
+     * @param field the annotated field
+     * @param regExp the regular expression
+     */
+    private record PatternConstant( String name, Element field, String regExp ) {
+    }
+
+    /**
+     * Creates a generator
+     *
+     * @param filer the filer the holder classes are written to
+     * @param messager the messager used to report problems
+     * @param elements the elements utility of the current compilation
+     * @param trees the trees utility of the current compilation
+     * @param flagNames the names of the {@link Pattern} flags the patterns are compiled with, e.g.
+     * {@code CASE_INSENSITIVE}
+     * @throws IllegalArgumentException if a flag name is not the name of a flag
+     */
+    PatternHolderGenerator( final Filer filer, final Messager messager, final Elements elements, final Trees trees,
+                            final List<String> flagNames ) {
+        this.filer = filer;
+        this.messager = messager;
+        this.elements = elements;
+        this.trees = trees;
+        constantExpressionEvaluator = new ConstantExpressionEvaluator( trees );
+        int flagBits = 0;
+        for ( final String flagName : flagNames ) {
+            flagBits |= flag( flagName );
+        }
+        flags = flagBits;
+        flagsExpression = flagNames.isEmpty()
+            ? ""
+            : flagNames.stream().map( name -> "Pattern." + name ).collect( Collectors.joining( " | ", ", ", "" ) );
+    }
+
+    /**
+     * Parses a list of flag names separated by commas or '|'
+     *
+     * @param flagNames the flag names, e.g. {@code CASE_INSENSITIVE,MULTILINE}
+     * @return the individual flag names
+     */
+    static List<String> parseFlagNames( final String flagNames ) {
+        return Arrays.stream( flagNames.split( "[,|]" ) )
+            .map( String::trim )
+            .filter( name -> !name.isEmpty() )
+            .map( name -> name.toUpperCase( Locale.ROOT ) )
+            .toList();
+    }
+
+    private static int flag( final String flagName ) {
+        try {
+            final Field field = Pattern.class.getField( flagName );
+            if ( field.getType() == int.class && Modifier.isStatic( field.getModifiers() ) ) {
+                return field.getInt( null );
+            }
+        } catch ( final NoSuchFieldException | IllegalAccessException exception ) {
+            // Reported below
+        }
+        throw new IllegalArgumentException( "Unknown java.util.regex.Pattern flag: " + flagName );
+    }
+
+    /**
+     * Generates the holder classes for the annotated fields of one processing round
+     *
+     * @param annotatedElements the elements annotated with {@link Syntax}
+     */
+    void generate( final Set<? extends Element> annotatedElements ) {
+        HolderClasses.annotatedFieldsByType( annotatedElements, RegExp.class.getName() ).forEach( ( type, fields ) -> {
+            final List<PatternConstant> constants = withoutCollisions( fields.stream()
+                .map( this::patternConstant )
+                .flatMap( Optional::stream )
+                .toList() );
+            if ( !constants.isEmpty() ) {
+                writeHolder( type, constants );
+            }
+        } );
+    }
+
+    private Optional<PatternConstant> patternConstant( final Element field ) {
+        final TreePath path = trees.getPath( field );
+        if ( path == null ) {
+            return Optional.empty();
+        }
+        return constantExpressionEvaluator.evaluateInitializer( path ).flatMap( regExp -> {
+            try {
+                Pattern.compile( regExp );
+            } catch ( final PatternSyntaxException exception ) {
+                // Reported by the syntax validation
+                return Optional.empty();
+            }
+            try {
+                Pattern.compile( regExp, flags );
+            } catch ( final PatternSyntaxException exception ) {
+                messager.printMessage( Diagnostic.Kind.ERROR, "Regular expression is not valid with the flags "
+                    + flagsExpression.substring( 2 ) + ": " + exception.getMessage(), field );
+                return Optional.empty();
+            }
+            return Optional.of( new PatternConstant( constantName( field.getSimpleName().toString() ), field,
+                regExp ) );
+        } );
+    }
+
+    /**
+     * Removes the constants whose name is already used by a previous constant, e.g. for the fields {@code fooBar}
+     * and {@code FOO_BAR}, and reports them as errors at their fields, as the holder class could not be compiled
+     * otherwise
+     *
+     * @param constants the constants of one holder class
+     * @return the constants with distinct names
+     */
+    private List<PatternConstant> withoutCollisions( final List<PatternConstant> constants ) {
+        final Map<String, PatternConstant> constantsByName = new LinkedHashMap<>();
+        for ( final PatternConstant constant : constants ) {
+            final PatternConstant previousConstant = constantsByName.putIfAbsent( constant.name(), constant );
+            if ( previousConstant != null ) {
+                messager.printMessage( Diagnostic.Kind.ERROR, "The pattern constant " + constant.name() + " for "
+                    + "this field would have the same name as the one for the field "
+                    + previousConstant.field().getSimpleName() + ": Rename one of the fields", constant.field() );
+            }
+        }
+        return List.copyOf( constantsByName.values() );
+    }
+
+    /**
+     * Converts the name of a field to the name of a constant, e.g. {@code emailAddress} to {@code EMAIL_ADDRESS}.
+     * Names that are already in upper case are kept.
+     *
+     * @param fieldName the name of the field
+     * @return the name of the constant
+     */
+    static String constantName( final String fieldName ) {
+        final StringBuilder name = new StringBuilder( fieldName.length() + 4 );
+        for ( int index = 0; index < fieldName.length(); index++ ) {
+            final char character = fieldName.charAt( index );
+            if ( index > 0 && Character.isUpperCase( character )
+                && Character.isLetterOrDigit( fieldName.charAt( index - 1 ) )
+                && !Character.isUpperCase( fieldName.charAt( index - 1 ) ) ) {
+                name.append( '_' );
+            }
+            name.append( Character.toUpperCase( character ) );
+        }
+        return name.toString();
+    }
+
+    private void writeHolder( final TypeElement type, final List<PatternConstant> constants ) {
+        final PackageElement packageElement = elements.getPackageOf( type );
+        final String holderName = HolderClasses.holderName( type, HOLDER_SUFFIX );
+        final String qualifiedHolderName = HolderClasses.qualifiedName( packageElement, holderName );
+        final String modifier = HolderClasses.isPublic( type ) ? "public " : "";
+        try ( final Writer writer = filer.createSourceFile( qualifiedHolderName, type ).openWriter() ) {
+            writer.write( HolderClasses.packageDeclaration( packageElement ) );
+            writer.write( "import java.util.regex.Pattern;\n\n" );
+            writer.write( "/**\n * Precompiled patterns of the regular expressions in {@code "
+                + type.getQualifiedName() + "}\n */\n" );
+            writer.write( HolderClasses.generatedAnnotation( elements, type ) );
+            writer.write( modifier + "final class " + holderName + " {\n" );
+            for ( final PatternConstant constant : constants ) {
+                writer.write( "    /**\n     * The pattern of {@code " + type.getSimpleName() + "."
+                    + constant.field().getSimpleName() + "}\n     */\n" );
+                writer.write( "    " + modifier + "static final Pattern " + constant.name() + " = Pattern.compile( "
+                    + HolderClasses.javaStringLiteral( constant.regExp() ) + flagsExpression + " );\n\n" );
+            }
+            writer.write( "    private " + holderName + "() {\n    }\n}\n" );
+        } catch ( final FilerException exception ) {
+            // The holder was already generated in this compilation, e.g. by another processor round
+            messager.printMessage( Diagnostic.Kind.WARNING, "Could not generate " + qualifiedHolderName + ": "
+                + exception.getMessage(), type );
+        } catch ( final IOException exception ) {
+            messager.printMessage( Diagnostic.Kind.ERROR, "Could not generate " + qualifiedHolderName + ": "
+                + exception.getMessage(), type );
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package de.atextor.syntax.annotation.processor;
+
+import de.atextor.syntax.annotation.CheckerConfiguration;
+
+import javax.annotation.processing.Filer;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The configuration passed to configurable checkers: the processor options of the compilation, and resources
+ * looked up using the {@link Filer}. As the filer is not thread-safe, resource lookups are synchronized and their
+ * results are cached.
+ */
+class ProcessorCheckerConfiguration implements CheckerConfiguration {
+    private static final List<JavaFileManager.Location> RESOURCE_LOCATIONS = List.of(
+        StandardLocation.CLASS_OUTPUT, StandardLocation.CLASS_PATH, StandardLocation.SOURCE_PATH );
+
+    private final Map<String, String> options;
+
+    private final Filer filer;
+
+    private final Map<String, Optional<URI>> resources = new HashMap<>();
+
+    /**
+     * Creates a configuration
+     *
+     * @param options the processor options
+     * @param filer the filer of the compilation
+     */
+    ProcessorCheckerConfiguration( final Map<String, String> options, final Filer filer ) {
+        this.options = options;
+        this.filer = filer;
+    }
+
+    @Override
+    public Optional<String> option( final String name ) {
+        return Optional.ofNullable( options.get( name ) );
+    }
+
+    @Override
+    public synchronized Optional<URI> resource( final String path ) {
+        return resources.computeIfAbsent( path, this::findResource );
+    }
+
+    private Optional<URI> findResource( final String path ) {
+        final String relativePath = path.startsWith( "/" ) ? path.substring( 1 ) : path;
+        for ( final JavaFileManager.Location location : RESOURCE_LOCATIONS ) {
+            try {
+                final FileObject resource = filer.getResource( location, "", relativePath );
+                // Depending on the location, the filer returns file objects for nonexistent files as well
+                try ( final InputStream input = resource.openInputStream() ) {
+                    return Optional.of( resource.toUri() );
+                }
+            } catch ( final IOException | IllegalArgumentException exception ) {
+                // Not found in this location
+            }
+        }
+        return Optional.empty();
+    }
+}
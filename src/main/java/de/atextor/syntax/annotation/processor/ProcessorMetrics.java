@@ -0,0 +1,205 @@
+package de.atextor.syntax.annotation.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects timing metrics of the annotation processor: the time spent scanning syntax trees, the time spent per
+ * checker class, and the time spent per literal together with the literal's size. When disabled, all recording
+ * methods return immediately, and {@link #startTime()} does not even read the clock. All recording methods are
+ * thread-safe, as validations may run on a thread pool.
+ */
+class ProcessorMetrics {
+    private final boolean enabled;
+
+    private final LongAdder scannedTypes = new LongAdder();
+
+    private final LongAdder skippedTypes = new LongAdder();
+
+    private final LongAdder scanNanos = new LongAdder();
+
+    private final Map<Class<?>, CheckerMetrics> checkerMetrics = new ConcurrentHashMap<>();
+
+    private final Queue<LiteralMetrics> literalMetrics = new ConcurrentLinkedQueue<>();
+
+    private static class CheckerMetrics {
+        private final LongAdder calls = new LongAdder();
+
+        private final LongAdder literals = new LongAdder();
+
+        private final LongAdder cacheHits = new LongAdder();
+
+        private final LongAdder nanos = new LongAdder();
+    }
+
+    private record LiteralMetrics( Validation validation, long nanos, boolean cached, boolean batch ) {
+    }
+
+    /**
+     * Creates a metrics collector
+     *
+     * @param enabled whether metrics are collected at all
+     */
+    ProcessorMetrics( final boolean enabled ) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns whether metrics are collected
+     *
+     * @return true if enabled
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the start time of a measurement, to be passed to one of the recording methods
+     *
+     * @return the current value of {@link System#nanoTime()}, or 0 if disabled
+     */
+    long startTime() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records the handling of a type after the "analyze" phase
+     *
+     * @param startTime the start time as returned by {@link #startTime()}
+     * @param scanned true if the syntax tree of the type was scanned, false if it was skipped
+     */
+    void recordScan( final long startTime, final boolean scanned ) {
+        if ( !enabled ) {
+            return;
+        }
+        scanNanos.add( System.nanoTime() - startTime );
+        ( scanned ? scannedTypes : skippedTypes ).increment();
+    }
+
+    /**
+     * Records a call of a checker. For a batch call, the time is distributed evenly among its literals.
+     *
+     * @param checkerClass the checker class
+     * @param validations the validations handled by the call
+     * @param startTime the start time as returned by {@link #startTime()}
+     * @param batch true if the checker was called once for all validations
+     */
+    void recordCheckerCall( final Class<?> checkerClass, final List<Validation> validations, final long startTime,
+                            final boolean batch ) {
+        if ( !enabled ) {
+            return;
+        }
+        final long nanos = System.nanoTime() - startTime;
+        final CheckerMetrics metrics = checkerMetrics.computeIfAbsent( checkerClass, key -> new CheckerMetrics() );
+        metrics.calls.increment();
+        metrics.literals.add( validations.size() );
+        metrics.nanos.add( nanos );
+        validations.forEach( validation ->
+            literalMetrics.add( new LiteralMetrics( validation, nanos / validations.size(), false, batch ) ) );
+    }
+
+    /**
+     * Records a validation whose outcome was taken from the validation cache
+     *
+     * @param validation the validation
+     * @param startTime the start time of the cache lookup as returned by {@link #startTime()}
+     */
+    void recordCacheHit( final Validation validation, final long startTime ) {
+        if ( !enabled ) {
+            return;
+        }
+        final long nanos = System.nanoTime() - startTime;
+        final CheckerMetrics metrics =
+            checkerMetrics.computeIfAbsent( validation.checkerClass(), key -> new CheckerMetrics() );
+        metrics.literals.increment();
+        metrics.cacheHits.increment();
+        metrics.nanos.add( nanos );
+        literalMetrics.add( new LiteralMetrics( validation, nanos, true, false ) );
+    }
+
+    /**
+     * Returns a one-line summary of the collected metrics
+     *
+     * @return the summary
+     */
+    String summary() {
+        final long literals = checkerMetrics.values().stream().mapToLong( metrics -> metrics.literals.sum() ).sum();
+        final long cacheHits = checkerMetrics.values().stream().mapToLong( metrics -> metrics.cacheHits.sum() ).sum();
+        final long checkerNanos = checkerMetrics.values().stream().mapToLong( metrics -> metrics.nanos.sum() ).sum();
+        return String.format( "SyntaxProcessor: scanned %d types (%d skipped) in %d ms, validated %d literals "
+                + "(%d cached) with %d checkers in %d ms", scannedTypes.sum(), skippedTypes.sum(),
+            Duration.ofNanos( scanNanos.sum() ).toMillis(), literals, cacheHits, checkerMetrics.size(),
+            Duration.ofNanos( checkerNanos ).toMillis() );
+    }
+
+    /**
+     * Writes the collected metrics as a JSON report. This must be called on the compiler thread after all
+     * validations have finished, since the literals' line numbers are resolved from the syntax trees.
+     *
+     * @param file the report file
+     * @throws IOException if the file can not be written
+     */
+    void writeReport( final Path file ) throws IOException {
+        Files.createDirectories( file.toAbsolutePath().getParent() );
+        try ( final Writer writer = Files.newBufferedWriter( file, StandardCharsets.UTF_8 ) ) {
+            writer.write( "{\n  \"scan\": { \"types\": " + scannedTypes.sum() + ", \"skippedTypes\": "
+                + skippedTypes.sum() + ", \"nanos\": " + scanNanos.sum() + " },\n  \"checkers\": [" );
+            final List<Map.Entry<Class<?>, CheckerMetrics>> checkers = checkerMetrics.entrySet().stream()
+                .sorted( Comparator.comparing( entry -> entry.getKey().getName() ) )
+                .toList();
+            for ( int index = 0; index < checkers.size(); index++ ) {
+                final CheckerMetrics metrics = checkers.get( index ).getValue();
+                writer.write( ( index > 0 ? "," : "" ) + "\n    { \"checker\": "
+                    + jsonString( checkers.get( index ).getKey().getName() )
+                    + ", \"calls\": " + metrics.calls.sum() + ", \"literals\": " + metrics.literals.sum()
+                    + ", \"cacheHits\": " + metrics.cacheHits.sum() + ", \"nanos\": " + metrics.nanos.sum() + " }" );
+            }
+            writer.write( "\n  ],\n  \"literals\": [" );
+            boolean first = true;
+            for ( final LiteralMetrics literal : literalMetrics ) {
+                final Validation validation = literal.validation();
+                writer.write( ( first ? "" : "," ) + "\n    { \"checker\": "
+                    + jsonString( validation.checkerClass().getName() )
+                    + ", \"file\": " + jsonString( validation.compilationUnit().getSourceFile().getName() )
+                    + ", \"line\": " + validation.compilationUnit().getLineMap().getLineNumber( validation.position() )
+                    + ", \"characters\": " + validation.literal().length() + ", \"nanos\": " + literal.nanos()
+                    + ", \"cached\": " + literal.cached() + ", \"batch\": " + literal.batch() + " }" );
+                first = false;
+            }
+            writer.write( "\n  ]\n}\n" );
+        }
+    }
+
+    private static String jsonString( final String string ) {
+        final StringBuilder builder = new StringBuilder( string.length() + 2 ).append( '"' );
+        for ( int index = 0; index < string.length(); index++ ) {
+            final char character = string.charAt( index );
+            switch ( character ) {
+                case '"' -> builder.append( "\\\"" );
+                case '\\' -> builder.append( "\\\\" );
+                case '\n' -> builder.append( "\\n" );
+                case '\r' -> builder.append( "\\r" );
+                case '\t' -> builder.append( "\\t" );
+                default -> {
+                    if ( character < 0x20 ) {
+                        builder.append( String.format( "\\u%04x", (int) character ) );
+                    } else {
+                        builder.append( character );
+                    }
+                }
+            }
+        }
+        return builder.append( '"' ).toString();
+    }
+}
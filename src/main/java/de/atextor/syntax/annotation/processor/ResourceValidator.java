@@ -0,0 +1,139 @@
+package de.atextor.syntax.annotation.processor;
+
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+import de.atextor.syntax.annotation.CheckerConfiguration;
+import de.atextor.syntax.annotation.Syntax;
+
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Creates the validations of the resource files referenced by {@code @Syntax(value = Checker.class, resource =
+ * "path")}. Resources are looked up like the resources of configurable checkers, see {@link CheckerConfiguration}.
+ * Files in the file system are read through a memory mapping and decoded directly from it, so their bytes are not
+ * copied to the heap. Each resource file is validated at most once by each checker class, even if it is referenced
+ * from several elements.
+ */
+class ResourceValidator {
+    private final Trees trees;
+
+    private final Messager messager;
+
+    private final CheckerClassResolver checkerClassResolver;
+
+    private final CheckerConfiguration checkerConfiguration;
+
+    private final Set<Map.Entry<URI, Class<?>>> validatedResources = new HashSet<>();
+
+    /**
+     * Creates a resource validator
+     *
+     * @param trees the trees utility of the current compilation
+     * @param messager the messager used to report resources that can not be read
+     * @param checkerClassResolver the resolver of the checker classes
+     * @param checkerConfiguration the configuration used to look up the resources
+     */
+    ResourceValidator( final Trees trees, final Messager messager, final CheckerClassResolver checkerClassResolver,
+                       final CheckerConfiguration checkerConfiguration ) {
+        this.trees = trees;
+        this.messager = messager;
+        this.checkerClassResolver = checkerClassResolver;
+        this.checkerConfiguration = checkerConfiguration;
+    }
+
+    /**
+     * Returns the validations of the resources referenced by the {@link Syntax} annotations of an element. Resources
+     * that can not be found or read are reported as errors.
+     *
+     * @param element the annotated element
+     * @return the validations of the resources that were not validated before
+     */
+    List<Validation> validations( final Element element ) {
+        final List<Validation> validations = new ArrayList<>();
+        for ( final AnnotationMirror annotation : element.getAnnotationMirrors() ) {
+            final Optional<AnnotationValue> resource = CheckerClassResolver.resource( annotation );
+            final Optional<Class<?>> checkerClass = resource.flatMap( path ->
+                checkerClassResolver.checkerClass( annotation ) );
+            if ( checkerClass.isEmpty() ) {
+                continue;
+            }
+            final String path = (String) resource.get().getValue();
+            final Optional<URI> uri = checkerConfiguration.resource( path );
+            if ( uri.isEmpty() ) {
+                messager.printMessage( Diagnostic.Kind.ERROR, "Resource " + path + " not found", element, annotation,
+                    resource.get() );
+                continue;
+            }
+            if ( !validatedResources.add( Map.entry( uri.get(), checkerClass.get() ) ) ) {
+                continue;
+            }
+            final String content;
+            try {
+                content = read( uri.get() );
+            } catch ( final IOException | RuntimeException exception ) {
+                messager.printMessage( Diagnostic.Kind.ERROR, "Could not read resource " + path + ": "
+                    + exception.getMessage(), element, annotation, resource.get() );
+                continue;
+            }
+            final TreePath resourcePath = trees.getPath( element, annotation, resource.get() );
+            if ( resourcePath == null ) {
+                continue;
+            }
+            final Tree location = resourcePath.getLeaf();
+            validations.add( new Validation( checkerClass.get(), content, location, resourcePath,
+                Optional.of( path ), resourcePath.getCompilationUnit(),
+                trees.getSourcePositions().getStartPosition( resourcePath.getCompilationUnit(), location ) ) );
+        }
+        return validations;
+    }
+
+    /**
+     * Reads a resource as UTF-8. Files are memory-mapped, other resources (e.g. entries of jar files) are read
+     * through a stream.
+     *
+     * @param uri the resource
+     * @return the content of the resource
+     * @throws IOException if the resource can not be read or is not valid UTF-8
+     */
+    private static String read( final URI uri ) throws IOException {
+        if ( !"file".equals( uri.getScheme() ) ) {
+            try ( final InputStream input = uri.toURL().openStream() ) {
+                return decode( ByteBuffer.wrap( input.readAllBytes() ) );
+            }
+        }
+        try ( final FileChannel channel = FileChannel.open( Path.of( uri ), StandardOpenOption.READ ) ) {
+            final MappedByteBuffer bytes = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+            return decode( bytes );
+        }
+    }
+
+    private static String decode( final ByteBuffer bytes ) throws CharacterCodingException {
+        return StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput( CodingErrorAction.REPORT )
+            .onUnmappableCharacter( CodingErrorAction.REPORT )
+            .decode( bytes )
+            .toString();
+    }
+}
@@ -0,0 +1,179 @@
+package de.atextor.syntax.annotation.processor;
+
+import de.atextor.syntax.annotation.ConfigurableChecker;
+import de.atextor.syntax.annotation.ReusableChecker;
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * State that is shared by all compilations in the same JVM, e.g. in an IDE or a build daemon that runs the
+ * annotation processor again for each build. All entries are bound to the lifetime of the checker classes and their
+ * class loaders, so that nothing is kept when the class path changes and the old class loader is discarded:
+ * <ul>
+ *     <li>Loaded checker classes are kept per class loader, which is referenced weakly</li>
+ *     <li>Instances of shareable checkers, and the findings they reported, are attached to the checker class using
+ *     {@link ClassValue}s</li>
+ * </ul>
+ * A checker class is shareable if it implements {@link ReusableChecker} but not {@link ConfigurableChecker}: Its
+ * instances do not depend on the configuration of a compilation, and its results only depend on the literal. The
+ * memoized findings of each shareable checker class are bounded by the total length of the literals; the least
+ * recently used entries are evicted first.
+ */
+final class SharedCaches {
+    /**
+     * The maximum total length of the literals whose findings are kept per checker class
+     */
+    static final int MAX_MEMOIZED_CHARACTERS = 1 << 20;
+
+    private static final Map<ClassLoader, Map<String, WeakReference<Class<?>>>> LOADED_CLASSES =
+        new WeakHashMap<>();
+
+    private static final ClassValue<AtomicReference<Function<String, Optional<String>>>> SHARED_CHECKERS =
+        new ClassValue<>() {
+            @Override
+            protected AtomicReference<Function<String, Optional<String>>> computeValue( final Class<?> type ) {
+                return new AtomicReference<>();
+            }
+        };
+
+    private static final ClassValue<FindingMemo> FINDINGS = new ClassValue<>() {
+        @Override
+        protected FindingMemo computeValue( final Class<?> type ) {
+            return new FindingMemo();
+        }
+    };
+
+    private SharedCaches() {
+    }
+
+    /**
+     * Determines whether instances and findings of a checker class can be shared across compilations
+     *
+     * @param checkerClass the checker class
+     * @return true if the class is reusable and not configurable
+     */
+    static boolean isShareable( final Class<?> checkerClass ) {
+        return ReusableChecker.class.isAssignableFrom( checkerClass )
+            && !ConfigurableChecker.class.isAssignableFrom( checkerClass );
+    }
+
+    /**
+     * Loads a class by its binary name, reusing the classes loaded by previous compilations. The class is not
+     * initialized, so that the libraries used by a checker are only loaded once it is instantiated.
+     *
+     * @param classLoader the class loader
+     * @param binaryName the binary name of the class
+     * @return the class
+     * @throws ClassNotFoundException if the class can not be found
+     */
+    static Class<?> loadClass( final ClassLoader classLoader, final String binaryName )
+        throws ClassNotFoundException {
+        synchronized ( LOADED_CLASSES ) {
+            final WeakReference<Class<?>> loadedClass = LOADED_CLASSES.getOrDefault( classLoader, Map.of() )
+                .get( binaryName );
+            if ( loadedClass != null && loadedClass.get() != null ) {
+                return loadedClass.get();
+            }
+        }
+        final Class<?> type = Class.forName( binaryName, false, classLoader );
+        synchronized ( LOADED_CLASSES ) {
+            LOADED_CLASSES.computeIfAbsent( classLoader, loader -> new HashMap<>() )
+                .put( binaryName, new WeakReference<>( type ) );
+        }
+        return type;
+    }
+
+    /**
+     * Returns the instance of a shareable checker class that is used by all compilations
+     *
+     * @param checkerClass the checker class, which must be shareable
+     * @param factory creates the instance if there is none yet
+     * @return the instance
+     * @throws ReflectiveOperationException if the checker class can not be instantiated
+     */
+    static Function<String, Optional<String>> sharedChecker( final Class<?> checkerClass,
+                                                             final CheckerFactory factory )
+        throws ReflectiveOperationException {
+        final AtomicReference<Function<String, Optional<String>>> instance = SHARED_CHECKERS.get( checkerClass );
+        final Function<String, Optional<String>> existingChecker = instance.get();
+        if ( existingChecker != null ) {
+            return existingChecker;
+        }
+        final Function<String, Optional<String>> checker = factory.create( checkerClass );
+        return instance.compareAndSet( null, checker ) ? checker : instance.get();
+    }
+
+    /**
+     * Looks up the finding a shareable checker reported for a literal in this or a previous compilation
+     *
+     * @param checkerClass the checker class
+     * @param literal the literal
+     * @return the memoized outcome: empty if the literal was not checked or the entry was evicted, otherwise the
+     * finding, which itself is empty if the literal is valid
+     */
+    static Optional<Optional<SyntaxError>> memoizedFinding( final Class<?> checkerClass, final String literal ) {
+        return isShareable( checkerClass ) ? FINDINGS.get( checkerClass ).get( literal ) : Optional.empty();
+    }
+
+    /**
+     * Memoizes the finding of a shareable checker for a literal. This does nothing for other checkers and for
+     * literals longer than {@link #MAX_MEMOIZED_CHARACTERS}.
+     *
+     * @param checkerClass the checker class
+     * @param literal the literal
+     * @param finding the error or warning reported by the checker, or empty if the literal is valid
+     */
+    static void memoize( final Class<?> checkerClass, final String literal, final Optional<SyntaxError> finding ) {
+        if ( isShareable( checkerClass ) && literal.length() <= MAX_MEMOIZED_CHARACTERS ) {
+            FINDINGS.get( checkerClass ).put( literal, finding );
+        }
+    }
+
+    /**
+     * Creates checker instances
+     */
+    @FunctionalInterface
+    interface CheckerFactory {
+        /**
+         * Creates an instance of a checker class
+         *
+         * @param checkerClass the checker class
+         * @return the instance
+         * @throws ReflectiveOperationException if the checker class can not be instantiated
+         */
+        Function<String, Optional<String>> create( Class<?> checkerClass ) throws ReflectiveOperationException;
+    }
+
+    /**
+     * The findings of one checker class, least recently used first
+     */
+    private static final class FindingMemo {
+        private final LinkedHashMap<String, Optional<SyntaxError>> findings = new LinkedHashMap<>( 16, 0.75f, true );
+
+        private long characters;
+
+        synchronized Optional<Optional<SyntaxError>> get( final String literal ) {
+            return Optional.ofNullable( findings.get( literal ) );
+        }
+
+        synchronized void put( final String literal, final Optional<SyntaxError> finding ) {
+            if ( findings.put( literal, finding ) == null ) {
+                characters += literal.length();
+            }
+            final Iterator<String> iterator = findings.keySet().iterator();
+            while ( characters > MAX_MEMOIZED_CHARACTERS && iterator.hasNext() ) {
+                characters -= iterator.next().length();
+                iterator.remove();
+            }
+        }
+    }
+}
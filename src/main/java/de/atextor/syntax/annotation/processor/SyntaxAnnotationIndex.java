@@ -0,0 +1,132 @@
+package de.atextor.syntax.annotation.processor;
+
+import com.sun.source.tree.CompilationUnitTree;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the compilation units that may contain a given annotation, used to skip the traversal of the abstract
+ * syntax trees of all other compilation units. Compilation units containing annotated fields are registered up
+ * front from the processing rounds. Annotated local variables are not visible to annotation processing, so for
+ * every other compilation unit the source text is scanned for the annotation once, which is considerably cheaper
+ * than traversing its tree.
+ */
+class SyntaxAnnotationIndex {
+    private final String annotationName;
+
+    private final Set<CompilationUnitTree> unitsWithAnnotatedElements =
+        Collections.newSetFromMap( new IdentityHashMap<>() );
+
+    private final Map<CompilationUnitTree, Boolean> scannedUnits = new IdentityHashMap<>();
+
+    /**
+     * Creates an index
+     *
+     * @param annotationName the simple name of the annotation
+     */
+    SyntaxAnnotationIndex( final String annotationName ) {
+        this.annotationName = annotationName;
+    }
+
+    /**
+     * Registers a compilation unit that is known to contain an annotated element
+     *
+     * @param compilationUnit the compilation unit
+     */
+    void addUnitWithAnnotatedElement( final CompilationUnitTree compilationUnit ) {
+        unitsWithAnnotatedElements.add( compilationUnit );
+    }
+
+    /**
+     * Determines whether a compilation unit may contain the annotation. False positives are possible, e.g. when
+     * the annotation is mentioned in a comment, false negatives are not.
+     *
+     * @param compilationUnit the compilation unit
+     * @return true if the compilation unit may contain the annotation
+     */
+    boolean mayContainAnnotation( final CompilationUnitTree compilationUnit ) {
+        if ( unitsWithAnnotatedElements.contains( compilationUnit ) ) {
+            return true;
+        }
+        return scannedUnits.computeIfAbsent( compilationUnit, this::sourceContainsAnnotation );
+    }
+
+    private boolean sourceContainsAnnotation( final CompilationUnitTree compilationUnit ) {
+        try {
+            return containsAnnotation( compilationUnit.getSourceFile().getCharContent( true ), annotationName );
+        } catch ( final IOException | RuntimeException exception ) {
+            // If the source can not be read, the unit is conservatively assumed to contain the annotation
+            return true;
+        }
+    }
+
+    /**
+     * Scans source text for an annotation with the given simple name, i.e., an '@' followed by a possibly
+     * qualified name whose last segment is the simple name
+     *
+     * @param source the source text
+     * @param annotationName the simple name of the annotation
+     * @return true if the source contains the annotation
+     */
+    static boolean containsAnnotation( final CharSequence source, final String annotationName ) {
+        final int length = source.length();
+        int index = 0;
+        while ( index < length ) {
+            if ( source.charAt( index++ ) != '@' ) {
+                continue;
+            }
+            int segmentStart = -1;
+            int segmentEnd = -1;
+            while ( index < length ) {
+                final char character = source.charAt( index );
+                if ( Character.isJavaIdentifierStart( character ) ) {
+                    segmentStart = index;
+                    while ( index < length && Character.isJavaIdentifierPart( source.charAt( index ) ) ) {
+                        index++;
+                    }
+                    segmentEnd = index;
+                } else if ( character == '.' || Character.isWhitespace( character ) ) {
+                    index++;
+                } else {
+                    break;
+                }
+                if ( segmentEnd == index && !continuesQualifiedName( source, index ) ) {
+                    break;
+                }
+            }
+            if ( segmentStart >= 0 && regionEquals( source, segmentStart, segmentEnd, annotationName ) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionEquals( final CharSequence source, final int start, final int end,
+                                         final String string ) {
+        if ( end - start != string.length() ) {
+            return false;
+        }
+        for ( int index = start; index < end; index++ ) {
+            if ( source.charAt( index ) != string.charAt( index - start ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the identifier that ended at the given index is followed by a '.', i.e., whether it is not
+     * the last segment of a qualified name
+     */
+    private static boolean continuesQualifiedName( final CharSequence source, final int index ) {
+        int position = index;
+        while ( position < source.length() && Character.isWhitespace( source.charAt( position ) ) ) {
+            position++;
+        }
+        return position < source.length() && source.charAt( position ) == '.';
+    }
+}
@@ -1,53 +1,209 @@
 package de.atextor.syntax.annotation.processor;
 
-import com.sun.source.tree.AnnotationTree;
-import com.sun.source.tree.AssignmentTree;
 import com.sun.source.tree.CompilationUnitTree;
 import com.sun.source.tree.ExpressionTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.MethodInvocationTree;
+import com.sun.source.tree.NewClassTree;
 import com.sun.source.tree.Tree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.util.JavacTask;
-import com.sun.source.util.SimpleTreeVisitor;
 import com.sun.source.util.TaskEvent;
 import com.sun.source.util.TaskListener;
 import com.sun.source.util.TreePath;
 import com.sun.source.util.TreePathScanner;
 import com.sun.source.util.Trees;
+import de.atextor.syntax.RegExp;
+import de.atextor.syntax.XMLSchema;
 import de.atextor.syntax.annotation.Syntax;
+import de.atextor.syntax.annotation.SyntaxError;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
 import javax.tools.Diagnostic;
-import java.lang.reflect.Field;
+import javax.tools.StandardLocation;
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
  * The Java annotation processor that looks for {@link Syntax} annotations on string literals and string fields.
  */
 @SupportedAnnotationTypes( { "de.atextor.syntax.annotation.Syntax" } )
 @SupportedSourceVersion( SourceVersion.RELEASE_25 )
+@SupportedOptions( {
+    SyntaxProcessor.CACHE_OPTION,
+    SyntaxProcessor.CACHE_DIRECTORY_OPTION,
+    SyntaxProcessor.CACHE_MAX_ENTRIES_OPTION,
+    SyntaxProcessor.SHARED_CACHE_OPTION,
+    SyntaxProcessor.PARALLEL_OPTION,
+    SyntaxProcessor.PARALLELISM_OPTION,
+    SyntaxProcessor.METRICS_OPTION,
+    SyntaxProcessor.METRICS_FILE_OPTION,
+    SyntaxProcessor.PATTERNS_OPTION,
+    SyntaxProcessor.PATTERN_FLAGS_OPTION,
+    SyntaxProcessor.TURTLE_RESOURCES_OPTION,
+    SyntaxProcessor.DIAGNOSTICS_WINDOW_OPTION,
+    SyntaxProcessor.CHECKER_TIMEOUT_OPTION,
+    SyntaxProcessor.CHECKER_MAX_LENGTH_OPTION,
+    SyntaxProcessor.CHECKER_FAILURES_OPTION,
+    XMLSchema.SCHEMA_OPTION,
+    RegExp.REDOS_OPTION
+} )
 public class SyntaxProcessor extends AbstractProcessor {
+    /**
+     * Processor option ({@code -Asyntax.cache=true}) that enables the persistent validation cache in the build
+     * output directory
+     */
+    public static final String CACHE_OPTION = "syntax.cache";
+
+    /**
+     * Processor option that sets the directory of the persistent validation cache; setting it implies
+     * {@link #CACHE_OPTION}. By default, the cache is stored in {@code syntax-annotation-cache} next to the class
+     * output directory, e.g. {@code target/syntax-annotation-cache} in a Maven build.
+     */
+    public static final String CACHE_DIRECTORY_OPTION = "syntax.cache.directory";
+
+    /**
+     * Processor option that sets the maximum number of entries of the persistent validation cache
+     */
+    public static final String CACHE_MAX_ENTRIES_OPTION = "syntax.cache.maxEntries";
+
+    /**
+     * Processor option ({@code -Asyntax.cache.shared=true}) that keeps the findings of reusable, non-configurable
+     * checkers in memory, so that repeated compilations in the same JVM, e.g. in an IDE or a build daemon, do not
+     * check unchanged strings again, see {@link SharedCaches}
+     */
+    public static final String SHARED_CACHE_OPTION = "syntax.cache.shared";
+
+    /**
+     * Processor option ({@code -Asyntax.parallel=true}) that moves validation off the compiler thread: The checkers
+     * run on a thread pool while the compiler analyzes the remaining types, and their results are reported at the
+     * end of the compilation
+     */
+    public static final String PARALLEL_OPTION = "syntax.parallel";
+
+    /**
+     * Processor option that sets the number of threads used when {@link #PARALLEL_OPTION} is enabled. Defaults to
+     * the number of available processors.
+     */
+    public static final String PARALLELISM_OPTION = "syntax.parallelism";
+
+    /**
+     * Processor option ({@code -Asyntax.metrics=true}) that enables the collection of timing metrics: At the end of
+     * the compilation, a summary is printed as a note and a JSON report is written to
+     * {@code syntax-annotation-metrics.json} next to the class output directory
+     */
+    public static final String METRICS_OPTION = "syntax.metrics";
+
+    /**
+     * Processor option that sets the file the metrics report is written to; setting it implies
+     * {@link #METRICS_OPTION}
+     */
+    public static final String METRICS_FILE_OPTION = "syntax.metrics.file";
+
+    /**
+     * Processor option ({@code -Asyntax.regexp.patterns=true}) that generates a holder class with precompiled
+     * {@link java.util.regex.Pattern} constants for the fields annotated with {@code @Syntax(RegExp.class)}, see
+     * {@link PatternHolderGenerator}
+     */
+    public static final String PATTERNS_OPTION = "syntax.regexp.patterns";
+
+    /**
+     * Processor option that sets the flags the generated patterns are compiled with, as a comma separated list of
+     * the names of the flag constants of {@link java.util.regex.Pattern}, e.g. {@code CASE_INSENSITIVE,MULTILINE};
+     * setting it implies {@link #PATTERNS_OPTION}
+     */
+    public static final String PATTERN_FLAGS_OPTION = "syntax.regexp.patterns.flags";
+
+    /**
+     * Processor option ({@code -Asyntax.turtle.resources=true}) that writes the RDF of the fields annotated with
+     * {@code @Syntax(Turtle.class)} as binary RDF Thrift resources to the class output and generates accessor classes
+     * that load them, see {@link TurtleResourceGenerator}
+     */
+    public static final String TURTLE_RESOURCES_OPTION = "syntax.turtle.resources";
+
+    /**
+     * Processor option that sets the number of lines shown before and after the line of a finding in the excerpt of
+     * the literal that is included in diagnostics. Defaults to 2; a negative value shows the whole literal.
+     */
+    public static final String DIAGNOSTICS_WINDOW_OPTION = "syntax.diagnostics.window";
+
+    /**
+     * Processor option that sets the time in milliseconds a checker may take to check a string. Checkers that take
+     * longer are abandoned and reported as failed. Defaults to 60000; 0 disables the timeout.
+     */
+    public static final String CHECKER_TIMEOUT_OPTION = "syntax.checker.timeout";
+
+    /**
+     * Processor option that sets the maximum length of the strings passed to checkers. Longer strings are not checked
+     * and reported as failed instead. Defaults to 0, i.e., no limit.
+     */
+    public static final String CHECKER_MAX_LENGTH_OPTION = "syntax.checker.maxLength";
+
+    /**
+     * Processor option that determines whether checkers that fail, i.e., that exceed the timeout or the maximum
+     * length, throw an exception or can not be instantiated, are reported as {@code warning} (the default) or
+     * {@code error}
+     */
+    public static final String CHECKER_FAILURES_OPTION = "syntax.checker.failures";
+
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 10_000;
+
+    private static final int DEFAULT_DIAGNOSTICS_WINDOW = 2;
+
     private final CompilerTaskListener compilerTaskListener = new CompilerTaskListener();
 
     private final SyntaxTreeTraverser syntaxTreeTraverser = new SyntaxTreeTraverser();
 
-    private final AnnotationArgumentExtractor checkAnnotationType = new AnnotationArgumentExtractor( Syntax.class );
+    private final SyntaxAnnotationIndex syntaxAnnotationIndex =
+        new SyntaxAnnotationIndex( Syntax.class.getSimpleName() );
 
     private ProcessingEnvironment processingEnvironment;
 
+    private ConstantExpressionEvaluator constantExpressionEvaluator;
+
+    private LiteralLocator literalLocator;
+
+    private int diagnosticsWindow = DEFAULT_DIAGNOSTICS_WINDOW;
+
+    private CheckerClassResolver checkerClassResolver;
+
+    private AnnotatedParameterIndex annotatedParameterIndex;
+
+    private ResourceValidator resourceValidator;
+
+    private CheckerRegistry checkerRegistry;
+
+    private Optional<ValidationCache> validationCache = Optional.empty();
+
+    private ValidationEngine validationEngine;
+
+    private ProcessorMetrics metrics;
+
+    private Optional<Path> metricsFile = Optional.empty();
+
+    private Optional<PatternHolderGenerator> patternHolderGenerator = Optional.empty();
+
+    private Optional<TurtleResourceGenerator> turtleResourceGenerator = Optional.empty();
+
     /**
      * Default constructor
      */
@@ -65,6 +221,143 @@ public class SyntaxProcessor extends AbstractProcessor {
         super.init( processingEnvironment );
         this.processingEnvironment = jbUnwrap( ProcessingEnvironment.class, processingEnvironment );
         JavacTask.instance( this.processingEnvironment ).addTaskListener( compilerTaskListener );
+        constantExpressionEvaluator = new ConstantExpressionEvaluator( Trees.instance( this.processingEnvironment ) );
+        literalLocator = new LiteralLocator( Trees.instance( this.processingEnvironment ),
+            constantExpressionEvaluator );
+        checkerClassResolver = new CheckerClassResolver( this.processingEnvironment.getElementUtils() );
+        annotatedParameterIndex = new AnnotatedParameterIndex( checkerClassResolver );
+        final Map<String, String> options = processingEnvironment.getOptions();
+        final ProcessorCheckerConfiguration checkerConfiguration =
+            new ProcessorCheckerConfiguration( options, this.processingEnvironment.getFiler() );
+        checkerRegistry = new CheckerRegistry( checkerConfiguration, SyntaxProcessor.class.getClassLoader() );
+        resourceValidator = new ResourceValidator( Trees.instance( this.processingEnvironment ),
+            this.processingEnvironment.getMessager(), checkerClassResolver, checkerConfiguration );
+        validationCache = createValidationCache( options );
+        diagnosticsWindow = intOption( options, DIAGNOSTICS_WINDOW_OPTION, Integer.MIN_VALUE,
+            DEFAULT_DIAGNOSTICS_WINDOW );
+        metrics = new ProcessorMetrics( options.containsKey( METRICS_FILE_OPTION )
+            || Boolean.parseBoolean( options.get( METRICS_OPTION ) ) );
+        if ( metrics.isEnabled() ) {
+            metricsFile = Optional.ofNullable( options.get( METRICS_FILE_OPTION ) )
+                .map( Path::of )
+                .or( () -> buildOutputDirectory().map( directory ->
+                    directory.resolve( "syntax-annotation-metrics.json" ) ) );
+        }
+        validationEngine = new ValidationEngine( parallelism( options ), checkerRegistry, validationCache,
+            Boolean.parseBoolean( options.get( SHARED_CACHE_OPTION ) ), metrics, createCheckerWatchdog( options ) );
+        patternHolderGenerator = createPatternHolderGenerator( options );
+        turtleResourceGenerator = createTurtleResourceGenerator( options );
+    }
+
+    private CheckerWatchdog createCheckerWatchdog( final Map<String, String> options ) {
+        try {
+            return CheckerWatchdog.fromOptions( options );
+        } catch ( final IllegalArgumentException exception ) {
+            processingEnvironment.getMessager().printMessage( Diagnostic.Kind.ERROR, exception.getMessage() );
+            return CheckerWatchdog.fromOptions( Map.of() );
+        }
+    }
+
+    private Optional<PatternHolderGenerator> createPatternHolderGenerator( final Map<String, String> options ) {
+        if ( !options.containsKey( PATTERN_FLAGS_OPTION ) && !Boolean.parseBoolean( options.get( PATTERNS_OPTION ) ) ) {
+            return Optional.empty();
+        }
+        final List<String> flagNames = PatternHolderGenerator.parseFlagNames(
+            Optional.ofNullable( options.get( PATTERN_FLAGS_OPTION ) ).orElse( "" ) );
+        try {
+            return Optional.of( new PatternHolderGenerator( processingEnvironment.getFiler(),
+                processingEnvironment.getMessager(), processingEnvironment.getElementUtils(),
+                Trees.instance( processingEnvironment ), flagNames ) );
+        } catch ( final IllegalArgumentException exception ) {
+            processingEnvironment.getMessager().printMessage( Diagnostic.Kind.ERROR,
+                "Invalid value of " + PATTERN_FLAGS_OPTION + ": " + exception.getMessage() );
+            return Optional.empty();
+        }
+    }
+
+    private int parallelism( final Map<String, String> options ) {
+        if ( !Boolean.parseBoolean( options.get( PARALLEL_OPTION ) ) ) {
+            return 0;
+        }
+        return intOption( options, PARALLELISM_OPTION, 1, Runtime.getRuntime().availableProcessors() );
+    }
+
+    private Optional<ValidationCache> createValidationCache( final Map<String, String> options ) {
+        final Optional<Path> directory = Optional.ofNullable( options.get( CACHE_DIRECTORY_OPTION ) )
+            .map( Path::of )
+            .or( () -> Boolean.parseBoolean( options.get( CACHE_OPTION ) )
+                ? buildOutputDirectory().map( outputDirectory -> outputDirectory.resolve( "syntax-annotation-cache" ) )
+                : Optional.empty() );
+        final int maxEntries = intOption( options, CACHE_MAX_ENTRIES_OPTION, 0, DEFAULT_CACHE_MAX_ENTRIES );
+        return directory.map( cacheDirectory -> new ValidationCache( cacheDirectory, maxEntries ) );
+    }
+
+    /**
+     * Reads an integer processor option. Invalid values are reported as an error, and the default is used instead,
+     * so that a typo in an option does not abort the compilation.
+     *
+     * @param options the processor options
+     * @param name the name of the option
+     * @param minimum the smallest valid value
+     * @param defaultValue the value used if the option is not set or invalid
+     * @return the value of the option
+     */
+    private int intOption( final Map<String, String> options, final String name, final int minimum,
+                           final int defaultValue ) {
+        final String value = options.get( name );
+        if ( value == null ) {
+            return defaultValue;
+        }
+        try {
+            final int number = Integer.parseInt( value.trim() );
+            if ( number >= minimum ) {
+                return number;
+            }
+        } catch ( final NumberFormatException exception ) {
+            // Reported below
+        }
+        final String expected = switch ( minimum ) {
+            case 0 -> "a non-negative number";
+            case 1 -> "a positive number";
+            default -> minimum == Integer.MIN_VALUE ? "a number" : "a number of at least " + minimum;
+        };
+        processingEnvironment.getMessager().printMessage( Diagnostic.Kind.ERROR, "Invalid value of " + name
+            + ": expected " + expected );
+        return defaultValue;
+    }
+
+    private Optional<TurtleResourceGenerator> createTurtleResourceGenerator( final Map<String, String> options ) {
+        if ( !Boolean.parseBoolean( options.get( TURTLE_RESOURCES_OPTION ) ) ) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of( new TurtleResourceGenerator( processingEnvironment.getFiler(),
+                processingEnvironment.getMessager(), processingEnvironment.getElementUtils(),
+                Trees.instance( processingEnvironment ) ) );
+        } catch ( final LinkageError error ) {
+            processingEnvironment.getMessager().printMessage( Diagnostic.Kind.ERROR, TURTLE_RESOURCES_OPTION
+                + " requires org.apache.jena:jena-arq on the annotation processor path: " + error.getMessage() );
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Determines the build output directory, i.e., the parent directory of the class output directory. This is only
+     * possible if the class output is located in the file system.
+     *
+     * @return the build output directory, if it can be determined
+     */
+    private Optional<Path> buildOutputDirectory() {
+        try {
+            final URI classOutputFile = processingEnvironment.getFiler()
+                .getResource( StandardLocation.CLASS_OUTPUT, "", "syntax-annotation" ).toUri();
+            if ( !"file".equals( classOutputFile.getScheme() ) ) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable( Path.of( classOutputFile ).getParent() ).map( Path::getParent );
+        } catch ( final IOException | IllegalArgumentException exception ) {
+            return Optional.empty();
+        }
     }
 
     /**
@@ -89,7 +382,24 @@ public class SyntaxProcessor extends AbstractProcessor {
     public boolean process( final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv ) {
         // We can't do the processing here, because this method is not called for all types of annotated elements,
         // in particular local variables.
-        // Actual processing is done in the CompilerTaskListener.
+        // Actual processing is done in the CompilerTaskListener. Here, we only record which compilation units
+        // contain annotated fields, so that the CompilerTaskListener can skip all others that don't contain
+        // annotated local variables either, and which executables have annotated parameters, so that the
+        // CompilerTaskListener can check their call sites. Resource files referenced by annotations are not part of
+        // the trees, so their validations are submitted right away.
+        final Trees trees = Trees.instance( processingEnvironment );
+        final Set<? extends Element> annotatedElements = roundEnv.getElementsAnnotatedWith( Syntax.class );
+        for ( final Element element : annotatedElements ) {
+            annotatedParameterIndex.addAnnotatedElement( element );
+            resourceValidator.validations( element ).forEach( validationEngine::submit );
+            final TreePath path = trees.getPath( element );
+            if ( path != null ) {
+                syntaxAnnotationIndex.addUnitWithAnnotatedElement( path.getCompilationUnit() );
+            }
+        }
+        // Generated sources must be created during the processing rounds in order to be compiled
+        patternHolderGenerator.ifPresent( generator -> generator.generate( annotatedElements ) );
+        turtleResourceGenerator.ifPresent( generator -> generator.generate( annotatedElements ) );
         return true;
     }
 
@@ -105,56 +415,124 @@ public class SyntaxProcessor extends AbstractProcessor {
     }
 
     /**
-     * The literal values we receive from the abstract syntax tree are escaped, e.g. "\"hello\nworld\"".
-     * This method extracts the corresponding unescaped string.
+     * This method passes a given warning message to the compiler process.
+     *
+     * @param message the message
+     * @param location the location the warning refers to
+     * @param root the corresponding abstract syntax tree
+     */
+    private void indicateWarning( final String message, final Tree location, final CompilationUnitTree root ) {
+        Trees.instance( processingEnvironment ).printMessage( Diagnostic.Kind.WARNING, message, location, root );
+    }
+
+    /**
+     * Reports the outcome of a validation as a compiler error if the validation failed, or as a compiler warning if
+     * the checker reported a warning
      *
-     * @param literal the given escaped literal string
-     * @return the unescaped string
+     * @param validation the validation
+     * @param finding the error or warning reported by the checker, or empty if the literal is valid
+     */
+    private void report( final Validation validation, final Optional<SyntaxError> finding ) {
+        finding.ifPresent( syntaxError -> {
+            final Optional<LiteralLocator.SourceLocation> sourceLocation =
+                literalLocator.locate( validation, syntaxError );
+            final String message = validation.diagnosticMessage( syntaxError, diagnosticsWindow )
+                + sourceLocation.map( location -> sourceReference( validation, location ) ).orElse( "" );
+            final Tree location = sourceLocation.map( LiteralLocator.SourceLocation::tree )
+                .orElse( validation.location() );
+            if ( syntaxError.severity() == SyntaxError.Severity.ERROR ) {
+                indicateError( message, location, validation.compilationUnit() );
+            } else {
+                indicateWarning( message, location, validation.compilationUnit() );
+            }
+        } );
+    }
+
+    /**
+     * Formats the exact source position of a finding, as the diagnostic itself can only point to the start of the
+     * string literal that contains it
+     */
+    private static String sourceReference( final Validation validation,
+                                           final LiteralLocator.SourceLocation location ) {
+        final String fileName = validation.compilationUnit().getSourceFile().getName();
+        return String.format( "%nat %s:%d:%d", fileName.substring( fileName.lastIndexOf( '/' ) + 1 ),
+            location.line(), location.column() );
+    }
+
+    /**
+     * Writes the metrics report, if enabled, and prints the summary of the metrics as a note
      */
-    private String unescapeLiteral( final String literal ) {
-        return literal.substring( 1, literal.length() - 1 )
-            .replaceAll( "\\\\n", "\n" )
-            .replaceAll( "\\\\\"", "\\\"" );
+    private void reportMetrics() {
+        if ( !metrics.isEnabled() ) {
+            return;
+        }
+        final Messager messager = processingEnvironment.getMessager();
+        try {
+            if ( metricsFile.isPresent() ) {
+                metrics.writeReport( metricsFile.get() );
+            }
+            messager.printMessage( Diagnostic.Kind.NOTE, metrics.summary()
+                + metricsFile.map( file -> ", report: " + file ).orElse( "" ) );
+        } catch ( final IOException exception ) {
+            messager.printMessage( Diagnostic.Kind.WARNING, metrics.summary()
+                + ", could not write report: " + exception.getMessage() );
+        }
     }
 
     /**
      * A task listener that checks the compiler phases: Only after the "analyze" phase is done, we'll use
-     * the {@link SyntaxTreeTraverser} to traverse the abstract syntax tree.
+     * the {@link SyntaxTreeTraverser} to traverse the abstract syntax tree, unless the {@link SyntaxAnnotationIndex}
+     * tells us that the compilation unit can not contain any annotations and the {@link AnnotatedParameterIndex}
+     * tells us that it can not call any method with annotated parameters. The validations submitted for a type are
+     * run and reported right after it was scanned, unless they are run in parallel or by batch checkers. When the
+     * whole compilation is done, the remaining validations are run, their results are reported and the validation
+     * cache is trimmed.
      */
     private class CompilerTaskListener implements TaskListener {
         @Override
         public void finished( final TaskEvent event ) {
+            if ( event.getKind() == TaskEvent.Kind.COMPILATION ) {
+                validationEngine.awaitAll()
+                    .forEach( result -> report( result.validation(), result.finding() ) );
+                validationCache.ifPresent( ValidationCache::evict );
+                reportMetrics();
+                return;
+            }
             if ( event.getKind() != TaskEvent.Kind.ANALYZE ) {
                 return;
             }
 
+            final long startTime = metrics.startTime();
             final TypeElement element = event.getTypeElement();
             final TreePath path = Trees.instance( processingEnvironment ).getPath( element );
-            syntaxTreeTraverser.scan( path, path.getCompilationUnit() );
+            if ( path == null || ( !syntaxAnnotationIndex.mayContainAnnotation( path.getCompilationUnit() )
+                && !annotatedParameterIndex.mayBeCalledIn( path.getCompilationUnit() ) ) ) {
+                metrics.recordScan( startTime, false );
+            } else if ( TreeScanEvent.isRecording() ) {
+                final TreeScanEvent scanEvent = new TreeScanEvent();
+                scanEvent.begin();
+                syntaxTreeTraverser.scan( path, path.getCompilationUnit() );
+                scanEvent.commit( element );
+                metrics.recordScan( startTime, true );
+            } else {
+                syntaxTreeTraverser.scan( path, path.getCompilationUnit() );
+                metrics.recordScan( startTime, true );
+            }
+            // Also runs the validations of resources submitted during annotation processing
+            validationEngine.flush().forEach( result -> report( result.validation(), result.finding() ) );
         }
     }
 
     /**
      * Java abstract syntax tree traverser that looks for string variables annotated with @Syntax and
-     * calls the given checker function on their initializer expression
+     * submits the validation of their initializer expression using the given checker function. It also looks for
+     * calls of methods and constructors with parameters annotated with @Syntax and submits the validation of the
+     * corresponding arguments. Initializers and arguments that are not compile time constant strings are not
+     * validated.
      */
     private class SyntaxTreeTraverser extends TreePathScanner<Void, CompilationUnitTree> {
         /**
-         * Adds line numbers to a given (possibly multi line) string, so parser/validating errors referring
-         * to line numbers can be understood more easily
-         *
-         * @param string the input string
-         * @return the string with each of its lines prefixed with the line number
-         */
-        private String addLineNumbers( final String string ) {
-            final String[] lines = string.split( "\n" );
-            return IntStream.range( 0, lines.length )
-                .mapToObj( i -> String.format( "%3d: %s\n", i + 1, lines[i] ) )
-                .collect( Collectors.joining() );
-        }
-
-        /**
-         * The AST node visiting method for variables, the only one we are interested in
+         * The AST node visiting method for variables
          *
          * @param node the node being visited
          * @param compilationUnit the AST tree so that we have it available for error reporting
@@ -162,123 +540,97 @@ public class SyntaxProcessor extends AbstractProcessor {
          */
         @Override
         public Void visitVariable( final VariableTree node, final CompilationUnitTree compilationUnit ) {
-            final ExpressionTree initializer = node.getInitializer();
-            if ( initializer == null || !node.getType().toString().equals( "String" ) ) {
+            if ( node.getModifiers().getAnnotations().isEmpty() ) {
+                return super.visitVariable( node, compilationUnit );
+            }
+            final Element element = Trees.instance( processingEnvironment ).getElement( getCurrentPath() );
+            // Annotated local variables are not passed to process(), so the resources they reference are found here
+            if ( element != null && element.getKind() == ElementKind.LOCAL_VARIABLE ) {
+                resourceValidator.validations( element ).forEach( validationEngine::submit );
+            }
+            final List<Class<?>> checkerClasses = element == null
+                ? List.of()
+                : checkerClassResolver.checkerClasses( element );
+            if ( checkerClasses.isEmpty() ) {
                 return super.visitVariable( node, compilationUnit );
             }
-            final List<? extends Class<?>> checkerClasses = node.getModifiers().getAnnotations().stream()
-                .map( annotation -> annotation.accept( checkAnnotationType, null ) )
-                .filter( clazz -> clazz != RuntimeException.class )
-                .toList();
 
-            final String variableValue = unescapeLiteral( initializer.toString() );
+            final Optional<String> value = constantExpressionEvaluator.evaluateInitializer( getCurrentPath() );
+            if ( value.isEmpty() ) {
+                return super.visitVariable( node, compilationUnit );
+            }
+            final String variableValue = value.get();
+            final long position = Trees.instance( processingEnvironment ).getSourcePositions()
+                .getStartPosition( compilationUnit, node );
+            final TreePath initializerPath = new TreePath( getCurrentPath(), node.getInitializer() );
             for ( final Class<?> clazz : checkerClasses ) {
-                try {
-                    @SuppressWarnings( "unchecked" ) final Function<String, Optional<String>> syntaxChecker =
-                        (Function<String, Optional<String>>) clazz.getDeclaredConstructor().newInstance();
-                    final Optional<String> errorMessage = syntaxChecker.apply( variableValue );
-                    errorMessage.ifPresent( message ->
-                        indicateError( String.format( "%s syntax validation failed:%n%s%n%s",
-                                clazz.getSimpleName(), addLineNumbers( variableValue ), message ), node,
-                            compilationUnit ) );
-                } catch ( final Exception e ) {
-                    // This can happen e.g. when the given syntax checker class has no default constructor, or it
-                    // is not accessible. We'll ignore this.
-                }
+                validationEngine.submit( new Validation( clazz, variableValue, node, initializerPath, Optional.empty(),
+                    compilationUnit, position ) );
             }
             return super.visitVariable( node, compilationUnit );
         }
-    }
-
-    /**
-     * Java AST tree visitor that extracts the Class&lt;T&gt;-typed argument (value()) of a given annotation.
-     * On success, it returns the class object for the annotation's argument; on failure it returns RuntimeException
-     * .class.
-     */
-    private static class AnnotationArgumentExtractor extends SimpleTreeVisitor<Class<?>, Object> {
-        /**
-         * The type of processed annotation
-         */
-        private final Class<?> annotationType;
-
-        /**
-         * Marker object used as a context when traversing the abstract syntax tree
-         */
-        private final Object hint = new Object();
-
-        public AnnotationArgumentExtractor( final Class<?> annotationType ) {
-            super( RuntimeException.class );
-            this.annotationType = annotationType;
-        }
 
         @Override
-        public Class<?> visitAnnotation( final AnnotationTree node, final Object context ) {
-            // Checks that the syntax tree element is annotated with the annotation we are looking for
-            final Class<?> annotationType = node.getAnnotationType().accept( this, hint );
-            if ( annotationType != RuntimeException.class
-                && node.getArguments() != null
-                && node.getArguments().size() == 1 ) {
-
-                // If we reach this, this means we are here: @Foo(value() = Bar.class)
-                //                                           ^^^^
-                return node.getArguments().get( 0 ).accept( this, hint );
+        public Void visitMethodInvocation( final MethodInvocationTree node,
+                                           final CompilationUnitTree compilationUnit ) {
+            final ExpressionTree methodSelect = node.getMethodSelect();
+            final Name name = methodSelect instanceof final MemberSelectTree memberSelect
+                ? memberSelect.getIdentifier()
+                : ( (IdentifierTree) methodSelect ).getName();
+            // Constructor calls via this(...) and super(...) can not be filtered by name
+            if ( annotatedParameterIndex.mayBeCalled( name ) || name.contentEquals( "this" )
+                || name.contentEquals( "super" ) ) {
+                submitArguments( new TreePath( getCurrentPath(), methodSelect ), node.getArguments(),
+                    compilationUnit );
             }
-            return RuntimeException.class;
+            return super.visitMethodInvocation( node, compilationUnit );
         }
 
         @Override
-        public Class<?> visitAssignment( final AssignmentTree node, final Object context ) {
-            if ( context == hint ) {
-                // If we reach this, this means we are here: @Foo(value() = Bar.class)
-                //                                                        ^
-                return node.getExpression().accept( this, context );
+        public Void visitNewClass( final NewClassTree node, final CompilationUnitTree compilationUnit ) {
+            if ( !annotatedParameterIndex.isEmpty() ) {
+                submitArguments( getCurrentPath(), node.getArguments(), compilationUnit );
             }
-            return RuntimeException.class;
+            return super.visitNewClass( node, compilationUnit );
         }
 
-        @Override
-        public Class<?> visitMemberSelect( final MemberSelectTree node, final Object context ) {
-            if ( context == null || context != hint ) {
-                return RuntimeException.class;
+        /**
+         * Submits the validation of the constant arguments of a call that are passed for annotated parameters
+         *
+         * @param executablePath the path to the tree whose element is the invoked method or constructor
+         * @param arguments the arguments of the call
+         * @param compilationUnit the compilation unit
+         */
+        private void submitArguments( final TreePath executablePath, final List<? extends ExpressionTree> arguments,
+                                      final CompilationUnitTree compilationUnit ) {
+            final Trees trees = Trees.instance( processingEnvironment );
+            if ( !( trees.getElement( executablePath ) instanceof final ExecutableElement executable ) ) {
+                return;
             }
-            // If we reach this, this means we are here: @Foo(value() = Bar.class)
-            //                                                          ^^^^^^^^^
-            return accessTypeField( node ).map( typeName -> {
-                try {
-                    if ( !typeName.startsWith( "java.lang.Class<" ) ) {
-                        return RuntimeException.class;
-                    }
-                    final String className = typeName.substring( 16, typeName.length() - 1 );
-                    return Class.forName( className );
-                } catch ( final ClassNotFoundException e ) {
-                    return RuntimeException.class;
+            final List<List<Class<?>>> parameterCheckerClasses =
+                annotatedParameterIndex.parameterCheckerClasses( executable );
+            for ( int index = 0; index < arguments.size() && !parameterCheckerClasses.isEmpty(); index++ ) {
+                // Arguments beyond the last parameter are variable arity arguments
+                final int parameterIndex = Math.min( index, parameterCheckerClasses.size() - 1 );
+                if ( index != parameterIndex && !executable.isVarArgs() ) {
+                    break;
                 }
-            } ).orElse( RuntimeException.class );
-        }
-
-        @Override
-        public Class<?> visitIdentifier( final IdentifierTree node, final Object context ) {
-            if ( context == null || context != hint ) {
-                return RuntimeException.class;
-            }
-            return accessTypeField( node ).map( typeName ->
-                    typeName.equals( annotationType.getName() ) ? annotationType : RuntimeException.class )
-                .orElse( RuntimeException.class );
-        }
-
-        private Optional<String> accessTypeField( final ExpressionTree node ) {
-            try {
-                for ( final Field field : node.getClass().getFields() ) {
-                    if ( field.toString().endsWith( "JCTree.type" ) ) {
-                        field.setAccessible( true );
-                        final Object type = field.get( node );
-                        return Optional.of( type.toString() );
-                    }
+                final List<Class<?>> checkerClasses = parameterCheckerClasses.get( parameterIndex );
+                if ( checkerClasses.isEmpty() ) {
+                    continue;
+                }
+                final ExpressionTree argument = arguments.get( index );
+                final TreePath argumentPath = new TreePath( getCurrentPath(), argument );
+                final Optional<String> value = constantExpressionEvaluator.evaluateExpression( argumentPath );
+                if ( value.isEmpty() ) {
+                    continue;
+                }
+                final long position = trees.getSourcePositions().getStartPosition( compilationUnit, argument );
+                for ( final Class<?> checkerClass : checkerClasses ) {
+                    validationEngine.submit( new Validation( checkerClass, value.get(), argument, argumentPath,
+                        Optional.empty(), compilationUnit, position ) );
                 }
-            } catch ( final IllegalAccessException exception ) {
-                return Optional.empty();
             }
-            return Optional.empty();
         }
     }
 }
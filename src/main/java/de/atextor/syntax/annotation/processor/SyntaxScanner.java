@@ -0,0 +1,569 @@
+package de.atextor.syntax.annotation.processor;
+
+import com.sun.source.tree.AnnotationTree;
+import com.sun.source.tree.AssignmentTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.ImportTree;
+import com.sun.source.tree.LineMap;
+import com.sun.source.tree.MemberSelectTree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.SourcePositions;
+import com.sun.source.util.TreePath;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
+import de.atextor.syntax.annotation.CheckerConfiguration;
+import de.atextor.syntax.annotation.CheckerProvider;
+import de.atextor.syntax.annotation.Syntax;
+import de.atextor.syntax.annotation.SyntaxError;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Command line tool that validates {@link Syntax} annotated strings in Java sources without compiling them, e.g. as
+ * a pre-commit check. The sources are only parsed, not attributed, which has the following consequences compared
+ * to the annotation processor:
+ * <ul>
+ *     <li>Checker and annotation classes are resolved by name, using the imports of the compilation unit</li>
+ *     <li>Initializers are evaluated from string literals and their concatenations; references to other constants
+ *     can not be resolved, so such initializers are skipped</li>
+ *     <li>Arguments passed for annotated parameters are not validated, as the invoked methods are not known</li>
+ *     <li>Resources referenced by annotations are not validated, as the resource locations of the compilation are
+ *     not known</li>
+ * </ul>
+ * Source files are memory-mapped and their bytes are scanned for the annotation first, so that only files mentioning
+ * it are decoded and parsed. Files are processed in parallel. Findings are printed in the format of compiler diagnostics.
+ *
+ * <p>Usage: {@code java -cp syntax-annotation.jar:<checkers> de.atextor.syntax.annotation.processor.SyntaxScanner
+ * [options] <source file or directory>...}
+ */
+public final class SyntaxScanner {
+    private static final String USAGE = """
+        Usage: SyntaxScanner [options] <source file or directory>...
+        Validates @Syntax annotated strings in Java source files without compiling them.
+        Options:
+          --class-path <path>   Class path to load checker classes and resources from
+          --threads <n>         Number of threads (default: the number of available processors)
+          --encoding <charset>  Encoding of the source files (default: UTF-8)
+          -A<option>=<value>    Option as for the annotation processor, e.g. syntax.diagnostics.window
+          --list-checkers       List the languages and checker classes registered as CheckerProvider and exit
+        Exit status: 0 if no errors were found, 1 if errors were found, 2 on invalid usage""";
+
+    private static final String ANNOTATION_NAME = Syntax.class.getName();
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * Encodings in which each ASCII character is encoded as the same single byte, and no other character contains
+     * such a byte
+     */
+    private static final Set<Charset> ASCII_COMPATIBLE_ENCODINGS = Set.of( StandardCharsets.UTF_8,
+        StandardCharsets.US_ASCII, StandardCharsets.ISO_8859_1 );
+
+    private final Charset encoding;
+
+    private final ClassLoader classLoader;
+
+    private final CheckerRegistry checkerRegistry;
+
+    private final int diagnosticsWindow;
+
+    private final CheckerWatchdog watchdog;
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+    /**
+     * A finding in a source file
+     *
+     * @param file the source file
+     * @param line the line of the finding, or of the annotated variable if the finding can not be located
+     * @param position the position of the finding, or of the annotated variable, in the file
+     * @param severity the severity of the finding
+     * @param message the diagnostic message
+     */
+    private record Finding( Path file, long line, long position, SyntaxError.Severity severity, String message ) {
+        String diagnostic() {
+            return String.format( "%s:%d: %s: %s", file, line,
+                severity == SyntaxError.Severity.ERROR ? "error" : "warning", message );
+        }
+    }
+
+    /**
+     * The result of scanning a chunk of source files
+     *
+     * @param findings the findings
+     * @param literals the number of validated strings
+     */
+    private record ChunkResult( List<Finding> findings, int literals ) {
+    }
+
+    private SyntaxScanner( final Charset encoding, final ClassLoader classLoader,
+                           final Map<String, String> checkerOptions, final CheckerWatchdog watchdog,
+                           final int diagnosticsWindow ) {
+        this.encoding = encoding;
+        this.watchdog = watchdog;
+        this.classLoader = classLoader;
+        checkerRegistry = new CheckerRegistry( new ClassLoaderCheckerConfiguration( checkerOptions, classLoader ),
+            classLoader );
+        this.diagnosticsWindow = diagnosticsWindow;
+    }
+
+    /**
+     * Runs the scanner and exits with its exit status
+     *
+     * @param arguments the command line arguments
+     */
+    public static void main( final String[] arguments ) {
+        System.exit( run( arguments, System.out, System.err ) );
+    }
+
+    /**
+     * Runs the scanner
+     *
+     * @param arguments the command line arguments
+     * @param out the stream findings are printed to
+     * @param err the stream usage errors and the summary are printed to
+     * @return the exit status: 0 if no errors were found, 1 if errors were found, 2 on invalid usage
+     */
+    public static int run( final String[] arguments, final PrintStream out, final PrintStream err ) {
+        final List<Path> sources = new ArrayList<>();
+        final List<URL> classPath = new ArrayList<>();
+        final Map<String, String> checkerOptions = new HashMap<>();
+        int threads = Runtime.getRuntime().availableProcessors();
+        Charset encoding = StandardCharsets.UTF_8;
+        boolean listCheckers = false;
+        final CheckerWatchdog watchdog;
+        final int diagnosticsWindow;
+        try {
+            for ( int index = 0; index < arguments.length; index++ ) {
+                final String argument = arguments[index];
+                if ( argument.equals( "--class-path" ) || argument.equals( "-cp" ) ) {
+                    for ( final String entry : value( arguments, ++index ).split( File.pathSeparator ) ) {
+                        classPath.add( Path.of( entry ).toUri().toURL() );
+                    }
+                } else if ( argument.equals( "--threads" ) ) {
+                    threads = Integer.parseInt( value( arguments, ++index ) );
+                } else if ( argument.equals( "--encoding" ) ) {
+                    encoding = Charset.forName( value( arguments, ++index ) );
+                } else if ( argument.equals( "--list-checkers" ) ) {
+                    listCheckers = true;
+                } else if ( argument.startsWith( "-A" ) ) {
+                    final String[] option = argument.substring( 2 ).split( "=", 2 );
+                    checkerOptions.put( option[0], option.length > 1 ? option[1] : "" );
+                } else if ( argument.startsWith( "-" ) ) {
+                    throw new IllegalArgumentException( "Unknown option " + argument );
+                } else {
+                    sources.add( Path.of( argument ) );
+                }
+            }
+            if ( ( sources.isEmpty() && !listCheckers ) || threads < 1 ) {
+                throw new IllegalArgumentException( sources.isEmpty() ? "No sources given" : "Invalid thread count" );
+            }
+            watchdog = CheckerWatchdog.fromOptions( checkerOptions );
+            diagnosticsWindow = diagnosticsWindow( checkerOptions );
+        } catch ( final IllegalArgumentException | MalformedURLException exception ) {
+            err.println( exception.getMessage() );
+            err.println( USAGE );
+            return 2;
+        }
+
+        try ( final URLClassLoader classLoader = new URLClassLoader( classPath.toArray( URL[]::new ),
+            SyntaxScanner.class.getClassLoader() ) ) {
+            final SyntaxScanner scanner = new SyntaxScanner( encoding, classLoader, checkerOptions, watchdog,
+                diagnosticsWindow );
+            if ( listCheckers ) {
+                scanner.checkerRegistry.providers().stream()
+                    .sorted( Comparator.comparing( CheckerProvider::language ) )
+                    .forEach( provider -> out.println( provider.language() + "\t" + provider.checkerClassName() ) );
+                return 0;
+            }
+            final List<Path> files = sourceFiles( sources );
+            final List<ChunkResult> results = scanner.scan( files, threads );
+            final List<Finding> findings = results.stream()
+                .flatMap( result -> result.findings().stream() )
+                .sorted( Comparator.comparing( Finding::file ).thenComparingLong( Finding::position ) )
+                .toList();
+            findings.forEach( finding -> out.println( finding.diagnostic() ) );
+            final long errors = findings.stream()
+                .filter( finding -> finding.severity() == SyntaxError.Severity.ERROR )
+                .count();
+            err.printf( "Validated %d strings in %d files: %d errors, %d warnings%n",
+                results.stream().mapToInt( ChunkResult::literals ).sum(), files.size(), errors,
+                findings.size() - errors );
+            return errors > 0 ? 1 : 0;
+        } catch ( final IOException | UncheckedIOException exception ) {
+            err.println( "Could not read sources: " + exception.getMessage() );
+            return 2;
+        }
+    }
+
+    private static String value( final String[] arguments, final int index ) {
+        if ( index >= arguments.length ) {
+            throw new IllegalArgumentException( "Missing value of option " + arguments[index - 1] );
+        }
+        return arguments[index];
+    }
+
+    private static int diagnosticsWindow( final Map<String, String> checkerOptions ) {
+        final String window = checkerOptions.get( SyntaxProcessor.DIAGNOSTICS_WINDOW_OPTION );
+        if ( window == null ) {
+            return 2;
+        }
+        try {
+            return Integer.parseInt( window.trim() );
+        } catch ( final NumberFormatException exception ) {
+            throw new IllegalArgumentException( "Invalid value of " + SyntaxProcessor.DIAGNOSTICS_WINDOW_OPTION
+                + ": expected a number" );
+        }
+    }
+
+    private static List<Path> sourceFiles( final List<Path> sources ) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        for ( final Path source : sources ) {
+            if ( Files.isDirectory( source ) ) {
+                try ( final Stream<Path> tree = Files.walk( source ) ) {
+                    tree.filter( path -> path.toString().endsWith( ".java" ) && Files.isRegularFile( path ) )
+                        .forEach( files::add );
+                }
+            } else {
+                files.add( source );
+            }
+        }
+        return files.stream().sorted().distinct().toList();
+    }
+
+    /**
+     * Scans the files in chunks on a thread pool. Each chunk is parsed by its own compiler task.
+     */
+    private List<ChunkResult> scan( final List<Path> files, final int threads ) throws IOException {
+        final int chunkCount = Math.max( 1, Math.min( files.size(), threads * CHUNKS_PER_THREAD ) );
+        final List<Future<ChunkResult>> futures = new ArrayList<>();
+        try ( final ExecutorService executor = Executors.newFixedThreadPool( threads ) ) {
+            for ( int chunk = 0; chunk < chunkCount; chunk++ ) {
+                final List<Path> chunkFiles =
+                    files.subList( chunk * files.size() / chunkCount, ( chunk + 1 ) * files.size() / chunkCount );
+                futures.add( executor.submit( () -> scanChunk( chunkFiles ) ) );
+            }
+            final List<ChunkResult> results = new ArrayList<>();
+            for ( final Future<ChunkResult> future : futures ) {
+                results.add( future.get() );
+            }
+            return results;
+        } catch ( final InterruptedException exception ) {
+            Thread.currentThread().interrupt();
+            throw new IOException( exception );
+        } catch ( final ExecutionException exception ) {
+            if ( exception.getCause() instanceof final IOException ioException ) {
+                throw ioException;
+            }
+            if ( exception.getCause() instanceof final RuntimeException runtimeException ) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException( exception.getCause() );
+        }
+    }
+
+    private ChunkResult scanChunk( final List<Path> files ) throws IOException {
+        final List<JavaFileObject> candidates = new ArrayList<>();
+        for ( final Path file : files ) {
+            readIfAnnotated( file ).ifPresent( candidates::add );
+        }
+        if ( candidates.isEmpty() ) {
+            return new ChunkResult( List.of(), 0 );
+        }
+        final JavacTask task = (JavacTask) compiler.getTask( null, null, diagnostic -> {
+        }, List.of( "-proc:none" ), null, candidates );
+        final Trees trees = Trees.instance( task );
+        final ConstantExpressionEvaluator constantExpressionEvaluator = new ConstantExpressionEvaluator( trees );
+        final VariableScanner scanner = new VariableScanner( trees.getSourcePositions(), constantExpressionEvaluator,
+            new LiteralLocator( trees, constantExpressionEvaluator ) );
+        for ( final CompilationUnitTree compilationUnit : task.parse() ) {
+            scanner.scan( compilationUnit, compilationUnit );
+        }
+        return new ChunkResult( scanner.findings, scanner.literals );
+    }
+
+    /**
+     * Reads a source file through a memory mapping if it mentions the annotation. In an ASCII compatible encoding,
+     * the mapped bytes are scanned without decoding them, so that files without the annotation are not copied to
+     * the heap.
+     */
+    private Optional<JavaFileObject> readIfAnnotated( final Path file ) throws IOException {
+        final String annotationName = Syntax.class.getSimpleName();
+        try ( final FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+            final MappedByteBuffer bytes = channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+            final boolean asciiCompatible = ASCII_COMPATIBLE_ENCODINGS.contains( encoding );
+            if ( asciiCompatible && !SyntaxAnnotationIndex.containsAnnotation( new ByteCharSequence( bytes ),
+                annotationName ) ) {
+                return Optional.empty();
+            }
+            final CharBuffer content = encoding.decode( bytes );
+            if ( !asciiCompatible && !SyntaxAnnotationIndex.containsAnnotation( content, annotationName ) ) {
+                return Optional.empty();
+            }
+            return Optional.of( new MappedSourceFile( file, content ) );
+        }
+    }
+
+    /**
+     * Presents each byte as the character with the same code, which matches the decoded text in all ASCII
+     * characters; the bytes of other characters do not form valid Java whitespace or the annotation name
+     *
+     * @param bytes the bytes
+     */
+    private record ByteCharSequence( ByteBuffer bytes ) implements CharSequence {
+        @Override
+        public int length() {
+            return bytes.limit();
+        }
+
+        @Override
+        public char charAt( final int index ) {
+            return (char) ( bytes.get( index ) & 0xff );
+        }
+
+        @Override
+        public CharSequence subSequence( final int start, final int end ) {
+            return new ByteCharSequence( bytes.slice( start, end - start ) );
+        }
+
+        @Override
+        public String toString() {
+            return StandardCharsets.ISO_8859_1.decode( bytes.duplicate() ).toString();
+        }
+    }
+
+    /**
+     * A source file whose content was read ahead
+     */
+    private static final class MappedSourceFile extends SimpleJavaFileObject {
+        private final CharBuffer content;
+
+        private MappedSourceFile( final Path path, final CharBuffer content ) {
+            super( path.toUri(), Kind.SOURCE );
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent( final boolean ignoreEncodingErrors ) {
+            return content.duplicate();
+        }
+    }
+
+    /**
+     * Finds string variables annotated with {@link Syntax} in the parsed, unattributed trees and validates their
+     * initializers
+     */
+    private class VariableScanner extends TreePathScanner<Void, CompilationUnitTree> {
+        private final SourcePositions sourcePositions;
+
+        private final ConstantExpressionEvaluator constantExpressionEvaluator;
+
+        private final LiteralLocator literalLocator;
+
+        private final List<Finding> findings = new ArrayList<>();
+
+        private int literals;
+
+        private VariableScanner( final SourcePositions sourcePositions,
+                                 final ConstantExpressionEvaluator constantExpressionEvaluator,
+                                 final LiteralLocator literalLocator ) {
+            this.sourcePositions = sourcePositions;
+            this.constantExpressionEvaluator = constantExpressionEvaluator;
+            this.literalLocator = literalLocator;
+        }
+
+        @Override
+        public Void visitVariable( final VariableTree node, final CompilationUnitTree compilationUnit ) {
+            final List<Class<?>> checkerClasses = node.getModifiers().getAnnotations().stream()
+                .map( annotation -> checkerClass( annotation, compilationUnit ) )
+                .flatMap( Optional::stream )
+                .toList();
+            if ( !checkerClasses.isEmpty() ) {
+                constantExpressionEvaluator.evaluateInitializer( getCurrentPath() ).ifPresent( value -> {
+                    final long position = sourcePositions.getStartPosition( compilationUnit, node );
+                    for ( final Class<?> checkerClass : checkerClasses ) {
+                        validate( new Validation( checkerClass, value, node,
+                            new TreePath( getCurrentPath(), node.getInitializer() ), Optional.empty(), compilationUnit,
+                            position ) );
+                    }
+                } );
+            }
+            return super.visitVariable( node, compilationUnit );
+        }
+
+        private void validate( final Validation validation ) {
+            literals++;
+            check( validation ).ifPresent( finding -> {
+                final LineMap lineMap = validation.compilationUnit().getLineMap();
+                final Optional<LiteralLocator.SourceLocation> location = literalLocator.locate( validation, finding );
+                final long position = location.map( LiteralLocator.SourceLocation::position )
+                    .orElse( validation.position() );
+                final String message = validation.diagnosticMessage( finding, diagnosticsWindow )
+                    + location.map( sourceLocation -> String.format( "%nat column %d", sourceLocation.column() ) )
+                    .orElse( "" );
+                findings.add( new Finding( Path.of( validation.compilationUnit().getSourceFile().toUri() ),
+                    lineMap.getLineNumber( position ), position, finding.severity(), message ) );
+            } );
+        }
+
+        /**
+         * Calls the checker of a validation through the watchdog, as the annotation processor does
+         */
+        private Optional<SyntaxError> check( final Validation validation ) {
+            final Optional<SyntaxError> exceededMaxLength =
+                watchdog.exceedsMaxLength( validation.checkerClass(), validation.literal() );
+            if ( exceededMaxLength.isPresent() ) {
+                return exceededMaxLength;
+            }
+            final Function<String, Optional<String>> checker;
+            try {
+                checker = checkerRegistry.checkerFor( validation.checkerClass() );
+            } catch ( final ReflectiveOperationException | RuntimeException exception ) {
+                return Optional.of( watchdog.notInstantiated( validation.checkerClass(), exception ).finding() );
+            }
+            try {
+                return watchdog.call( validation.checkerClass(), 1,
+                    () -> ValidationEngine.check( checker, validation.literal() ) );
+            } catch ( final CheckerWatchdog.CheckerFailure failure ) {
+                return Optional.of( failure.finding() );
+            }
+        }
+
+        /**
+         * Returns the checker class of a {@code @Syntax(Checker.class)} annotation, resolving names using the
+         * imports of the compilation unit
+         */
+        private Optional<Class<?>> checkerClass( final AnnotationTree annotation,
+                                                 final CompilationUnitTree compilationUnit ) {
+            if ( annotation.getArguments().size() != 1
+                || resolve( annotation.getAnnotationType().toString(), compilationUnit )
+                .filter( type -> type.getName().equals( ANNOTATION_NAME ) ).isEmpty() ) {
+                return Optional.empty();
+            }
+            ExpressionTree argument = annotation.getArguments().getFirst();
+            if ( argument instanceof final AssignmentTree assignment ) {
+                argument = assignment.getExpression();
+            }
+            if ( !( argument instanceof final MemberSelectTree classLiteral )
+                || !classLiteral.getIdentifier().contentEquals( "class" ) ) {
+                return Optional.empty();
+            }
+            return resolve( classLiteral.getExpression().toString(), compilationUnit );
+        }
+
+        /**
+         * Resolves a possibly qualified type name as written in a compilation unit: against the single-type
+         * imports, the package of the compilation unit, the on-demand imports, java.lang, and as fully qualified
+         * name
+         */
+        private Optional<Class<?>> resolve( final String name, final CompilationUnitTree compilationUnit ) {
+            final int firstDot = name.indexOf( '.' );
+            final String firstSegment = firstDot < 0 ? name : name.substring( 0, firstDot );
+            final String rest = firstDot < 0 ? "" : name.substring( firstDot );
+            final List<String> candidates = new ArrayList<>();
+            final List<String> onDemandImports = new ArrayList<>();
+            for ( final ImportTree importTree : compilationUnit.getImports() ) {
+                if ( importTree.isStatic() ) {
+                    continue;
+                }
+                final String imported = importTree.getQualifiedIdentifier().toString();
+                if ( imported.endsWith( ".*" ) ) {
+                    onDemandImports.add( imported.substring( 0, imported.length() - 1 ) + name );
+                } else if ( imported.endsWith( "." + firstSegment ) ) {
+                    candidates.add( imported + rest );
+                }
+            }
+            if ( compilationUnit.getPackageName() != null ) {
+                candidates.add( compilationUnit.getPackageName() + "." + name );
+            } else {
+                candidates.add( name );
+            }
+            candidates.addAll( onDemandImports );
+            candidates.add( "java.lang." + name );
+            candidates.add( name );
+            for ( final String candidate : candidates ) {
+                final Optional<Class<?>> type = loadClass( candidate );
+                if ( type.isPresent() ) {
+                    return type;
+                }
+            }
+            return Optional.empty();
+        }
+
+        /**
+         * Loads a class by its canonical name, trying the possible binary names of nested classes
+         */
+        private Optional<Class<?>> loadClass( final String canonicalName ) {
+            String binaryName = canonicalName;
+            while ( true ) {
+                try {
+                    return Optional.of( Class.forName( binaryName, false, classLoader ) );
+                } catch ( final ClassNotFoundException | LinkageError exception ) {
+                    final int lastDot = binaryName.lastIndexOf( '.' );
+                    if ( lastDot < 0 ) {
+                        return Optional.empty();
+                    }
+                    binaryName = binaryName.substring( 0, lastDot ) + "$" + binaryName.substring( lastDot + 1 );
+                }
+            }
+        }
+    }
+
+    /**
+     * The configuration passed to configurable checkers: the options given on the command line, and resources
+     * looked up using the class loader of the checker class path
+     */
+    private record ClassLoaderCheckerConfiguration( Map<String, String> options, ClassLoader classLoader )
+        implements CheckerConfiguration {
+        @Override
+        public Optional<String> option( final String name ) {
+            return Optional.ofNullable( options.get( name ) );
+        }
+
+        @Override
+        public Optional<URI> resource( final String path ) {
+            final URL resource = classLoader.getResource( path.startsWith( "/" ) ? path.substring( 1 ) : path );
+            try {
+                return resource == null ? Optional.empty() : Optional.of( resource.toURI() );
+            } catch ( final URISyntaxException exception ) {
+                return Optional.empty();
+            }
+        }
+    }
+}
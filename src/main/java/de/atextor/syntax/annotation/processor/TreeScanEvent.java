@@ -0,0 +1,46 @@
+package de.atextor.syntax.annotation.processor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.lang.model.element.TypeElement;
+
+/**
+ * JFR event for the scan of the syntax tree of one type for annotated variables
+ */
+@Name( "de.atextor.syntax.TreeScan" )
+@Label( "Syntax Tree Scan" )
+@Category( { "Java Compiler", "Syntax Annotation" } )
+@Description( "Scan of the syntax tree of a type by the SyntaxProcessor" )
+class TreeScanEvent extends Event {
+    private static final EventType EVENT_TYPE = EventType.getEventType( TreeScanEvent.class );
+
+    @Label( "Type" )
+    String type;
+
+    /**
+     * Determines whether the event is enabled in a running recording, so that no event needs to be created
+     * otherwise
+     *
+     * @return true if the event is recorded
+     */
+    static boolean isRecording() {
+        return EVENT_TYPE.isEnabled();
+    }
+
+    /**
+     * Ends and commits the event if it is enabled
+     *
+     * @param scannedType the scanned type
+     */
+    void commit( final TypeElement scannedType ) {
+        if ( shouldCommit() ) {
+            type = scannedType.getQualifiedName().toString();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package de.atextor.syntax.annotation.processor;
+
+import com.sun.source.util.TreePath;
+import com.sun.source.util.Trees;
+import de.atextor.syntax.Turtle;
+import de.atextor.syntax.annotation.Syntax;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.system.ErrorHandlerFactory;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.apache.jena.sys.JenaSystem;
+
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.Messager;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Writes the RDF of the fields annotated with {@code @Syntax(Turtle.class)} as binary
+ * <a href="https://jena.apache.org/documentation/io/rdf-binary.html">RDF Thrift</a> resources to the class output,
+ * so that it can be loaded at runtime without parsing Turtle. For each type declaring such fields, an accessor class
+ * named after the type with the suffix {@code Rdf} is generated in the same package, e.g. {@code VocabularyRdf} for
+ * {@code Vocabulary}. It has two methods per field, named after the field: one that loads the triples into a new
+ * graph, and one that streams them to a {@code StreamRDF}. The resources are named after the type and the field, e.g.
+ * {@code Vocabulary.shapes.rt}, and are located next to the accessor class.
+ *
+ * <p>This class requires Jena at compile time, the generated accessors also at runtime.
+ */
+class TurtleResourceGenerator {
+    private static final String ACCESSOR_SUFFIX = "Rdf";
+
+    private static final String RESOURCE_EXTENSION = ".rt";
+
+    private final Filer filer;
+
+    private final Messager messager;
+
+    private final Elements elements;
+
+    private final Trees trees;
+
+    private final ConstantExpressionEvaluator constantExpressionEvaluator;
+
+    /**
+     * A field whose RDF was written to a resource
+     *
+     * @param field the annotated field
+     * @param resourceName the name of the resource, relative to the package
+     */
+    private record RdfResource( Element field, String resourceName ) {
+    }
+
+    /**
+     * Creates a generator
+     *
+     * @param filer the filer the resources and accessor classes are written to
+     * @param messager the messager used to report problems
+     * @param elements the elements utility of the current compilation
+     * @param trees the trees utility of the current compilation
+     */
+    TurtleResourceGenerator( final Filer filer, final Messager messager, final Elements elements, final Trees trees ) {
+        this.filer = filer;
+        this.messager = messager;
+        this.elements = elements;
+        this.trees = trees;
+        constantExpressionEvaluator = new ConstantExpressionEvaluator( trees );
+        JenaSystem.init();
+    }
+
+    /**
+     * Generates the resources and accessor classes for the annotated fields of one processing round
+     *
+     * @param annotatedElements the elements annotated with {@link Syntax}
+     */
+    void generate( final Set<? extends Element> annotatedElements ) {
+        HolderClasses.annotatedFieldsByType( annotatedElements, Turtle.class.getName() ).forEach( ( type, fields ) -> {
+            final List<RdfResource> resources = fields.stream()
+                .map( field -> writeResource( type, field ) )
+                .flatMap( Optional::stream )
+                .toList();
+            if ( !resources.isEmpty() ) {
+                writeAccessor( type, resources );
+            }
+        } );
+    }
+
+    private Optional<RdfResource> writeResource( final TypeElement type, final Element field ) {
+        final TreePath path = trees.getPath( field );
+        if ( path == null ) {
+            return Optional.empty();
+        }
+        final Optional<String> turtle = constantExpressionEvaluator.evaluateInitializer( path );
+        if ( turtle.isEmpty() ) {
+            return Optional.empty();
+        }
+        final byte[] rdfThrift;
+        try {
+            rdfThrift = toRdfThrift( turtle.get() );
+        } catch ( final RiotException exception ) {
+            // Reported by the syntax validation
+            return Optional.empty();
+        }
+        final PackageElement packageElement = elements.getPackageOf( type );
+        final String resourceName = HolderClasses.holderName( type, "" ) + "." + field.getSimpleName()
+            + RESOURCE_EXTENSION;
+        try {
+            final FileObject resource = filer.createResource( StandardLocation.CLASS_OUTPUT,
+                packageElement.isUnnamed() ? "" : packageElement.getQualifiedName(), resourceName, type );
+            try ( final OutputStream output = resource.openOutputStream() ) {
+                output.write( rdfThrift );
+            }
+            return Optional.of( new RdfResource( field, resourceName ) );
+        } catch ( final IOException exception ) {
+            messager.printMessage( Diagnostic.Kind.ERROR, "Could not write RDF resource " + resourceName + ": "
+                + exception.getMessage(), field );
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Parses Turtle and streams the triples into the binary RDF Thrift format, without building a graph
+     *
+     * @param turtle the Turtle document
+     * @return the RDF Thrift encoding of the document
+     */
+    static byte[] toRdfThrift( final String turtle ) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream( turtle.length() );
+        RDFParser.create()
+            .fromString( turtle )
+            .lang( Lang.TURTLE )
+            .errorHandler( ErrorHandlerFactory.errorHandlerNoLogging )
+            .parse( StreamRDFWriter.getWriterStream( output, RDFFormat.RDF_THRIFT ) );
+        return output.toByteArray();
+    }
+
+    private void writeAccessor( final TypeElement type, final List<RdfResource> resources ) {
+        final PackageElement packageElement = elements.getPackageOf( type );
+        final String accessorName = HolderClasses.holderName( type, ACCESSOR_SUFFIX );
+        final String qualifiedAccessorName = HolderClasses.qualifiedName( packageElement, accessorName );
+        final String modifier = HolderClasses.isPublic( type ) ? "public " : "";
+        try ( final Writer writer = filer.createSourceFile( qualifiedAccessorName, type ).openWriter() ) {
+            writer.write( HolderClasses.packageDeclaration( packageElement ) );
+            writer.write( """
+                import org.apache.jena.graph.Graph;
+                import org.apache.jena.graph.GraphMemFactory;
+                import org.apache.jena.riot.Lang;
+                import org.apache.jena.riot.RDFParser;
+                import org.apache.jena.riot.system.StreamRDF;
+                import org.apache.jena.riot.system.StreamRDFLib;
+
+                import java.io.IOException;
+                import java.io.InputStream;
+                import java.io.UncheckedIOException;
+
+                """ );
+            writer.write( "/**\n * Loads the RDF of the Turtle strings in {@code " + type.getQualifiedName()
+                + "} from binary resources that were written at compile time\n */\n" );
+            writer.write( HolderClasses.generatedAnnotation( elements, type ) );
+            writer.write( modifier + "final class " + accessorName + " {\n" );
+            for ( final RdfResource resource : resources ) {
+                final String name = resource.field().getSimpleName().toString();
+                final String fieldReference = type.getSimpleName() + "." + name;
+                writer.write( "    /**\n     * Loads the triples of {@code " + fieldReference + "} into a new graph\n"
+                    + "     *\n     * @return the graph\n     */\n" );
+                writer.write( "    " + modifier + "static Graph " + name + "() {\n"
+                    + "        final Graph graph = GraphMemFactory.createDefaultGraph();\n"
+                    + "        " + name + "( StreamRDFLib.graph( graph ) );\n"
+                    + "        return graph;\n    }\n\n" );
+                writer.write( "    /**\n     * Streams the triples of {@code " + fieldReference + "} to a destination\n"
+                    + "     *\n     * @param destination the destination\n     */\n" );
+                writer.write( "    " + modifier + "static void " + name + "( final StreamRDF destination ) {\n"
+                    + "        load( " + HolderClasses.javaStringLiteral( resource.resourceName() )
+                    + ", destination );\n    }\n\n" );
+            }
+            writer.write( "    private static void load( final String resourceName, final StreamRDF destination ) {\n"
+                + "        try ( final InputStream input = " + accessorName
+                + ".class.getResourceAsStream( resourceName ) ) {\n"
+                + "            if ( input == null ) {\n"
+                + "                throw new IllegalStateException( \"Missing RDF resource \" + resourceName );\n"
+                + "            }\n"
+                + "            RDFParser.source( input ).lang( Lang.RDFTHRIFT ).parse( destination );\n"
+                + "        } catch ( final IOException exception ) {\n"
+                + "            throw new UncheckedIOException( exception );\n"
+                + "        }\n    }\n\n" );
+            writer.write( "    private " + accessorName + "() {\n    }\n}\n" );
+        } catch ( final FilerException exception ) {
+            // The accessor was already generated in this compilation
+            messager.printMessage( Diagnostic.Kind.WARNING, "Could not generate " + qualifiedAccessorName + ": "
+                + exception.getMessage(), type );
+        } catch ( final IOException exception ) {
+            messager.printMessage( Diagnostic.Kind.ERROR, "Could not generate " + qualifiedAccessorName + ": "
+                + exception.getMessage(), type );
+        }
+    }
+}
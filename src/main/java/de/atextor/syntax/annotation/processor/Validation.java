@@ -0,0 +1,117 @@
+package de.atextor.syntax.annotation.processor;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.util.TreePath;
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.util.Optional;
+
+/**
+ * A string literal or the content of a resource file that is to be validated by a checker, together with the
+ * location a failed validation is reported at and the expression the literal was computed from
+ *
+ * @param checkerClass the checker class
+ * @param literal the literal or resource content to validate
+ * @param location the tree a failed validation is reported at
+ * @param expression the path of the string expression as written in the source. It is kept separately from the
+ * location because javac replaces constant expressions by their values when the trees are lowered, which may happen
+ * before the validation is reported. For resources, this is the path of the resource attribute of the annotation.
+ * @param resource the path of the validated resource, or empty if a string expression is validated
+ * @param compilationUnit the compilation unit containing the location
+ * @param position the start position of the location in the compilation unit, used to order diagnostics
+ */
+record Validation( Class<?> checkerClass, String literal, Tree location, TreePath expression,
+                   Optional<String> resource, CompilationUnitTree compilationUnit, long position ) {
+    /**
+     * The maximum number of characters of a line of the literal shown in a diagnostic message
+     */
+    static final int MAX_EXCERPT_LINE_LENGTH = 160;
+
+    /**
+     * Builds the diagnostic message for a finding of this validation: the name of the checker, an excerpt of the
+     * literal with line numbers around the line of the finding, and the formatted finding
+     *
+     * @param finding the error or warning reported by the checker
+     * @param contextLines the number of lines shown before and after the line of the finding, or a negative number
+     * to show all lines; if the finding has no line, the first lines of the literal are shown
+     * @return the message
+     */
+    String diagnosticMessage( final SyntaxError finding, final int contextLines ) {
+        return String.format( "%s syntax validation %s%s:%n%s%n%s", checkerClass.getSimpleName(),
+            finding.severity() == SyntaxError.Severity.ERROR ? "failed" : "warning",
+            resource.map( path -> " in resource " + path ).orElse( "" ),
+            excerpt( literal, finding, contextLines ), finding.formatted() );
+    }
+
+    /**
+     * Extracts the lines around the line of a finding from a (possibly multi line) string and prefixes them with
+     * their line numbers, so parser/validating errors referring to line numbers can be understood more easily.
+     * Omitted lines are indicated by "...", and the column of the finding is marked by a caret below its line.
+     * Lines longer than {@link #MAX_EXCERPT_LINE_LENGTH} are shortened around the column of the finding. Only the
+     * lines in the window are formatted, so that the effort does not depend on the length of the string.
+     *
+     * @param string the input string
+     * @param finding the finding
+     * @param contextLines the number of lines shown before and after the line of the finding, or a negative number
+     * to show all lines
+     * @return the excerpt, each line terminated by a line break
+     */
+    static String excerpt( final String string, final SyntaxError finding, final int contextLines ) {
+        final long findingLine = finding.line() > 0 ? finding.line() : -1;
+        final long firstLine = findingLine > 0 && contextLines >= 0 ? Math.max( 1, findingLine - contextLines ) : 1;
+        final long lastLine = contextLines < 0
+            ? Long.MAX_VALUE
+            : findingLine > 0 ? findingLine + contextLines : 2L * contextLines + 1;
+        final StringBuilder excerpt = new StringBuilder();
+        if ( firstLine > 1 ) {
+            excerpt.append( "     ...\n" );
+        }
+        long line = 1;
+        int lineStart = 0;
+        while ( lineStart <= string.length() ) {
+            int lineEnd = lineStart;
+            while ( lineEnd < string.length() && string.charAt( lineEnd ) != '\n'
+                && string.charAt( lineEnd ) != '\r' ) {
+                lineEnd++;
+            }
+            if ( line > lastLine ) {
+                excerpt.append( "     ...\n" );
+                break;
+            }
+            if ( line >= firstLine ) {
+                appendLine( excerpt, string, lineStart, lineEnd, line,
+                    line == findingLine ? finding.column() : -1 );
+            }
+            if ( lineEnd >= string.length() ) {
+                break;
+            }
+            lineStart = lineEnd + ( string.startsWith( "\r\n", lineEnd ) ? 2 : 1 );
+            line++;
+        }
+        return excerpt.toString();
+    }
+
+    private static void appendLine( final StringBuilder excerpt, final String string, final int lineStart,
+                                    final int lineEnd, final long line, final long column ) {
+        int start = lineStart;
+        int end = lineEnd;
+        if ( end - start > MAX_EXCERPT_LINE_LENGTH ) {
+            if ( column > 0 ) {
+                final long centeredStart = lineStart + column - 1 - MAX_EXCERPT_LINE_LENGTH / 2;
+                start = (int) Math.max( lineStart, Math.min( centeredStart, lineEnd - MAX_EXCERPT_LINE_LENGTH ) );
+            }
+            end = start + MAX_EXCERPT_LINE_LENGTH;
+        }
+        final String prefix = String.format( "%3d: %s", line, start > lineStart ? "..." : "" );
+        excerpt.append( prefix ).append( string, start, end ).append( end < lineEnd ? "...\n" : "\n" );
+        if ( column > 0 && lineStart + column - 1 >= start && lineStart + column - 1 <= end ) {
+            excerpt.append( " ".repeat( prefix.length() ) );
+            for ( int index = start; index < lineStart + column - 1; index++ ) {
+                // Keep tabs, so that the caret is aligned with the column however tabs are displayed
+                excerpt.append( string.charAt( index ) == '\t' ? '\t' : ' ' );
+            }
+            excerpt.append( "^\n" );
+        }
+    }
+}
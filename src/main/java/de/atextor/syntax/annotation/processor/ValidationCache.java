@@ -0,0 +1,338 @@
+package de.atextor.syntax.annotation.processor;
+
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persistent, content-addressed cache of validation outcomes. The key of an entry is the SHA-256 hash of the code of
+ * the checker (its class file, the class files of its superclasses and the jar it is loaded from), the fingerprint of
+ * its configuration and the string literal, the value is the outcome of calling the checker on the literal, including
+ * the location and severity of a reported finding. Each entry is stored in its own file, which is written to a
+ * temporary file first and then atomically moved to its final location, so that concurrent compiler processes sharing
+ * the same cache directory never see partially written entries. The number of entries is bounded: When new entries were
+ * added during a compilation, the least recently used entries are deleted at the end of the compilation until the bound
+ * is met again.
+ */
+class ValidationCache {
+    private static final byte VALID = 'V';
+
+    private static final byte ERROR = 'E';
+
+    private static final byte WARNING = 'W';
+
+    /**
+     * Version of the format of the entries, which is part of the key, so that entries of older versions are
+     * never read
+     */
+    private static final byte FORMAT_VERSION = 3;
+
+    /**
+     * Size of the header of an error or warning entry: the marker byte, the line and the column
+     */
+    private static final int FINDING_HEADER_SIZE = 1 + 2 * Long.BYTES;
+
+    private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+
+    /**
+     * Temporary files older than this are considered to be left behind by crashed compiler processes
+     */
+    private static final Duration STALE_TEMPORARY_FILE_AGE = Duration.ofHours( 1 );
+
+    private final Path directory;
+
+    private final int maxEntries;
+
+    private final Map<Class<?>, Optional<byte[]>> checkerHashes = new ConcurrentHashMap<>();
+
+    private final Map<Path, byte[]> jarHashes = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean entriesAdded = new AtomicBoolean();
+
+    /**
+     * The outcome of a validation
+     *
+     * @param finding the error or warning reported by the checker, or empty if the literal is valid
+     */
+    record Outcome( Optional<SyntaxError> finding ) {
+    }
+
+    /**
+     * Creates a validation cache
+     *
+     * @param directory the directory the cache entries are stored in; it is created if necessary
+     * @param maxEntries the maximum number of entries to keep
+     */
+    ValidationCache( final Path directory, final int maxEntries ) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Computes the cache key for the validation of a literal by a given checker class
+     *
+     * @param checkerClass the checker class
+     * @param configuration the fingerprint of the configuration of the checker, see
+     * {@link de.atextor.syntax.annotation.ConfigurableChecker#configurationFingerprint()}; empty for checkers that
+     * are not configurable
+     * @param literal the literal
+     * @return the key, or empty if the class files of the checker can not be read and the outcome can therefore
+     * not be cached
+     */
+    Optional<String> key( final Class<?> checkerClass, final String configuration, final String literal ) {
+        return checkerHashes.computeIfAbsent( checkerClass, this::checkerHash ).map( checkerHash -> {
+            final MessageDigest digest = sha256();
+            digest.update( FORMAT_VERSION );
+            digest.update( checkerHash );
+            // The length separates the configuration from the literal
+            digest.update( ByteBuffer.allocate( Integer.BYTES ).putInt( configuration.length() ).array() );
+            update( digest, configuration );
+            update( digest, literal );
+            return HexFormat.of().formatHex( digest.digest() );
+        } );
+    }
+
+    /**
+     * Looks up the outcome for a key
+     *
+     * @param key the key as computed by {@link #key(Class, String, String)}
+     * @return the cached outcome, or empty on a cache miss
+     */
+    Optional<Outcome> lookup( final String key ) {
+        final Path entry = entryPath( key );
+        try {
+            final byte[] content = Files.readAllBytes( entry );
+            if ( content.length == 1 && content[0] == VALID ) {
+                touch( entry );
+                return Optional.of( new Outcome( Optional.empty() ) );
+            }
+            if ( content.length < FINDING_HEADER_SIZE || ( content[0] != ERROR && content[0] != WARNING ) ) {
+                return Optional.empty();
+            }
+            touch( entry );
+            final ByteBuffer header = ByteBuffer.wrap( content, 1, 2 * Long.BYTES );
+            final String message = new String( content, FINDING_HEADER_SIZE, content.length - FINDING_HEADER_SIZE,
+                StandardCharsets.UTF_8 );
+            final SyntaxError.Severity severity =
+                content[0] == ERROR ? SyntaxError.Severity.ERROR : SyntaxError.Severity.WARNING;
+            return Optional.of( new Outcome(
+                Optional.of( new SyntaxError( message, header.getLong(), header.getLong(), severity ) ) ) );
+        } catch ( final IOException exception ) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the outcome for a key. Failures to write the entry are ignored, as the cache is only an optimization.
+     *
+     * @param key the key as computed by {@link #key(Class, String, String)}
+     * @param outcome the outcome to store
+     */
+    void store( final String key, final Outcome outcome ) {
+        final Path entry = entryPath( key );
+        final byte[] content = outcome.finding().map( finding -> {
+            final byte[] message = finding.message().getBytes( StandardCharsets.UTF_8 );
+            return ByteBuffer.allocate( FINDING_HEADER_SIZE + message.length )
+                .put( finding.severity() == SyntaxError.Severity.ERROR ? ERROR : WARNING )
+                .putLong( finding.line() )
+                .putLong( finding.column() )
+                .put( message )
+                .array();
+        } ).orElse( new byte[] { VALID } );
+        try {
+            Files.createDirectories( entry.getParent() );
+            final Path temporaryFile = Files.createTempFile( entry.getParent(), key, TEMPORARY_FILE_SUFFIX );
+            try {
+                Files.write( temporaryFile, content );
+                moveAtomically( temporaryFile, entry );
+            } finally {
+                Files.deleteIfExists( temporaryFile );
+            }
+            entriesAdded.set( true );
+        } catch ( final IOException exception ) {
+            // Another process may have removed the directory concurrently; the entry is simply not cached
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries if the number of entries exceeds the bound, as well as stale
+     * temporary files. This only happens if entries were added since the last call.
+     */
+    void evict() {
+        if ( !entriesAdded.getAndSet( false ) ) {
+            return;
+        }
+        final List<Path> entries = new ArrayList<>();
+        final Instant staleTemporaryFileLimit = Instant.now().minus( STALE_TEMPORARY_FILE_AGE );
+        try ( final DirectoryStream<Path> subDirectories = Files.newDirectoryStream( directory, Files::isDirectory ) ) {
+            for ( final Path subDirectory : subDirectories ) {
+                try ( final DirectoryStream<Path> files = Files.newDirectoryStream( subDirectory ) ) {
+                    for ( final Path file : files ) {
+                        if ( !file.getFileName().toString().endsWith( TEMPORARY_FILE_SUFFIX ) ) {
+                            entries.add( file );
+                        } else if ( lastModified( file ).toInstant().isBefore( staleTemporaryFileLimit ) ) {
+                            Files.deleteIfExists( file );
+                        }
+                    }
+                }
+            }
+        } catch ( final IOException exception ) {
+            return;
+        }
+        if ( entries.size() <= maxEntries ) {
+            return;
+        }
+        final Map<Path, FileTime> lastModifiedTimes = new HashMap<>();
+        entries.forEach( entry -> lastModifiedTimes.put( entry, lastModified( entry ) ) );
+        entries.sort( Comparator.comparing( lastModifiedTimes::get ) );
+        for ( final Path entry : entries.subList( 0, entries.size() - maxEntries ) ) {
+            try {
+                Files.deleteIfExists( entry );
+            } catch ( final IOException exception ) {
+                // Concurrently deleted or in use by another process; it will be retried on the next eviction
+            }
+        }
+    }
+
+    private Path entryPath( final String key ) {
+        return directory.resolve( key.substring( 0, 2 ) ).resolve( key.substring( 2 ) );
+    }
+
+    /**
+     * Hashes the code of a checker class: the class files of the class and its superclasses, and the jar the class
+     * is loaded from, if any, so that changes to nested and helper classes in the same jar are covered as well
+     *
+     * @param checkerClass the checker class
+     * @return the hash, or empty if a class file can not be read
+     */
+    private Optional<byte[]> checkerHash( final Class<?> checkerClass ) {
+        final MessageDigest digest = sha256();
+        for ( Class<?> type = checkerClass; type != null && type != Object.class; type = type.getSuperclass() ) {
+            final String className = type.getName();
+            final String classFileName = className.substring( className.lastIndexOf( '.' ) + 1 ) + ".class";
+            try ( final InputStream classFile = type.getResourceAsStream( classFileName ) ) {
+                if ( classFile == null ) {
+                    return Optional.empty();
+                }
+                digest.update( className.getBytes( StandardCharsets.UTF_8 ) );
+                digest.update( classFile.readAllBytes() );
+            } catch ( final IOException exception ) {
+                return Optional.empty();
+            }
+        }
+        codeSourceJar( checkerClass ).ifPresent( jar -> digest.update(
+            jarHashes.computeIfAbsent( jar, ValidationCache::fileHash ) ) );
+        return Optional.of( digest.digest() );
+    }
+
+    private static Optional<Path> codeSourceJar( final Class<?> checkerClass ) {
+        try {
+            return Optional.ofNullable( checkerClass.getProtectionDomain().getCodeSource() )
+                .map( CodeSource::getLocation )
+                .filter( location -> "file".equals( location.getProtocol() ) )
+                .map( location -> Path.of( URI.create( location.toString() ) ) )
+                .filter( Files::isRegularFile );
+        } catch ( final SecurityException | IllegalArgumentException exception ) {
+            return Optional.empty();
+        }
+    }
+
+    private static byte[] fileHash( final Path file ) {
+        final MessageDigest digest = sha256();
+        final byte[] buffer = new byte[8192];
+        try ( final InputStream input = Files.newInputStream( file ) ) {
+            for ( int read = input.read( buffer ); read >= 0; read = input.read( buffer ) ) {
+                digest.update( buffer, 0, read );
+            }
+        } catch ( final IOException exception ) {
+            // The jar is unreadable, so only its path is covered
+            digest.update( file.toString().getBytes( StandardCharsets.UTF_8 ) );
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Feeds the UTF-8 encoding of a string into a digest without materializing the encoded string as a whole
+     *
+     * @param digest the digest
+     * @param string the string
+     */
+    private static void update( final MessageDigest digest, final String string ) {
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput( CodingErrorAction.REPLACE )
+            .onUnmappableCharacter( CodingErrorAction.REPLACE );
+        final CharBuffer input = CharBuffer.wrap( string );
+        final ByteBuffer output = ByteBuffer.allocate( 8192 );
+        boolean endOfInput = false;
+        while ( !endOfInput ) {
+            endOfInput = !encoder.encode( input, output, true ).isOverflow();
+            output.flip();
+            digest.update( output );
+            output.clear();
+        }
+        encoder.flush( output );
+        output.flip();
+        digest.update( output );
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance( "SHA-256" );
+        } catch ( final NoSuchAlgorithmException exception ) {
+            // Every Java platform implementation is required to support SHA-256
+            throw new IllegalStateException( exception );
+        }
+    }
+
+    private static void moveAtomically( final Path source, final Path target ) throws IOException {
+        try {
+            Files.move( source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+        } catch ( final AtomicMoveNotSupportedException exception ) {
+            Files.move( source, target, StandardCopyOption.REPLACE_EXISTING );
+        }
+    }
+
+    private static void touch( final Path entry ) {
+        try {
+            Files.setLastModifiedTime( entry, FileTime.from( Instant.now() ) );
+        } catch ( final IOException exception ) {
+            // The entry's recency is only used for eviction, so this is not critical
+        }
+    }
+
+    private static FileTime lastModified( final Path file ) {
+        try {
+            return Files.readAttributes( file, BasicFileAttributes.class ).lastModifiedTime();
+        } catch ( final IOException exception ) {
+            return FileTime.fromMillis( 0 );
+        }
+    }
+}
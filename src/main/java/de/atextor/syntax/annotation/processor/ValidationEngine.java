@@ -0,0 +1,398 @@
+package de.atextor.syntax.annotation.processor;
+
+import com.sun.source.tree.CompilationUnitTree;
+import de.atextor.syntax.annotation.BatchChecker;
+import de.atextor.syntax.annotation.ConfigurableChecker;
+import de.atextor.syntax.annotation.LocatingChecker;
+import de.atextor.syntax.annotation.ReusableChecker;
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+/**
+ * Runs the validations of a compilation. Validations for checkers implementing {@link BatchChecker} are collected
+ * and run at the end of the compilation, so that each batch checker receives all literals of the compilation in a
+ * single call. Validations for per-literal checkers run on the compiler thread when {@link #flush()} is called after
+ * each analyzed type, so that their results are reported right away. In parallel mode, validations run on a
+ * fork-join pool instead: Validations for per-literal checkers are started as soon as they are submitted, while the
+ * compiler is still analyzing the remaining types, and all results are returned at the end of the compilation, in
+ * source order (compilation units in the order they were first seen, then by position), so that diagnostics are
+ * reported deterministically regardless of the order in which the validations finished. Checkers are called through
+ * a {@link CheckerWatchdog}, so that checkers that exceed their limits, throw an exception or can not be
+ * instantiated are reported as findings; these findings are not cached. Without a pool, the validations of each
+ * flush run on a single worker thread watched by the compiler thread.
+ */
+class ValidationEngine {
+    private final Optional<ForkJoinPool> pool;
+
+    private final CheckerRegistry checkerRegistry;
+
+    private final Optional<ValidationCache> validationCache;
+
+    private final boolean sharedFindings;
+
+    private final ProcessorMetrics metrics;
+
+    private final CheckerWatchdog watchdog;
+
+    private final Map<CompilationUnitTree, Integer> compilationUnitOrder = new IdentityHashMap<>();
+
+    private final List<PendingValidation> pendingValidations = new ArrayList<>();
+
+    private final Map<Class<?>, List<PendingValidation>> deferredValidations = new LinkedHashMap<>();
+
+    private int submittedValidations;
+
+    /**
+     * The result of a validation
+     *
+     * @param validation the validation
+     * @param finding the error or warning if the checker reported one, or empty if the literal is valid
+     */
+    record Result( Validation validation, Optional<SyntaxError> finding ) {
+    }
+
+    private record PendingValidation( int compilationUnitIndex, int sequenceNumber, Validation validation,
+                                      CompletableFuture<Optional<SyntaxError>> finding ) {
+    }
+
+    /**
+     * Creates a new engine
+     *
+     * @param parallelism the number of threads used to run validations, or 0 to run them on the compiler thread
+     * @param checkerRegistry the registry providing the checker instances
+     * @param validationCache the persistent validation cache, if enabled
+     * @param sharedFindings whether the findings of shareable checkers are memoized across the compilations in this
+     * JVM, see {@link SharedCaches}
+     * @param metrics the metrics the checker calls are recorded in
+     * @param watchdog the watchdog the checkers are called through
+     */
+    ValidationEngine( final int parallelism, final CheckerRegistry checkerRegistry,
+                      final Optional<ValidationCache> validationCache, final boolean sharedFindings,
+                      final ProcessorMetrics metrics, final CheckerWatchdog watchdog ) {
+        pool = parallelism > 0 ? Optional.of( new ForkJoinPool( parallelism ) ) : Optional.empty();
+        this.checkerRegistry = checkerRegistry;
+        this.validationCache = validationCache;
+        this.sharedFindings = sharedFindings;
+        this.metrics = metrics;
+        this.watchdog = watchdog;
+    }
+
+    /**
+     * Schedules a validation. This method must only be called from the compiler thread.
+     *
+     * @param validation the validation
+     */
+    void submit( final Validation validation ) {
+        final int compilationUnitIndex = compilationUnitOrder.computeIfAbsent( validation.compilationUnit(),
+            compilationUnit -> compilationUnitOrder.size() );
+        final PendingValidation pendingValidation = new PendingValidation( compilationUnitIndex,
+            submittedValidations++, validation, new CompletableFuture<>() );
+        pendingValidations.add( pendingValidation );
+        checkerRegistry.prepare( validation.checkerClass() );
+
+        final boolean isBatch = BatchChecker.class.isAssignableFrom( validation.checkerClass() );
+        if ( pool.isPresent() && !isBatch ) {
+            pool.get().execute( () -> runSingle( pendingValidation ) );
+        } else {
+            deferredValidations.computeIfAbsent( validation.checkerClass(), checkerClass -> new ArrayList<>() )
+                .add( pendingValidation );
+        }
+    }
+
+    /**
+     * Runs the deferred validations of per-literal checkers, unless in parallel mode, and returns the results of
+     * the validations that are complete. This method must only be called from the compiler thread.
+     *
+     * @return the results of the completed validations, in source order; empty in parallel mode, in which all
+     * results are returned by {@link #awaitAll()}
+     */
+    List<Result> flush() {
+        if ( pool.isPresent() || pendingValidations.isEmpty() ) {
+            return List.of();
+        }
+        final List<CheckerWatchdog.WatchedTask> tasks = new ArrayList<>();
+        deferredValidations.entrySet().removeIf( entry -> {
+            if ( BatchChecker.class.isAssignableFrom( entry.getKey() ) ) {
+                return false;
+            }
+            entry.getValue().forEach( pendingValidation -> tasks.add( new SingleTask( pendingValidation ) ) );
+            return true;
+        } );
+        watchdog.runAll( tasks );
+        final List<PendingValidation> completedValidations = new ArrayList<>();
+        pendingValidations.removeIf( pendingValidation -> pendingValidation.finding().isDone()
+            && completedValidations.add( pendingValidation ) );
+        return results( completedValidations );
+    }
+
+    /**
+     * Runs all deferred validations, waits for all submitted validations to finish and shuts down the pool
+     *
+     * @return the results of all validations that were not returned by {@link #flush()}, in source order
+     */
+    List<Result> awaitAll() {
+        try {
+            final List<CheckerWatchdog.WatchedTask> deferredTasks = new ArrayList<>();
+            for ( final Map.Entry<Class<?>, List<PendingValidation>> entry : deferredValidations.entrySet() ) {
+                final List<CheckerWatchdog.WatchedTask> tasks = BatchChecker.class.isAssignableFrom( entry.getKey() )
+                    ? List.of( new BatchTask( entry.getKey(), entry.getValue() ) )
+                    : entry.getValue().stream().<CheckerWatchdog.WatchedTask>map( SingleTask::new ).toList();
+                if ( pool.isPresent() ) {
+                    pool.get().execute( () -> tasks.forEach( CheckerWatchdog.WatchedTask::run ) );
+                } else {
+                    deferredTasks.addAll( tasks );
+                }
+            }
+            watchdog.runAll( deferredTasks );
+            return results( pendingValidations );
+        } finally {
+            pendingValidations.clear();
+            deferredValidations.clear();
+            pool.ifPresent( ForkJoinPool::shutdown );
+        }
+    }
+
+    private static List<Result> results( final List<PendingValidation> completedValidations ) {
+        return completedValidations.stream()
+            .sorted( Comparator.comparingInt( PendingValidation::compilationUnitIndex )
+                .thenComparingLong( pendingValidation -> pendingValidation.validation().position() )
+                .thenComparingInt( PendingValidation::sequenceNumber ) )
+            .map( pendingValidation -> new Result( pendingValidation.validation(),
+                pendingValidation.finding().join() ) )
+            .toList();
+    }
+
+    /**
+     * Runs a single validation, completing it with the failure if its checker call is abandoned
+     */
+    private final class SingleTask implements CheckerWatchdog.WatchedTask {
+        private final PendingValidation pendingValidation;
+
+        private SingleTask( final PendingValidation pendingValidation ) {
+            this.pendingValidation = pendingValidation;
+        }
+
+        @Override
+        public void run() {
+            runSingle( pendingValidation );
+        }
+
+        @Override
+        public void abandon( final CheckerWatchdog.CheckerFailure failure ) {
+            pendingValidation.finding().complete( Optional.of( failure.finding() ) );
+        }
+    }
+
+    /**
+     * Runs the validations of a batch checker, completing all of them with the failure if the checker call is
+     * abandoned
+     */
+    private final class BatchTask implements CheckerWatchdog.WatchedTask {
+        private final Class<?> checkerClass;
+
+        private final List<PendingValidation> batch;
+
+        private BatchTask( final Class<?> checkerClass, final List<PendingValidation> batch ) {
+            this.checkerClass = checkerClass;
+            this.batch = batch;
+        }
+
+        @Override
+        public void run() {
+            runBatch( checkerClass, batch );
+        }
+
+        @Override
+        public void abandon( final CheckerWatchdog.CheckerFailure failure ) {
+            batch.forEach( pendingValidation ->
+                pendingValidation.finding().complete( Optional.of( failure.finding() ) ) );
+        }
+    }
+
+    private void runSingle( final PendingValidation pendingValidation ) {
+        final Validation validation = pendingValidation.validation();
+        final Optional<SyntaxError> exceededMaxLength =
+            watchdog.exceedsMaxLength( validation.checkerClass(), validation.literal() );
+        if ( exceededMaxLength.isPresent() ) {
+            pendingValidation.finding().complete( exceededMaxLength );
+            return;
+        }
+        final long lookupStartTime = metrics.startTime();
+        final Optional<String> cacheKey = cacheKey( validation );
+        final Optional<Optional<SyntaxError>> cachedFinding = lookup( validation, cacheKey );
+        if ( cachedFinding.isPresent() ) {
+            metrics.recordCacheHit( validation, lookupStartTime );
+            pendingValidation.finding().complete( cachedFinding.get() );
+            return;
+        }
+        try {
+            final Function<String, Optional<String>> checker = checker( validation.checkerClass() );
+            final ValidationEvent event = new ValidationEvent();
+            event.begin();
+            final long startTime = metrics.startTime();
+            final Optional<SyntaxError> finding = watchdog.call( validation.checkerClass(), 1,
+                () -> check( checker, validation.literal() ) );
+            metrics.recordCheckerCall( validation.checkerClass(), List.of( validation ), startTime, false );
+            event.commit( validation.checkerClass(), 1, validation.literal().length() );
+            store( validation, cacheKey, finding );
+            pendingValidation.finding().complete( finding );
+        } catch ( final CheckerWatchdog.CheckerFailure failure ) {
+            pendingValidation.finding().complete( Optional.of( failure.finding() ) );
+        } catch ( final RuntimeException | Error throwable ) {
+            // Failures of checkers are reported as findings, so this is a failure of the processor itself
+            pendingValidation.finding().completeExceptionally( throwable );
+        }
+    }
+
+    private void runBatch( final Class<?> checkerClass, final List<PendingValidation> batch ) {
+        final List<PendingValidation> uncachedValidations = new ArrayList<>();
+        final List<Optional<String>> cacheKeys = new ArrayList<>();
+        for ( final PendingValidation pendingValidation : batch ) {
+            final Optional<SyntaxError> exceededMaxLength =
+                watchdog.exceedsMaxLength( checkerClass, pendingValidation.validation().literal() );
+            if ( exceededMaxLength.isPresent() ) {
+                pendingValidation.finding().complete( exceededMaxLength );
+                continue;
+            }
+            final long lookupStartTime = metrics.startTime();
+            final Optional<String> cacheKey = cacheKey( pendingValidation.validation() );
+            final Optional<Optional<SyntaxError>> cachedFinding =
+                lookup( pendingValidation.validation(), cacheKey );
+            if ( cachedFinding.isPresent() ) {
+                metrics.recordCacheHit( pendingValidation.validation(), lookupStartTime );
+                pendingValidation.finding().complete( cachedFinding.get() );
+            } else {
+                uncachedValidations.add( pendingValidation );
+                cacheKeys.add( cacheKey );
+            }
+        }
+        if ( uncachedValidations.isEmpty() ) {
+            return;
+        }
+        try {
+            final BatchChecker checker = (BatchChecker) checker( checkerClass );
+            final List<Validation> validations = uncachedValidations.stream()
+                .map( PendingValidation::validation )
+                .toList();
+            final List<String> literals = validations.stream().map( Validation::literal ).toList();
+            final ValidationEvent event = new ValidationEvent();
+            event.begin();
+            final long startTime = metrics.startTime();
+            final List<Optional<SyntaxError>> findings = watchdog.call( checkerClass, literals.size(), () -> {
+                final List<Optional<SyntaxError>> results = checker.checkAll( literals );
+                if ( results.size() != literals.size() ) {
+                    throw new IllegalStateException( checkerClass.getName() + " returned " + results.size()
+                        + " results for " + literals.size() + " literals" );
+                }
+                return results;
+            } );
+            metrics.recordCheckerCall( checkerClass, validations, startTime, true );
+            event.commit( checkerClass, literals.size(),
+                literals.stream().mapToLong( String::length ).sum() );
+            for ( int index = 0; index < uncachedValidations.size(); index++ ) {
+                final Optional<SyntaxError> finding = findings.get( index );
+                store( validations.get( index ), cacheKeys.get( index ), finding );
+                uncachedValidations.get( index ).finding().complete( finding );
+            }
+        } catch ( final CheckerWatchdog.CheckerFailure failure ) {
+            uncachedValidations.forEach( pendingValidation ->
+                pendingValidation.finding().complete( Optional.of( failure.finding() ) ) );
+        } catch ( final RuntimeException | Error throwable ) {
+            uncachedValidations.forEach( pendingValidation ->
+                pendingValidation.finding().completeExceptionally( throwable ) );
+        }
+    }
+
+    private Function<String, Optional<String>> checker( final Class<?> checkerClass )
+        throws CheckerWatchdog.CheckerFailure {
+        try {
+            return checkerRegistry.checkerFor( checkerClass );
+        } catch ( final ReflectiveOperationException | RuntimeException | LinkageError exception ) {
+            // E.g. the checker class has no accessible default constructor, its configuration failed or a class it
+            // depends on is missing
+            throw watchdog.notInstantiated( checkerClass, exception );
+        }
+    }
+
+    /**
+     * Calls a checker, preferring the structured result of {@link LocatingChecker}s
+     *
+     * @param checker the checker
+     * @param literal the literal to check
+     * @return the finding of the checker, or empty if the literal is valid
+     */
+    static Optional<SyntaxError> check( final Function<String, Optional<String>> checker,
+                                        final String literal ) {
+        return checker instanceof final LocatingChecker locatingChecker
+            ? locatingChecker.check( literal )
+            : checker.apply( literal ).map( ValidationEngine::error );
+    }
+
+    private static SyntaxError error( final String message ) {
+        return new SyntaxError( message, -1, -1 );
+    }
+
+    private Optional<String> cacheKey( final Validation validation ) {
+        if ( validationCache.isEmpty() ) {
+            return Optional.empty();
+        }
+        return configurationFingerprint( validation.checkerClass() ).flatMap( configuration ->
+            validationCache.get().key( validation.checkerClass(), configuration, validation.literal() ) );
+    }
+
+    /**
+     * Determines the fingerprint of the configuration of a checker class for the cache key. Only reusable
+     * configurable checkers are asked for their fingerprint, as their instance is configured once per compilation.
+     *
+     * @return the fingerprint, which is the empty string for checkers that are not configurable, or empty if the
+     * outcomes of the checker must not be cached persistently
+     */
+    private Optional<String> configurationFingerprint( final Class<?> checkerClass ) {
+        if ( !ConfigurableChecker.class.isAssignableFrom( checkerClass ) ) {
+            return Optional.of( "" );
+        }
+        if ( !ReusableChecker.class.isAssignableFrom( checkerClass ) ) {
+            return Optional.empty();
+        }
+        try {
+            return ( (ConfigurableChecker) checkerRegistry.checkerFor( checkerClass ) ).configurationFingerprint();
+        } catch ( final ReflectiveOperationException | RuntimeException exception ) {
+            // Reported when the checker is called
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Looks up the finding of a validation, first in the findings shared across compilations, then in the
+     * persistent cache
+     *
+     * @return the cached outcome, which itself is empty if the literal is valid, or empty on a cache miss
+     */
+    private Optional<Optional<SyntaxError>> lookup( final Validation validation, final Optional<String> cacheKey ) {
+        final Optional<Optional<SyntaxError>> sharedFinding = sharedFindings
+            ? SharedCaches.memoizedFinding( validation.checkerClass(), validation.literal() )
+            : Optional.empty();
+        return sharedFinding.or( () -> cacheKey
+            .flatMap( key -> validationCache.flatMap( cache -> cache.lookup( key ) ) )
+            .map( ValidationCache.Outcome::finding ) );
+    }
+
+    private void store( final Validation validation, final Optional<String> cacheKey,
+                        final Optional<SyntaxError> finding ) {
+        if ( sharedFindings ) {
+            SharedCaches.memoize( validation.checkerClass(), validation.literal(), finding );
+        }
+        cacheKey.ifPresent( key -> validationCache.ifPresent( cache ->
+            cache.store( key, new ValidationCache.Outcome( finding ) ) ) );
+    }
+}
@@ -0,0 +1,44 @@
+package de.atextor.syntax.annotation.processor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for one call of a syntax checker, which covers a single literal or, for batch checkers, all literals
+ * of the compilation that use the checker. Like all JFR events, it is only recorded when a recording with this
+ * event enabled is running.
+ */
+@Name( "de.atextor.syntax.Validation" )
+@Label( "Syntax Validation" )
+@Category( { "Java Compiler", "Syntax Annotation" } )
+@Description( "Call of a syntax checker function by the SyntaxProcessor" )
+class ValidationEvent extends Event {
+    @Label( "Checker" )
+    String checker;
+
+    @Label( "Literals" )
+    int literals;
+
+    @Label( "Characters" )
+    @Description( "Total number of UTF-16 characters of the literals" )
+    long characters;
+
+    /**
+     * Ends and commits the event if it is enabled
+     *
+     * @param checkerClass the called checker class
+     * @param literalCount the number of validated literals
+     * @param characterCount the total length of the validated literals
+     */
+    void commit( final Class<?> checkerClass, final int literalCount, final long characterCount ) {
+        if ( shouldCommit() ) {
+            checker = checkerClass.getName();
+            literals = literalCount;
+            characters = characterCount;
+            commit();
+        }
+    }
+}
@@ -1,15 +1,29 @@
+import de.atextor.syntax.CheckerProviders;
+import de.atextor.syntax.annotation.CheckerProvider;
 import de.atextor.syntax.annotation.Syntax;
 import de.atextor.syntax.annotation.processor.SyntaxProcessor;
 
 /**
- * The syntax annotation module provides the {@link Syntax} annotation and the
- * {@link SyntaxProcessor} annotation processor.
+ * The syntax annotation module provides the {@link Syntax} annotation, the
+ * {@link SyntaxProcessor} annotation processor and the bundled syntax checkers.
  */
 module de.atextor.syntax.annotation {
     requires jdk.compiler;
     requires java.xml;
+    requires jdk.jfr;
     requires static org.apache.jena.core;
-    requires static com.fasterxml.jackson.databind;
+    requires static org.apache.jena.arq;
+    exports de.atextor.syntax;
     exports de.atextor.syntax.annotation;
     exports de.atextor.syntax.annotation.processor;
+    uses CheckerProvider;
+    provides CheckerProvider with
+        CheckerProviders.JSONProvider,
+        CheckerProviders.StrictJSONProvider,
+        CheckerProviders.RegExpProvider,
+        CheckerProviders.TurtleProvider,
+        CheckerProviders.XMLProvider,
+        CheckerProviders.XMLSchemaProvider,
+        CheckerProviders.NDJSONProvider,
+        CheckerProviders.NTriplesProvider;
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package de.atextor.syntax.annotation.processor.test;
+
+import de.atextor.syntax.annotation.BatchChecker;
+import de.atextor.syntax.annotation.CheckerConfiguration;
+import de.atextor.syntax.annotation.CheckerProvider;
+import de.atextor.syntax.annotation.ConfigurableChecker;
+import de.atextor.syntax.annotation.ReusableChecker;
+import de.atextor.syntax.annotation.SyntaxError;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Holder of nested checker classes used by the tests
+ */
+public final class Checkers {
+    private Checkers() {
+    }
+
+    /**
+     * Checker that rejects strings containing digits
+     */
+    public static class NoDigits implements Function<String, Optional<String>> {
+        @Override
+        public Optional<String> apply( final String string ) {
+            return string.chars().anyMatch( Character::isDigit )
+                ? Optional.of( "String contains digits" )
+                : Optional.empty();
+        }
+    }
+
+    /**
+     * Checker that requires strings to start with a given prefix. It has no default constructor, so it can only be
+     * created by its {@link PrefixProvider}.
+     */
+    public static class Prefix implements Function<String, Optional<String>> {
+        private final String prefix;
+
+        Prefix( final String prefix ) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Optional<String> apply( final String string ) {
+            return string.startsWith( prefix )
+                ? Optional.empty()
+                : Optional.of( "String does not start with " + prefix );
+        }
+    }
+
+    /**
+     * Provides {@link Prefix} checkers for the prefix "urn:"
+     */
+    public static final class PrefixProvider implements CheckerProvider {
+        @Override
+        public String language() {
+            return "URN";
+        }
+
+        @Override
+        public String checkerClassName() {
+            return "de.atextor.syntax.annotation.processor.test.Checkers$Prefix";
+        }
+
+        @Override
+        public Function<String, Optional<String>> create() {
+            return new Prefix( "urn:" );
+        }
+    }
+
+    /**
+     * Checker that always throws an exception
+     */
+    public static class Failing implements Function<String, Optional<String>> {
+        @Override
+        public Optional<String> apply( final String string ) {
+            throw new IllegalStateException( "Checker is broken" );
+        }
+    }
+
+    /**
+     * Checker that fails as if a class it depends on was missing
+     */
+    public static class Unlinked implements Function<String, Optional<String>> {
+        @Override
+        public Optional<String> apply( final String string ) {
+            throw new NoClassDefFoundError( "org/example/Missing" );
+        }
+    }
+
+    /**
+     * Checker that takes a minute to check a string, unless it is interrupted
+     */
+    public static class Sleeping implements Function<String, Optional<String>> {
+        @Override
+        public Optional<String> apply( final String string ) {
+            try {
+                Thread.sleep( Duration.ofMinutes( 1 ) );
+            } catch ( final InterruptedException exception ) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checker that counts its instances and accepts every string
+     */
+    public static class Counting implements Function<String, Optional<String>> {
+        /**
+         * The number of instances created so far
+         */
+        public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        /**
+         * Creates the checker
+         */
+        public Counting() {
+            INSTANCES.incrementAndGet();
+        }
+
+        @Override
+        public Optional<String> apply( final String string ) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Reusable, configurable checker that counts its instances and accepts every string
+     */
+    public static class CountingReusable implements Function<String, Optional<String>>, ReusableChecker,
+        ConfigurableChecker {
+        /**
+         * The number of instances created so far
+         */
+        public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        /**
+         * Creates the checker
+         */
+        public CountingReusable() {
+            INSTANCES.incrementAndGet();
+        }
+
+        @Override
+        public void configure( final CheckerConfiguration configuration ) {
+        }
+
+        @Override
+        public Optional<String> apply( final String string ) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Batch checker that rejects strings containing digits and reports the position of the first digit. It records
+     * the sizes of the batches it was called with.
+     */
+    public static class DigitBatch implements Function<String, Optional<String>>, BatchChecker, ReusableChecker {
+        /**
+         * The sizes of the batches passed to {@link #checkAll(List)}
+         */
+        public static final List<Integer> BATCH_SIZES = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Optional<String> apply( final String string ) {
+            return check( string ).map( SyntaxError::formatted );
+        }
+
+        @Override
+        public List<Optional<String>> applyAll( final List<String> literals ) {
+            return literals.stream().map( this::apply ).toList();
+        }
+
+        @Override
+        public List<Optional<SyntaxError>> checkAll( final List<String> literals ) {
+            BATCH_SIZES.add( literals.size() );
+            return literals.stream().map( DigitBatch::check ).toList();
+        }
+
+        private static Optional<SyntaxError> check( final String string ) {
+            for ( int index = 0; index < string.length(); index++ ) {
+                if ( Character.isDigit( string.charAt( index ) ) ) {
+                    return Optional.of( SyntaxError.atOffset( "Unexpected digit", string, index,
+                        SyntaxError.Severity.ERROR ) );
+                }
+            }
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package de.atextor.syntax.annotation.processor.test;
+
+import de.atextor.syntax.XMLSchema;
+
+/**
+ * XML schema checker used by the tests, which identifies its schema by its class
+ */
+public class GreetingSchema extends XMLSchema {
+    public GreetingSchema() {
+        super( "schemas/greeting.xsd" );
+    }
+}
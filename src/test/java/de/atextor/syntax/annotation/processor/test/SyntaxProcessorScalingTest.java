@@ -0,0 +1,273 @@
+package de.atextor.syntax.annotation.processor.test;
+
+import de.atextor.syntax.annotation.processor.SyntaxProcessor;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles generated projects of increasing size with and without the {@link SyntaxProcessor} and fails if the
+ * overhead the processor adds exceeds the configured budgets. Each project consists of classes with string fields,
+ * text blocks and local variables, of which a given fraction (the density) is annotated with {@code @Syntax}.
+ * For each compilation, the wall-clock time, the peak heap usage and the bytes allocated by the compiling thread are
+ * measured. The baseline is compiled with a processor that does nothing: The annotation processing rounds of javac
+ * alone allocate substantially, and as every other processor incurs them as well, they are not attributed to the
+ * {@link SyntaxProcessor}.
+ *
+ * <p>The test is excluded from the default build, as compiling the larger projects takes minutes. It is run with
+ * the {@code scaling} profile, e.g. {@code mvn test -Pscaling}; the sizes, densities and budgets are set as
+ * properties of the profile and can be overridden on the command line, e.g.
+ * {@code -Dsyntax.scaling.classes=1000,5000}.
+ */
+public class SyntaxProcessorScalingTest {
+    private static final List<Integer> CLASSES = Arrays.stream( property( "syntax.scaling.classes", "1000" )
+        .split( "," ) ).map( String::trim ).map( Integer::parseInt ).toList();
+
+    private static final List<Double> DENSITIES = Arrays.stream( property( "syntax.scaling.densities", "0.1,1" )
+        .split( "," ) ).map( String::trim ).map( Double::parseDouble ).toList();
+
+    private static final int STRINGS_PER_CLASS = 10;
+
+    /**
+     * The maximum wall-clock time the processor may add, relative to the baseline compilation
+     */
+    private static final double MAX_TIME_OVERHEAD =
+        Double.parseDouble( property( "syntax.scaling.maxTimeOverhead", "1.0" ) );
+
+    /**
+     * The maximum peak heap usage the processor may add, relative to the baseline compilation
+     */
+    private static final double MAX_HEAP_OVERHEAD =
+        Double.parseDouble( property( "syntax.scaling.maxHeapOverhead", "0.5" ) );
+
+    /**
+     * The maximum number of bytes the processor may allocate, relative to the baseline compilation
+     */
+    private static final double MAX_ALLOCATION_OVERHEAD =
+        Double.parseDouble( property( "syntax.scaling.maxAllocationOverhead", "0.5" ) );
+
+    /**
+     * The factor by which the bytes allocated by the processor per class may grow from the smallest to a larger
+     * project; a processor that scales linearly allocates the same amount per class for each project size
+     */
+    private static final double MAX_ALLOCATION_GROWTH =
+        Double.parseDouble( property( "syntax.scaling.maxAllocationGrowth", "2.0" ) );
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+    /**
+     * The resources used by one compilation
+     *
+     * @param nanos the wall-clock time
+     * @param peakHeapBytes the peak heap usage
+     * @param allocatedBytes the bytes allocated by the compiling thread
+     */
+    private record Measurement( long nanos, long peakHeapBytes, long allocatedBytes ) {
+    }
+
+    private static String property( final String name, final String defaultValue ) {
+        final String value = System.getProperty( name );
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    @Test
+    public void testProcessorOverheadScales() throws IOException {
+        // Warm up the compiler and the checkers, so that the smallest project is not measured with a cold JVM
+        final List<JavaFileObject> warmUpSources = generateProject( CLASSES.getFirst(), 1.0 );
+        compile( warmUpSources, false );
+        compile( warmUpSources, true );
+
+        System.out.printf( "%8s %8s %12s %12s %8s %10s %10s %8s %12s %12s %8s%n", "classes", "density",
+            "time [ms]", "+processor", "ratio", "heap [MB]", "+processor", "ratio", "alloc [MB]", "+processor",
+            "ratio" );
+        for ( final double density : DENSITIES ) {
+            double smallestAllocationPerClass = -1;
+            for ( final int classes : CLASSES ) {
+                final List<JavaFileObject> sources = generateProject( classes, density );
+                final Measurement baseline = compile( sources, false );
+                final Measurement processed = compile( sources, true );
+
+                final double timeOverhead = overhead( baseline.nanos(), processed.nanos() );
+                final double heapOverhead = overhead( baseline.peakHeapBytes(), processed.peakHeapBytes() );
+                final double allocationOverhead = overhead( baseline.allocatedBytes(), processed.allocatedBytes() );
+                System.out.printf( "%8d %8.2f %12d %12d %8.2f %10d %10d %8.2f %12d %12d %8.2f%n", classes, density,
+                    baseline.nanos() / 1_000_000, processed.nanos() / 1_000_000, timeOverhead,
+                    baseline.peakHeapBytes() >> 20, processed.peakHeapBytes() >> 20, heapOverhead,
+                    baseline.allocatedBytes() >> 20, processed.allocatedBytes() >> 20, allocationOverhead );
+
+                final String project = classes + " classes with density " + density;
+                Assertions.assertThat( timeOverhead ).as( "Time overhead for " + project )
+                    .isLessThanOrEqualTo( MAX_TIME_OVERHEAD );
+                Assertions.assertThat( heapOverhead ).as( "Peak heap overhead for " + project )
+                    .isLessThanOrEqualTo( MAX_HEAP_OVERHEAD );
+                Assertions.assertThat( allocationOverhead ).as( "Allocation overhead for " + project )
+                    .isLessThanOrEqualTo( MAX_ALLOCATION_OVERHEAD );
+
+                final double allocationPerClass =
+                    (double) Math.max( processed.allocatedBytes() - baseline.allocatedBytes(), 0 ) / classes;
+                if ( smallestAllocationPerClass < 0 ) {
+                    smallestAllocationPerClass = allocationPerClass;
+                } else {
+                    Assertions.assertThat( allocationPerClass ).as( "Allocation per class for " + project )
+                        .isLessThanOrEqualTo( Math.max( smallestAllocationPerClass, 1.0 ) * MAX_ALLOCATION_GROWTH );
+                }
+            }
+        }
+    }
+
+    private static double overhead( final long baseline, final long processed ) {
+        return (double) ( processed - baseline ) / baseline;
+    }
+
+    private Measurement compile( final List<JavaFileObject> sources, final boolean processor ) throws IOException {
+        final File outputDirectory = temporaryFolder.newFolder();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try ( final StandardJavaFileManager fileManager = compiler.getStandardFileManager( diagnostics, null, null ) ) {
+            final List<String> options = List.of(
+                "-d", outputDirectory.getPath(),
+                "-classpath", new File( "./target/classes" ).getPath() );
+            final JavaCompiler.CompilationTask task =
+                compiler.getTask( null, fileManager, diagnostics, options, null, sources );
+            final Processor annotationProcessor = processor ? new SyntaxProcessor() : new NoOpProcessor();
+            task.setProcessors( List.of( annotationProcessor ) );
+
+            System.gc();
+            final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter( pool -> pool.getType() == MemoryType.HEAP )
+                .toList();
+            heapPools.forEach( MemoryPoolMXBean::resetPeakUsage );
+            final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            final long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            final long start = System.nanoTime();
+
+            final boolean success = task.call();
+
+            final long nanos = System.nanoTime() - start;
+            final long allocatedBytes = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            final long peakHeapBytes = heapPools.stream().mapToLong( pool -> pool.getPeakUsage().getUsed() ).sum();
+            Assertions.assertThat( success ).as( "Compilation succeeded: " + diagnostics.getDiagnostics() ).isTrue();
+            return new Measurement( nanos, peakHeapBytes, allocatedBytes );
+        }
+    }
+
+    /**
+     * Generates the sources of a project
+     *
+     * @param classes the number of classes
+     * @param density the fraction of the strings of each class that are annotated
+     * @return the sources
+     */
+    private static List<JavaFileObject> generateProject( final int classes, final double density ) {
+        final List<JavaFileObject> sources = new ArrayList<>( classes );
+        for ( int index = 0; index < classes; index++ ) {
+            final String className = "Generated" + index;
+            sources.add( new GeneratedSource( className, generateClass( className, density ) ) );
+        }
+        return sources;
+    }
+
+    /**
+     * Generates a class with {@link #STRINGS_PER_CLASS} strings: constants, concatenations, text blocks and local
+     * variables. The strings are annotated evenly, so that the given fraction of them is annotated.
+     */
+    private static String generateClass( final String className, final double density ) {
+        final StringBuilder fields = new StringBuilder();
+        final StringBuilder locals = new StringBuilder();
+        for ( int string = 0; string < STRINGS_PER_CLASS; string++ ) {
+            final boolean annotated = Math.floor( ( string + 1 ) * density ) > Math.floor( string * density );
+            final String annotation = annotated ? "@Syntax( %s.class ) " : "";
+            switch ( string % 5 ) {
+                case 0 -> fields.append( "    " ).append( annotation.formatted( "JSON" ) )
+                    .append( "static final String JSON_" ).append( string )
+                    .append( " = \"{\\\"id\\\": " ).append( string ).append( ", \\\"name\\\": \\\"item\\\"}\";\n" );
+                case 1 -> fields.append( "    " ).append( annotation.formatted( "RegExp" ) )
+                    .append( "String regExp" ).append( string )
+                    .append( " = \"item" ).append( string ).append( "[a-z]+\" + \"\\\\d{1,3}\";\n" );
+                case 2 -> fields.append( "    " ).append( annotation.formatted( "XML" ) )
+                    .append( "static final String XML_" ).append( string ).append( " = \"\"\"\n" )
+                    .append( "        <items>\n" )
+                    .append( "          <item id=\"" ).append( string ).append( "\"><name>item</name></item>\n" )
+                    .append( "        </items>\n" )
+                    .append( "        \"\"\";\n" );
+                case 3 -> locals.append( "        " ).append( annotation.formatted( "JSON" ) )
+                    .append( "String json" ).append( string )
+                    .append( " = \"[\" + JSON_0 + \", " ).append( string ).append( "]\";\n" );
+                default -> locals.append( "        " ).append( annotation.formatted( "XML" ) )
+                    .append( "String xml" ).append( string )
+                    .append( " = \"<local id='" ).append( string ).append( "'/>\";\n" );
+            }
+        }
+        return "package generated;\n\n"
+            + "import de.atextor.syntax.annotation.Syntax;\n"
+            + "import de.atextor.syntax.JSON;\n"
+            + "import de.atextor.syntax.RegExp;\n"
+            + "import de.atextor.syntax.XML;\n\n"
+            + "public class " + className + " {\n"
+            + fields
+            + "\n    void method() {\n"
+            + locals
+            + "    }\n"
+            + "}\n";
+    }
+
+    /**
+     * A processor that claims no annotations and does nothing
+     */
+    @SupportedAnnotationTypes( "*" )
+    private static class NoOpProcessor extends AbstractProcessor {
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process( final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv ) {
+            return false;
+        }
+    }
+
+    /**
+     * An in-memory source file
+     */
+    private static class GeneratedSource extends SimpleJavaFileObject {
+        private final String content;
+
+        GeneratedSource( final String className, final String content ) {
+            super( URI.create( "string:///generated/" + className + Kind.SOURCE.extension ), Kind.SOURCE );
+            this.content = content;
+        }
+
+        @Override
+        public CharSequence getCharContent( final boolean ignoreEncodingErrors ) {
+            return content;
+        }
+    }
+}
@@ -3,18 +3,46 @@ package de.atextor.syntax.annotation.processor.test;
 import com.google.testing.compile.Compilation;
 import com.google.testing.compile.JavaFileObjects;
 import de.atextor.syntax.annotation.processor.SyntaxProcessor;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphMemFactory;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.google.testing.compile.CompilationSubject.assertThat;
 import static com.google.testing.compile.Compiler.javac;
 
 public class SyntaxProcessorTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testCompilation() {
         final Compilation compilation =
@@ -37,11 +65,8 @@ public class SyntaxProcessorTest {
             }
             """;
 
-        final List<JavaFileObject> sources = List.of(
-            JavaFileObjects.forSourceString( "de.atextor.test.Test", code ),
-            JavaFileObjects.forResource( sourceFileUrl( "de/atextor/syntax/annotation/Syntax.java" ) ),
-            JavaFileObjects.forResource( sourceFileUrl( "de/atextor/syntax/XML.java" ) )
-        );
+        final List<JavaFileObject> sources =
+            sources( JavaFileObjects.forSourceString( "de.atextor.test.Test", code ), "de/atextor/syntax/XML.java" );
 
         final Compilation compilation = javac()
             .withProcessors( new SyntaxProcessor() )
@@ -64,11 +89,7 @@ public class SyntaxProcessorTest {
             """;
 
         final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
-        final List<JavaFileObject> sources = List.of(
-            testClass,
-            JavaFileObjects.forResource( sourceFileUrl( "de/atextor/syntax/annotation/Syntax.java" ) ),
-            JavaFileObjects.forResource( sourceFileUrl( "de/atextor/syntax/XML.java" ) )
-        );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/XML.java" );
 
         final Compilation compilation = javac()
             .withProcessors( new SyntaxProcessor() )
@@ -80,6 +101,402 @@ public class SyntaxProcessorTest {
             .onLine( 7 );
     }
 
+    @Test
+    public void testXMLDoesNotAccessExternalResources() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.XML;
+
+            class Test {
+               @Syntax( XML.class ) String externalDtd = \"""
+                  <!DOCTYPE hello SYSTEM "http://example.invalid/hello.dtd">
+                  <hello/>\""";
+               @Syntax( XML.class ) String externalEntity = \"""
+                  <!DOCTYPE hello [
+                    <!ENTITY internal "internal">
+                    <!ENTITY external SYSTEM "file:///does/not/exist">
+                  ]>
+                  <hello>&internal; &external;</hello>\""";
+               @Syntax( XML.class ) String brokenXml = \"""
+                  <hello>
+                    <world>
+                  </hello>\""";
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/XML.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 1 );
+        assertThat( compilation )
+            .hadErrorContaining( "[line: 3, col: 3]" )
+            .inFile( testClass )
+            .onLine( 16 );
+    }
+
+    @Test
+    public void testXMLSchemaFromProcessorOption() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.XMLSchema;
+
+            class Test {
+               @Syntax( XMLSchema.class ) String validGreeting = "<greeting to='world'>hello</greeting>" ;
+               @Syntax( XMLSchema.class ) String invalidGreeting = "<greeting>hello</greeting>" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/XMLSchema.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withClasspath( List.of( schemaDirectory() ) )
+            .withOptions( "-Asyntax.xml.schema=schemas/greeting.xsd" )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 1 );
+        assertThat( compilation )
+            .hadErrorContaining( "Attribute 'to' must appear on element 'greeting'" )
+            .inFile( testClass )
+            .onLine( 8 );
+    }
+
+    @Test
+    public void testValidationCacheRespectsSchemaChanges() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.XMLSchema;
+
+            class Test {
+               @Syntax( XMLSchema.class ) String greeting = "<greeting>hello</greeting>" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/XMLSchema.java" );
+        final File classPath = schemaDirectory();
+        final String cacheOption = "-Asyntax.cache.directory=" + temporaryFolder.newFolder( "cache" );
+
+        final Compilation withRequiredAttribute = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withClasspath( List.of( classPath ) )
+            .withOptions( cacheOption, "-Asyntax.xml.schema=schemas/greeting.xsd" )
+            .compile( sources );
+        assertThat( withRequiredAttribute ).hadErrorCount( 1 );
+        assertThat( withRequiredAttribute ).hadErrorContaining( "Attribute 'to' must appear on element 'greeting'" );
+
+        final Path schema = classPath.toPath().resolve( "schemas/greeting.xsd" );
+        Files.writeString( schema, Files.readString( schema ).replace( "use=\"required\"", "use=\"optional\"" ) );
+        final Compilation withOptionalAttribute = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withClasspath( List.of( classPath ) )
+            .withOptions( cacheOption, "-Asyntax.xml.schema=schemas/greeting.xsd" )
+            .compile( sources );
+        assertThat( withOptionalAttribute ).succeededWithoutWarnings();
+    }
+
+    @Test
+    public void testXMLSchemaFromCheckerClass() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.annotation.processor.test.GreetingSchema;
+
+            class Test {
+               @Syntax( GreetingSchema.class ) String invalidGreeting = "<farewell to='world'/>" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = Stream.concat(
+            sources( testClass, "de/atextor/syntax/XMLSchema.java" ).stream(),
+            Stream.of( JavaFileObjects.forResource( new File(
+                "./src/test/java/de/atextor/syntax/annotation/processor/test/GreetingSchema.java" ).toURI().toURL() ) )
+        ).toList();
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withClasspath( List.of( schemaDirectory() ) )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 1 );
+        assertThat( compilation )
+            .hadErrorContaining( "[line: 1, col: 23] cvc-elt.1.a: Cannot find the declaration of element 'farewell'" )
+            .inFile( testClass )
+            .onLine( 7 );
+    }
+
+    @Test
+    public void testNestedCheckerClass() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.annotation.processor.test.Checkers;
+
+            class Test {
+               @Syntax( Checkers.NoDigits.class ) String name = "name";
+
+               void method() {
+                  @Syntax( value = Checkers.NoDigits.class ) String invalidName = "name1";
+               }
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = Stream.concat( sources( testClass ).stream(),
+            Stream.of( JavaFileObjects.forResource( new File(
+                "./src/test/java/de/atextor/syntax/annotation/processor/test/Checkers.java" ).toURI().toURL() ) )
+        ).toList();
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 1 );
+        assertThat( compilation )
+            .hadErrorContaining( "String contains digits" )
+            .inFile( testClass )
+            .onLine( 10 );
+    }
+
+    @Test
+    public void testCheckerProvider() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.annotation.processor.test.Checkers;
+
+            class Test {
+               @Syntax( Checkers.Prefix.class ) String urn = "urn:isbn:0451450523";
+               @Syntax( Checkers.Prefix.class ) String url = "https://example.com";
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = Stream.concat( sources( testClass ).stream(),
+            Stream.of( JavaFileObjects.forResource( new File(
+                "./src/test/java/de/atextor/syntax/annotation/processor/test/Checkers.java" ).toURI().toURL() ) )
+        ).toList();
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 1 );
+        assertThat( compilation )
+            .hadErrorContaining( "String does not start with urn:" )
+            .inFile( testClass )
+            .onLine( 8 );
+    }
+
+    @Test
+    public void testReusableCheckerInstances() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.annotation.processor.test.Checkers;
+
+            class Test {
+               @Syntax( Checkers.Counting.class ) String first = "first";
+               @Syntax( Checkers.Counting.class ) String second = "second";
+               @Syntax( Checkers.Counting.class ) String third = "third";
+               @Syntax( Checkers.CountingReusable.class ) String fourth = "fourth";
+               @Syntax( Checkers.CountingReusable.class ) String fifth = "fifth";
+               @Syntax( Checkers.CountingReusable.class ) String sixth = "sixth";
+            }
+            """;
+
+        final List<JavaFileObject> sources =
+            withCheckers( JavaFileObjects.forSourceString( "de.atextor.test.Test", code ) );
+        Checkers.Counting.INSTANCES.set( 0 );
+        Checkers.CountingReusable.INSTANCES.set( 0 );
+
+        for ( int run = 1; run <= 2; run++ ) {
+            final Compilation compilation = javac()
+                .withProcessors( new SyntaxProcessor() )
+                .compile( sources );
+
+            assertThat( compilation ).succeededWithoutWarnings();
+            // A new instance per use, but only one instance per compilation for reusable checkers
+            Assertions.assertThat( Checkers.Counting.INSTANCES ).hasValue( 3 * run );
+            Assertions.assertThat( Checkers.CountingReusable.INSTANCES ).hasValue( run );
+        }
+    }
+
+    @Test
+    public void testBatchChecker() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.annotation.processor.test.Checkers;
+
+            class Test {
+               @Syntax( Checkers.DigitBatch.class ) String valid = "no digits";
+               @Syntax( Checkers.DigitBatch.class ) String invalid = "first line\\nsecond 2nd line";
+
+               void method() {
+                  @Syntax( Checkers.DigitBatch.class ) String local = "4 digits";
+               }
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = withCheckers( testClass );
+
+        for ( final String parallel : List.of( "false", "true" ) ) {
+            Checkers.DigitBatch.BATCH_SIZES.clear();
+            final Compilation compilation = javac()
+                .withProcessors( new SyntaxProcessor() )
+                .withOptions( "-Asyntax.parallel=" + parallel )
+                .compile( sources );
+
+            Assertions.assertThat( Checkers.DigitBatch.BATCH_SIZES ).containsExactly( 3 );
+            assertThat( compilation ).hadErrorCount( 2 );
+            assertThat( compilation )
+                .hadErrorContaining( "[line: 2, col: 8] Unexpected digit" )
+                .inFile( testClass )
+                .onLine( 8 );
+            assertThat( compilation )
+                .hadErrorContaining( "[line: 1, col: 1] Unexpected digit" )
+                .inFile( testClass )
+                .onLine( 11 );
+        }
+    }
+
+    @Test
+    public void testFailingCheckerIsReported() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.annotation.processor.test.Checkers;
+
+            class Test {
+               @Syntax( Checkers.Failing.class ) String broken = "anything";
+               @Syntax( Checkers.Unlinked.class ) String unlinked = "anything";
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = withCheckers( testClass );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+        assertThat( compilation ).succeeded();
+        assertThat( compilation )
+            .hadWarningContaining( "Failing threw java.lang.IllegalStateException: Checker is broken" )
+            .inFile( testClass )
+            .onLine( 7 );
+        assertThat( compilation )
+            .hadWarningContaining( "Unlinked threw java.lang.NoClassDefFoundError: org/example/Missing (check that "
+                + "the dependencies of the checker are on the annotation processor path)" )
+            .inFile( testClass )
+            .onLine( 8 );
+
+        for ( final String timeout : List.of( "0", "60000" ) ) {
+            final Compilation failingCompilation = javac()
+                .withProcessors( new SyntaxProcessor() )
+                .withOptions( "-Asyntax.checker.failures=error", "-Asyntax.checker.timeout=" + timeout )
+                .compile( sources );
+            assertThat( failingCompilation ).hadErrorCount( 2 );
+            assertThat( failingCompilation )
+                .hadErrorContaining( "Failing threw java.lang.IllegalStateException: Checker is broken" );
+            assertThat( failingCompilation )
+                .hadErrorContaining( "Unlinked threw java.lang.NoClassDefFoundError: org/example/Missing" );
+        }
+    }
+
+    @Test
+    public void testCheckerLimits() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.JSON;
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.annotation.processor.test.Checkers;
+
+            class Test {
+               @Syntax( Checkers.Sleeping.class ) String slow = "anything";
+               @Syntax( JSON.class ) String small = "[1, 2]";
+               @Syntax( JSON.class ) String large = "[1, 2, 3, 4, 5, 6, 7, 8, 9]";
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = withCheckers( testClass );
+
+        for ( final String parallel : List.of( "false", "true" ) ) {
+            final long startTime = System.nanoTime();
+            final Compilation compilation = javac()
+                .withProcessors( new SyntaxProcessor() )
+                .withOptions( "-Asyntax.checker.timeout=200", "-Asyntax.checker.maxLength=10",
+                    "-Asyntax.checker.failures=error", "-Asyntax.parallel=" + parallel )
+                .compile( sources );
+
+            Assertions.assertThat( Duration.ofNanos( System.nanoTime() - startTime ) )
+                .isLessThan( Duration.ofSeconds( 30 ) );
+            assertThat( compilation ).hadErrorCount( 2 );
+            assertThat( compilation )
+                .hadErrorContaining( "Sleeping did not finish within 200 ms (syntax.checker.timeout)" )
+                .inFile( testClass )
+                .onLine( 8 );
+            assertThat( compilation )
+                .hadErrorContaining( "JSON was not called: The string has 27 characters, the limit is 10 "
+                    + "(syntax.checker.maxLength)" )
+                .inFile( testClass )
+                .onLine( 10 );
+        }
+    }
+
+    private List<JavaFileObject> withCheckers( final JavaFileObject testClass ) throws IOException {
+        return Stream.concat( sources( testClass, "de/atextor/syntax/JSON.java" ).stream(),
+            Stream.of( JavaFileObjects.forResource( new File(
+                "./src/test/java/de/atextor/syntax/annotation/processor/test/Checkers.java" ).toURI().toURL() ) )
+        ).toList();
+    }
+
+    /**
+     * Creates a class path directory containing the schema schemas/greeting.xsd
+     *
+     * @return the directory
+     */
+    private File schemaDirectory() throws IOException {
+        final File directory = temporaryFolder.newFolder( "classpath" );
+        final Path schema = directory.toPath().resolve( "schemas/greeting.xsd" );
+        Files.createDirectories( schema.getParent() );
+        Files.writeString( schema, """
+            <xs:schema xmlns:xs="http://www.w3.org/2001/XMLSchema">
+              <xs:element name="greeting">
+                <xs:complexType>
+                  <xs:simpleContent>
+                    <xs:extension base="xs:string">
+                      <xs:attribute name="to" type="xs:string" use="required"/>
+                    </xs:extension>
+                  </xs:simpleContent>
+                </xs:complexType>
+              </xs:element>
+            </xs:schema>
+            """ );
+        return directory;
+    }
+
     @Test
     public void testRegExpSyntax() {
         final String code = """
@@ -94,11 +511,8 @@ public class SyntaxProcessorTest {
             """;
 
         final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
-        final List<JavaFileObject> sources = List.of(
-            testClass,
-            JavaFileObjects.forResource( sourceFileUrl( "de/atextor/syntax/annotation/Syntax.java" ) ),
-            JavaFileObjects.forResource( sourceFileUrl( "de/atextor/syntax/RegExp.java" ) )
-        );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
 
         final Compilation compilation = javac()
             .withProcessors( new SyntaxProcessor() )
@@ -111,85 +525,1080 @@ public class SyntaxProcessorTest {
     }
 
     @Test
-    public void testTurtleSyntax() {
+    public void testRegExpBacktrackingWarning() {
         final String code = """
             package de.atextor.test;
 
             import de.atextor.syntax.annotation.Syntax;
-            import de.atextor.syntax.Turtle;
+            import de.atextor.syntax.RegExp;
 
             class Test {
-               @Syntax( Turtle.class ) String brokenTurtle = ":x a :y ." ;
+               @Syntax( RegExp.class ) String vulnerableRegExp = "^(\\\\w+\\\\s?)*$" ;
+               @Syntax( RegExp.class ) String safeRegExp = "^(\\\\w+\\\\s)*$" ;
             }
             """;
 
         final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
-        final List<JavaFileObject> sources = List.of(
-            testClass,
-            JavaFileObjects.forResource( sourceFileUrl( "de/atextor/syntax/annotation/Syntax.java" ) ),
-            JavaFileObjects.forResource( sourceFileUrl( "de/atextor/syntax/Turtle.java" ) )
-        );
-
-        // Required by the implementation of Turtle.class.
-        // Why can't we just pass the current class path? Because jena-core is not in it, because jena-core's
-        // scope is declared "compile" instead of "test" (we want it to be an optional maven dependency).
-        // If we'd change the scope to "test", this would also imply "compile", and also would not include a runtime
-        // dependency; but then we could not declare module org.apache.jena.core as "requires static" (i.e. making the
-        // module optional) in src/main/module-info.java.
-        // However, when running this test, we rely on the fact that src/main has been compiled before, so the
-        // file must be available in the local maven repository.
-        final List<File> classPath = List.of(
-            mavenArtifact( "org.apache.jena:jena-core:5.6.0" ),
-            mavenArtifact( "org.apache.jena:jena-arq:5.6.0" )
-        );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
 
         final Compilation compilation = javac()
             .withProcessors( new SyntaxProcessor() )
-            .withClasspath( classPath )
+            .withOptions( "-Asyntax.regexp.redos=warning" )
             .compile( sources );
 
+        assertThat( compilation ).succeeded();
+        Assertions.assertThat( compilation.warnings() ).hasSize( 1 );
         assertThat( compilation )
-            .hadErrorContaining( "Undefined prefix" )
+            .hadWarningContaining( "[line: 1, col: 3] Possible catastrophic backtracking: The repetition "
+                + "'(\\w+\\s?)*' contains the repetition '\\w+'" )
             .inFile( testClass )
             .onLine( 7 );
     }
 
     @Test
-    public void testJSONSyntax() {
+    public void testRegExpBacktrackingError() {
         final String code = """
             package de.atextor.test;
 
             import de.atextor.syntax.annotation.Syntax;
-            import de.atextor.syntax.JSON;
+            import de.atextor.syntax.RegExp;
 
             class Test {
-               @Syntax( JSON.class ) String brokenJson = "{ \\"foo\\": \\"bar\\"" ;
+               @Syntax( RegExp.class ) String vulnerableRegExp = "(a|aa)*b" ;
             }
             """;
 
         final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
-        final List<JavaFileObject> sources = List.of(
-            testClass,
-            JavaFileObjects.forResource( sourceFileUrl( "de/atextor/syntax/annotation/Syntax.java" ) ),
-            JavaFileObjects.forResource( sourceFileUrl( "de/atextor/syntax/JSON.java" ) )
-        );
-
-        final List<File> classPath = List.of(
-            mavenArtifact( "com.fasterxml.jackson.core:jackson-databind:2.21.0" ),
-            mavenArtifact( "com.fasterxml.jackson.core:jackson-core:2.21.0" )
-        );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
 
         final Compilation compilation = javac()
             .withProcessors( new SyntaxProcessor() )
-            .withClasspath( classPath )
+            .withOptions( "-Asyntax.regexp.redos=error" )
             .compile( sources );
 
         assertThat( compilation )
-            .hadErrorContaining( "Unexpected end-of-input: expected close marker for Object" )
+            .hadErrorContaining( "[line: 1, col: 2] Possible catastrophic backtracking: The alternatives 'a' and "
+                + "'aa' can match the same input" )
             .inFile( testClass )
             .onLine( 7 );
     }
 
+    @Test
+    public void testPatternHolderGeneration() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            public class Test {
+               @Syntax( RegExp.class ) static final String EMAIL = "[a-z]+@[a-z]+\\\\.com" ;
+               @Syntax( RegExp.class ) String quotedWord = "\\"\\\\w+\\"" + "|é" ;
+               @Syntax( RegExp.class ) String dateRegExp = "\\\\d{4}-\\\\d{2}" ;
+
+               boolean isEmail( final String string ) {
+                  return TestPatterns.EMAIL.matcher( string ).matches()
+                     || TestPatterns.QUOTED_WORD.matcher( string ).matches();
+               }
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withOptions( "-Asyntax.regexp.patterns.flags=CASE_INSENSITIVE,UNICODE_CASE" )
+            .compile( sources );
+
+        assertThat( compilation ).succeededWithoutWarnings();
+        final JavaFileObject holder = compilation.generatedSourceFile( "de.atextor.test.TestPatterns" ).orElseThrow();
+        Assertions.assertThat( holder.getCharContent( true ).toString() )
+            .contains( "@javax.annotation.processing.Generated( \"" + SyntaxProcessor.class.getName() + "\" )" )
+            .contains( "public final class TestPatterns" )
+            .contains( "public static final Pattern EMAIL = Pattern.compile( \"[a-z]+@[a-z]+\\\\.com\", "
+                + "Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE );" )
+            .contains( "public static final Pattern QUOTED_WORD = Pattern.compile( \"\\\"\\\\w+\\\"|\\u00e9\", "
+                + "Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE );" )
+            .contains( "public static final Pattern DATE_REG_EXP = Pattern.compile( \"\\\\d{4}-\\\\d{2}\", " );
+    }
+
+    @Test
+    public void testPatternHolderInNamedModule() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            public class Test {
+               @Syntax( RegExp.class ) static final String WORD = "\\\\w+" ;
+
+               boolean isWord( final String string ) {
+                  return TestPatterns.WORD.matcher( string ).matches();
+               }
+            }
+            """;
+
+        // The module does not read java.compiler, so the holder can not be annotated with @Generated
+        final Path generatedSources = compileModule( "module de.atextor.test {\n}\n", code, List.of(),
+            List.of( "-Asyntax.regexp.patterns=true" ), "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
+
+        Assertions.assertThat( generatedSources.resolve( "de/atextor/test/TestPatterns.java" ) ).content()
+            .doesNotContain( "@javax.annotation.processing.Generated" )
+            .contains( "public static final Pattern WORD = Pattern.compile( \"\\\\w+\" );" );
+    }
+
+    @Test
+    public void testPatternHolderWithCollidingConstantNames() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            class Test {
+               @Syntax( RegExp.class ) String fooBar = "foo" ;
+               @Syntax( RegExp.class ) String FOO_BAR = "bar" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withOptions( "-Asyntax.regexp.patterns=true" )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 1 );
+        assertThat( compilation )
+            .hadErrorContaining( "The pattern constant FOO_BAR for this field would have the same name as the one "
+                + "for the field fooBar" )
+            .inFile( testClass )
+            .onLine( 8 );
+    }
+
+    @Test
+    public void testPatternHolderWithUnknownFlag() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            class Test {
+               @Syntax( RegExp.class ) String validRegExp = "foo[bar]" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withOptions( "-Asyntax.regexp.patterns.flags=CASE_SENSITIVE" )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorContaining(
+            "Invalid value of syntax.regexp.patterns.flags: Unknown java.util.regex.Pattern flag: CASE_SENSITIVE" );
+    }
+
+    @Test
+    public void testTurtleSyntax() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.Turtle;
+
+            class Test {
+               @Syntax( Turtle.class ) String brokenTurtle = ":x a :y ." ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/Turtle.java" );
+
+        // Required by the implementation of Turtle.class.
+        // Why can't we just pass the current class path? Because jena-core is not in it, because jena-core's
+        // scope is declared "compile" instead of "test" (we want it to be an optional maven dependency).
+        // If we'd change the scope to "test", this would also imply "compile", and also would not include a runtime
+        // dependency; but then we could not declare module org.apache.jena.core as "requires static" (i.e. making the
+        // module optional) in src/main/module-info.java.
+        // However, when running this test, we rely on the fact that src/main has been compiled before, so the
+        // file must be available in the local maven repository.
+        final List<File> classPath = List.of(
+            mavenArtifact( "org.apache.jena:jena-core:5.6.0" ),
+            mavenArtifact( "org.apache.jena:jena-arq:5.6.0" )
+        );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withClasspath( classPath )
+            .compile( sources );
+
+        assertThat( compilation )
+            .hadErrorContaining( "Undefined prefix" )
+            .inFile( testClass )
+            .onLine( 7 );
+    }
+
+    @Test
+    public void testLineDelimitedSyntax() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.NDJSON;
+            import de.atextor.syntax.NTriples;
+            import de.atextor.syntax.annotation.Syntax;
+
+            class Test {
+               @Syntax( NDJSON.class ) String events = \"""
+                  {"id": 1, "type": "created"}
+                  {"id": 2, "type": "deleted",}
+                  \""";
+               @Syntax( NTriples.class ) String triples = \"""
+                  <http://example.com/a> <http://example.com/b> "c" .
+                  <http://example.com/a> <b> <http://example.com/c> .
+                  \""";
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/JSON.java",
+            "de/atextor/syntax/LineDelimitedChecker.java", "de/atextor/syntax/NDJSON.java",
+            "de/atextor/syntax/NTriples.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 2 );
+        assertThat( compilation )
+            .hadErrorContaining( "[line: 2, col: 29] Unexpected character '}': expected a member name" )
+            .inFile( testClass );
+        assertThat( compilation )
+            .hadErrorContaining( "[line: 2, col: 24] Relative IRI: IRIs must start with a scheme" )
+            .inFile( testClass );
+    }
+
+    @Test
+    public void testTurtleResources() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.Turtle;
+
+            public class Test {
+               @Syntax( Turtle.class ) static final String VOCABULARY = \"""
+                  @prefix : <http://example.com/> .
+                  :x a :y ; :label "x" .
+                  :y a :z .\""";
+
+               long size() {
+                  return TestRdf.VOCABULARY().size();
+               }
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/Turtle.java" );
+        final List<File> classPath = List.of(
+            mavenArtifact( "org.apache.jena:jena-core:5.6.0" ),
+            mavenArtifact( "org.apache.jena:jena-arq:5.6.0" )
+        );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withClasspath( classPath )
+            .withOptions( "-Asyntax.turtle.resources=true" )
+            .compile( sources );
+
+        assertThat( compilation ).succeeded();
+        final JavaFileObject accessor = compilation.generatedSourceFile( "de.atextor.test.TestRdf" ).orElseThrow();
+        Assertions.assertThat( accessor.getCharContent( true ).toString() )
+            .contains( "@javax.annotation.processing.Generated( \"" + SyntaxProcessor.class.getName() + "\" )" );
+        final JavaFileObject resource = compilation
+            .generatedFile( StandardLocation.CLASS_OUTPUT, "de.atextor.test", "Test.VOCABULARY.rt" )
+            .orElseThrow();
+        final Graph graph = GraphMemFactory.createDefaultGraph();
+        try ( final InputStream input = resource.openInputStream() ) {
+            RDFParser.source( input ).lang( Lang.RDFTHRIFT ).parse( graph );
+        }
+        Assertions.assertThat( graph.size() ).isEqualTo( 3 );
+        Assertions.assertThat( graph.contains( NodeFactory.createURI( "http://example.com/x" ), Node.ANY,
+            NodeFactory.createLiteralString( "x" ) ) ).isTrue();
+    }
+
+    @Test
+    public void testTurtleResourcesInNamedModule() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.Turtle;
+
+            public class Test {
+               @Syntax( Turtle.class ) static final String VOCABULARY = "<urn:x> a <urn:y> ." ;
+
+               long size() {
+                  return TestRdf.VOCABULARY().size();
+               }
+            }
+            """;
+
+        // The module does not read java.compiler, so the accessor can not be annotated with @Generated
+        final Path generatedSources = compileModule( """
+                module de.atextor.test {
+                    requires org.apache.jena.core;
+                    requires org.apache.jena.arq;
+                }
+                """, code,
+            List.of( mavenArtifact( "org.apache.jena:jena-core:5.6.0" ),
+                mavenArtifact( "org.apache.jena:jena-arq:5.6.0" ) ),
+            List.of( "-Asyntax.turtle.resources=true" ), "de/atextor/syntax/Turtle.java" );
+
+        Assertions.assertThat( generatedSources.resolve( "de/atextor/test/TestRdf.java" ) ).content()
+            .doesNotContain( "@javax.annotation.processing.Generated" )
+            .contains( "public static Graph VOCABULARY() {" );
+    }
+
+    @Test
+    public void testTurtleErrorLocation() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.Turtle;
+
+            class Test {
+               @Syntax( Turtle.class ) String brokenTurtle = \"""
+                  @prefix : <http://example.com/> .
+                  <relative> a :Thing .
+                  :x a :y ;
+                     :p foo:bar .
+                  \""";
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/Turtle.java" );
+
+        final List<File> classPath = List.of(
+            mavenArtifact( "org.apache.jena:jena-core:5.6.0" ),
+            mavenArtifact( "org.apache.jena:jena-arq:5.6.0" )
+        );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withClasspath( classPath )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 1 );
+        assertThat( compilation )
+            .hadErrorContaining( "[line: 4, col: 7] Undefined prefix: foo" )
+            .inFile( testClass )
+            .onLine( 7 );
+    }
+
+    @Test
+    public void testTurtleBatchIsolatesLiterals() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.Turtle;
+
+            class Test {
+               @Syntax( Turtle.class ) String prefixDefinition = "@prefix : <http://example.com/> . :x a :y ." ;
+               @Syntax( Turtle.class ) String brokenTurtle = ":x a :y ." ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/Turtle.java" );
+
+        final List<File> classPath = List.of(
+            mavenArtifact( "org.apache.jena:jena-core:5.6.0" ),
+            mavenArtifact( "org.apache.jena:jena-arq:5.6.0" )
+        );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withClasspath( classPath )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 1 );
+        assertThat( compilation )
+            .hadErrorContaining( "Undefined prefix" )
+            .inFile( testClass )
+            .onLine( 8 );
+    }
+
+    @Test
+    public void testJSONSyntax() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.JSON;
+
+            class Test {
+               @Syntax( JSON.class ) String brokenJson = "{ \\"foo\\": \\"bar\\"" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/JSON.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+
+        assertThat( compilation )
+            .hadErrorContaining( "[line: 1, col: 15] Unexpected end of input: expected ',' or '}'" )
+            .inFile( testClass )
+            .onLine( 7 );
+    }
+
+    @Test
+    public void testJSONValues() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.JSON;
+
+            class Test {
+               @Syntax( JSON.class ) String array = "[ 1, -2.5e+3, true, null, \\"\\\\u00e4\\\\n\\" ]" ;
+               @Syntax( JSON.class ) String scalar = "42" ;
+               @Syntax( JSON.class ) String duplicateKeys = "{ \\"a\\": {}, \\"a\\": [ [], { \\"b\\": 0 } ] }" ;
+               @Syntax( JSON.class ) String brokenNumber = "[ 01 ]" ;
+               @Syntax( JSON.class ) String brokenEscape = \"""
+                  {
+                    "a": "\\\\x"
+                  }\""";
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/JSON.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 2 );
+        assertThat( compilation )
+            .hadErrorContaining( "[line: 1, col: 4] Unexpected character '1': expected ',' or ']'" )
+            .inFile( testClass )
+            .onLine( 10 );
+        assertThat( compilation )
+            .hadErrorContaining( "[line: 2, col: 9] Invalid escape sequence \\x" )
+            .inFile( testClass )
+            .onLine( 11 );
+    }
+
+    @Test
+    public void testResources() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.JSON;
+
+            class Test {
+               @Syntax( value = JSON.class, resource = "data/broken.json" ) static final String BROKEN = "";
+               @Syntax( value = JSON.class, resource = "/data/broken.json" ) static final String SAME = "";
+               @Syntax( value = JSON.class, resource = "data/valid.json" ) static final String VALID = "no JSON";
+               @Syntax( value = JSON.class, resource = "data/missing.json" ) static final String MISSING = "";
+
+               void method() {
+                  @Syntax( value = JSON.class, resource = "data/valid.json" ) String local = "no JSON";
+               }
+            }
+            """;
+
+        final File directory = temporaryFolder.newFolder( "resources" );
+        final Path data = Files.createDirectories( directory.toPath().resolve( "data" ) );
+        Files.writeString( data.resolve( "valid.json" ), "{ \"name\": \"äöü\" }" );
+        Files.writeString( data.resolve( "broken.json" ), """
+            {
+              "first": 1,
+              "second": 2
+              "third": 3
+            }
+            """ );
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/JSON.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withClasspath( List.of( directory ) )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 2 );
+        assertThat( compilation )
+            .hadErrorContaining( "JSON syntax validation failed in resource data/broken.json:" )
+            .inFile( testClass )
+            .onLine( 7 );
+        assertThat( compilation )
+            .hadErrorContaining( "  4:   \"third\": 3" )
+            .inFile( testClass )
+            .onLine( 7 );
+        assertThat( compilation )
+            .hadErrorContaining( "Resource data/missing.json not found" )
+            .inFile( testClass )
+            .onLine( 10 );
+    }
+
+    @Test
+    public void testStrictJSON() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.StrictJSON;
+
+            class Test {
+               @Syntax( StrictJSON.class ) String nested = "{ \\"a\\": { \\"a\\": [ { \\"a\\": 1 }, { \\"a\\": 2 } ] } }" ;
+               @Syntax( StrictJSON.class ) String duplicateKeys = "{ \\"a\\": 1, \\"\\\\u0061\\": 2 }" ;
+               @Syntax( StrictJSON.class ) String tooDeep = "[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]" ;
+               @Syntax( StrictJSON.class ) String deepEnough = "[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[[]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]]" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources =
+            sources( testClass, "de/atextor/syntax/JSON.java", "de/atextor/syntax/StrictJSON.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 2 );
+        assertThat( compilation )
+            .hadErrorContaining( "[line: 1, col: 11] Duplicate member name \"a\"" )
+            .inFile( testClass )
+            .onLine( 8 );
+        assertThat( compilation )
+            .hadErrorContaining( "[line: 1, col: 65] Maximum nesting depth of 64 exceeded" )
+            .inFile( testClass )
+            .onLine( 9 );
+    }
+
+    @Test
+    public void testConstantExpressions() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.XML;
+
+            class Test {
+               static final String OPEN = "<hello attribute=\\"value\\">";
+               @Syntax( XML.class ) String escapes = "\\t<hello attribute=\\"\\u00e4\\\\\\">\\r\\n</hello>" ;
+               @Syntax( XML.class ) String concatenation = OPEN + "</hello>" ;
+               @Syntax( XML.class ) String textBlock = \"""
+                  <hello>
+                     <world/>
+                  </hello>
+                  \""";
+               @Syntax( XML.class ) String brokenConcatenation = OPEN + Other.CLOSE + ( "" + '>' ) + "</x>" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final JavaFileObject otherClass = JavaFileObjects.forSourceString( "de.atextor.test.Other",
+            "package de.atextor.test; class Other { static final String CLOSE = \"</hello\"; }" );
+        final List<JavaFileObject> sources = new ArrayList<>( sources( testClass, "de/atextor/syntax/XML.java" ) );
+        sources.add( otherClass );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 1 );
+        assertThat( compilation )
+            .hadErrorContaining( "The markup in the document following the root element must be well-formed." )
+            .inFile( testClass )
+            .onLine( 15 );
+    }
+
+    @Test
+    public void testDiagnosticsPointToSourcePosition() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.XML;
+
+            class Test {
+               @Syntax( XML.class ) String textBlock = \"""
+                  <root>
+                     <first/>
+                     <second/>
+                     <third/>
+                     <fourth/>
+                     <fifth></sixth>
+                     <seventh/>
+                  </root>
+                  \""";
+               @Syntax( XML.class ) String concatenation = "<root>"
+                  + FIRST
+                  + "<second></third>"
+                  + "</root>";
+               static final String FIRST = "<first/>";
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/XML.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withOptions( "-Asyntax.diagnostics.window=1" )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 2 );
+        final String textBlockError = compilation.errors().get( 0 ).getMessage( null );
+        Assertions.assertThat( textBlockError )
+            .contains( "  5:    <fourth/>" )
+            .contains( "  6:    <fifth></sixth>" )
+            .contains( "  7:    <seventh/>" )
+            .doesNotContain( "<first/>" )
+            .doesNotContain( "</root>" )
+            .contains( "at Test.java:13:" );
+        assertThat( compilation )
+            .hadErrorContaining( "at Test.java:19:" )
+            .inFile( testClass )
+            .onLine( 19 );
+    }
+
+    @Test
+    public void testLocalVariableInClassWithoutAnnotatedFields() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            class Test {
+               String unannotated = "foo[bar" ;
+
+               void method() {
+                  @ Syntax( RegExp.class ) String brokenRegExp = "foo[bar" ;
+               }
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final JavaFileObject otherClass = JavaFileObjects.forSourceString( "de.atextor.test.Other",
+            "package de.atextor.test; class Other { String unannotated = \"foo[bar\"; }" );
+        final List<JavaFileObject> sources = new ArrayList<>( sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" ) );
+        sources.add( otherClass );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 1 );
+        assertThat( compilation )
+            .hadErrorContaining( "Unclosed character class near index 6" )
+            .inFile( testClass )
+            .onLine( 10 );
+    }
+
+    @Test
+    public void testAnnotatedParameters() {
+        final String api = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.JSON;
+            import de.atextor.syntax.RegExp;
+
+            public class Api {
+               public Api( @Syntax( JSON.class ) String configuration ) {
+               }
+
+               public static void match( String input, @Syntax( RegExp.class ) String... regExps ) {
+               }
+
+               void selfCheck() {
+                  match( "input", "[a-z" );
+               }
+            }
+            """;
+        final String client = """
+            package de.atextor.test;
+
+            class Client {
+               static final String PREFIX = "[a-z]+";
+
+               void run( final String dynamicRegExp ) {
+                  new Api( "{ \\"valid\\": true }" );
+                  new Api( "{ \\"valid\\": " );
+                  Api.match( "[not a regexp", PREFIX + "@example\\\\.com", dynamicRegExp );
+                  Api.match( "input", PREFIX, PREFIX + "(" );
+               }
+            }
+            """;
+
+        final JavaFileObject apiClass = JavaFileObjects.forSourceString( "de.atextor.test.Api", api );
+        final JavaFileObject clientClass = JavaFileObjects.forSourceString( "de.atextor.test.Client", client );
+        final List<JavaFileObject> sources = Stream.concat( Stream.of( clientClass ),
+            sources( apiClass, "de/atextor/syntax/JSON.java", "de/atextor/syntax/RegExp.java",
+                "de/atextor/syntax/RegExpAnalyzer.java" ).stream() ).toList();
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 3 );
+        assertThat( compilation )
+            .hadErrorContaining( "RegExp syntax validation failed" )
+            .inFile( apiClass )
+            .onLine( 15 );
+        assertThat( compilation )
+            .hadErrorContaining( "JSON syntax validation failed" )
+            .inFile( clientClass )
+            .onLine( 8 );
+        assertThat( compilation )
+            .hadErrorContaining( "Unclosed group" )
+            .inFile( clientClass )
+            .onLine( 10 );
+    }
+
+    @Test
+    public void testValidationCache() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            class Test {
+               @Syntax( RegExp.class ) String validRegExp = "foo[bar]" ;
+               @Syntax( RegExp.class ) String brokenRegExp = "foo[bar" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
+        final File cacheDirectory = temporaryFolder.newFolder( "cache" );
+
+        for ( int run = 0; run < 2; run++ ) {
+            final Compilation compilation = javac()
+                .withProcessors( new SyntaxProcessor() )
+                .withOptions( "-Asyntax.cache.directory=" + cacheDirectory.getAbsolutePath() )
+                .compile( sources );
+
+            assertThat( compilation )
+                .hadErrorContaining( "Unclosed character class near index 6" )
+                .inFile( testClass )
+                .onLine( 8 );
+            assertThat( compilation ).hadErrorCount( 1 );
+        }
+
+        try ( final Stream<Path> cacheEntries = Files.walk( cacheDirectory.toPath() ) ) {
+            Assertions.assertThat( cacheEntries.filter( Files::isRegularFile ) ).hasSize( 2 );
+        }
+    }
+
+    @Test
+    public void testValidationCacheRespectsConfiguration() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            class Test {
+               @Syntax( RegExp.class ) String vulnerableRegExp = "(a|aa)*b" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
+        final String cacheOption = "-Asyntax.cache.directory=" + temporaryFolder.newFolder( "cache" );
+
+        final Compilation withoutAnalysis = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withOptions( cacheOption )
+            .compile( sources );
+        assertThat( withoutAnalysis ).succeededWithoutWarnings();
+
+        final Compilation withWarning = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withOptions( cacheOption, "-Asyntax.regexp.redos=warning" )
+            .compile( sources );
+        assertThat( withWarning ).succeeded();
+        assertThat( withWarning ).hadWarningContaining( "Possible catastrophic backtracking" ).inFile( testClass )
+            .onLine( 7 );
+
+        final Compilation withError = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withOptions( cacheOption, "-Asyntax.regexp.redos=error" )
+            .compile( sources );
+        assertThat( withError ).hadErrorCount( 1 );
+        assertThat( withError ).hadErrorContaining( "Possible catastrophic backtracking" ).inFile( testClass )
+            .onLine( 7 );
+    }
+
+    @Test
+    public void testInvalidNumericOptions() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.JSON;
+
+            class Test {
+               @Syntax( JSON.class ) String json = "[1, 2]" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/JSON.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withOptions( "-Asyntax.cache.maxEntries=many",
+                "-Asyntax.cache.directory=" + temporaryFolder.getRoot().toPath().resolve( "cache" ),
+                "-Asyntax.parallel=true", "-Asyntax.parallelism=0", "-Asyntax.diagnostics.window=wide" )
+            .compile( sources );
+
+        // The invalid options are reported instead of crashing the compiler
+        assertThat( compilation ).hadErrorCount( 3 );
+        assertThat( compilation )
+            .hadErrorContaining( "Invalid value of syntax.cache.maxEntries: expected a non-negative number" );
+        assertThat( compilation )
+            .hadErrorContaining( "Invalid value of syntax.parallelism: expected a positive number" );
+        assertThat( compilation )
+            .hadErrorContaining( "Invalid value of syntax.diagnostics.window: expected a number" );
+    }
+
+    @Test
+    public void testSharedCacheAcrossCompilations() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.JSON;
+
+            class Test {
+               @Syntax( JSON.class ) String validJson = "{ \\"sharedCacheTest\\": true }" ;
+               @Syntax( JSON.class ) String brokenJson = "{ \\"sharedCacheTest\\": tru }" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/JSON.java" );
+
+        for ( int run = 0; run < 2; run++ ) {
+            final Compilation compilation = javac()
+                .withProcessors( new SyntaxProcessor() )
+                .withOptions( "-Asyntax.cache.shared=true", "-Asyntax.metrics=true" )
+                .compile( sources );
+
+            assertThat( compilation ).hadErrorCount( 1 );
+            assertThat( compilation ).hadErrorContaining( "JSON syntax validation failed" ).inFile( testClass )
+                .onLine( 8 );
+            assertThat( compilation )
+                .hadNoteContaining( "validated 2 literals (" + 2 * run + " cached) with 1 checkers" );
+        }
+    }
+
+    @Test
+    public void testParallelValidation() {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+            import de.atextor.syntax.XML;
+
+            class Test {
+               @Syntax( XML.class ) String brokenXml = "<hello></hello" ;
+               @Syntax( RegExp.class ) String validRegExp = "foo[bar]" ;
+
+               void method() {
+                  @Syntax( RegExp.class ) String brokenRegExp = "foo[bar" ;
+               }
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources =
+            sources( testClass, "de/atextor/syntax/RegExp.java", "de/atextor/syntax/RegExpAnalyzer.java",
+                "de/atextor/syntax/XML.java" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withOptions( "-Asyntax.parallel=true", "-Asyntax.parallelism=4" )
+            .compile( sources );
+
+        assertThat( compilation ).hadErrorCount( 2 );
+        Assertions.assertThat( compilation.errors() )
+            .extracting( javax.tools.Diagnostic::getLineNumber )
+            .containsExactly( 8L, 12L );
+        assertThat( compilation )
+            .hadErrorContaining( "Unclosed character class near index 6" )
+            .inFile( testClass )
+            .onLine( 12 );
+    }
+
+    @Test
+    public void testMetricsReport() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            class Test {
+               @Syntax( RegExp.class ) String validRegExp = "foo[bar]" ;
+               @Syntax( RegExp.class ) String otherRegExp = "[a-z]+" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
+        final Path reportFile = temporaryFolder.getRoot().toPath().resolve( "metrics.json" );
+
+        final Compilation compilation = javac()
+            .withProcessors( new SyntaxProcessor() )
+            .withOptions( "-Asyntax.metrics.file=" + reportFile )
+            .compile( sources );
+
+        assertThat( compilation ).succeededWithoutWarnings();
+        assertThat( compilation ).hadNoteContaining( "validated 2 literals (0 cached) with 1 checkers" );
+        final String report = Files.readString( reportFile );
+        Assertions.assertThat( report )
+            .contains( "\"checker\": \"de.atextor.syntax.RegExp\", \"calls\": 2, \"literals\": 2" )
+            .contains( "\"line\": 7, \"characters\": 8" )
+            .contains( "\"line\": 8, \"characters\": 6" );
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws IOException {
+        final String code = """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            class Test {
+               @Syntax( RegExp.class ) String validRegExp = "foo[bar]" ;
+            }
+            """;
+
+        final JavaFileObject testClass = JavaFileObjects.forSourceString( "de.atextor.test.Test", code );
+        final List<JavaFileObject> sources = sources( testClass, "de/atextor/syntax/RegExp.java",
+            "de/atextor/syntax/RegExpAnalyzer.java" );
+        final Path recordingFile = temporaryFolder.getRoot().toPath().resolve( "recording.jfr" );
+
+        try ( final Recording recording = new Recording() ) {
+            recording.enable( "de.atextor.syntax.Validation" );
+            recording.enable( "de.atextor.syntax.TreeScan" );
+            recording.start();
+            final Compilation compilation = javac()
+                .withProcessors( new SyntaxProcessor() )
+                .compile( sources );
+            recording.stop();
+            recording.dump( recordingFile );
+            assertThat( compilation ).succeededWithoutWarnings();
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents( recordingFile );
+        Assertions.assertThat( events )
+            .filteredOn( event -> event.getEventType().getName().equals( "de.atextor.syntax.Validation" ) )
+            .singleElement()
+            .satisfies( event -> {
+                Assertions.assertThat( event.getString( "checker" ) ).isEqualTo( "de.atextor.syntax.RegExp" );
+                Assertions.assertThat( event.getLong( "characters" ) ).isEqualTo( 8 );
+            } );
+        Assertions.assertThat( events )
+            .filteredOn( event -> event.getEventType().getName().equals( "de.atextor.syntax.TreeScan" ) )
+            .extracting( event -> event.getString( "type" ) )
+            .contains( "de.atextor.test.Test" );
+    }
+
+    /**
+     * Collects the sources for a test compilation: the given test class, the sources of the annotation package
+     * and the sources of the given syntax checkers
+     *
+     * @param testClass the test class
+     * @param checkerPaths the source paths of the syntax checkers used by the test class
+     * @return the list of sources
+     */
+    private List<JavaFileObject> sources( final JavaFileObject testClass, final String... checkerPaths ) {
+        final File annotationPackage = new File( "./src/main/java/de/atextor/syntax/annotation" );
+        final Stream<String> annotationSources = Arrays.stream( annotationPackage.list() )
+            .filter( fileName -> fileName.endsWith( ".java" ) )
+            .map( fileName -> "de/atextor/syntax/annotation/" + fileName );
+        final Stream<JavaFileObject> referencedSources = Stream.concat( annotationSources, Arrays.stream( checkerPaths ) )
+            .map( path -> JavaFileObjects.forResource( sourceFileUrl( path ) ) );
+        return Stream.concat( Stream.of( testClass ), referencedSources ).toList();
+    }
+
+    /**
+     * Compiles a test class as the named module {@code de.atextor.test} using the system compiler, as compile-testing
+     * can not compile modules. The sources of the annotation package and the given checkers are part of the module.
+     *
+     * @param moduleDeclaration the source of the module declaration
+     * @param code the source of the class {@code de.atextor.test.Test}
+     * @param modulePath the module path
+     * @param options additional compiler options
+     * @param checkerPaths the paths of the checker sources
+     * @return the directory of the generated sources
+     */
+    private Path compileModule( final String moduleDeclaration, final String code, final List<File> modulePath,
+                                final List<String> options, final String... checkerPaths ) throws IOException {
+        final Path directory = temporaryFolder.newFolder( "module" ).toPath();
+        final Path sourceDirectory = Files.createDirectories( directory.resolve( "src/de/atextor/test" ) );
+        final Path generatedSources = Files.createDirectories( directory.resolve( "generated" ) );
+        final Path classes = Files.createDirectories( directory.resolve( "classes" ) );
+        final List<File> sourceFiles = new ArrayList<>( List.of(
+            Files.writeString( directory.resolve( "src/module-info.java" ), moduleDeclaration ).toFile(),
+            Files.writeString( sourceDirectory.resolve( "Test.java" ), code ).toFile() ) );
+        Arrays.stream( new File( "./src/main/java/de/atextor/syntax/annotation" ).listFiles() )
+            .filter( file -> file.getName().endsWith( ".java" ) )
+            .forEach( sourceFiles::add );
+        Arrays.stream( checkerPaths ).map( path -> new File( "./src/main/java/" + path ) ).forEach( sourceFiles::add );
+
+        final List<String> arguments = new ArrayList<>( List.of( "-d", classes.toString(),
+            "-s", generatedSources.toString() ) );
+        if ( !modulePath.isEmpty() ) {
+            arguments.addAll( List.of( "--module-path",
+                modulePath.stream().map( File::getPath ).collect( Collectors.joining( File.pathSeparator ) ) ) );
+        }
+        arguments.addAll( options );
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try ( final StandardJavaFileManager fileManager = compiler.getStandardFileManager( diagnostics, null, null ) ) {
+            final JavaCompiler.CompilationTask task = compiler.getTask( null, fileManager, diagnostics, arguments,
+                null, fileManager.getJavaFileObjectsFromFiles( sourceFiles ) );
+            task.setProcessors( List.of( new SyntaxProcessor() ) );
+            Assertions.assertThat( task.call() ).as( diagnostics.getDiagnostics().toString() ).isTrue();
+        }
+        return generatedSources;
+    }
+
     /**
      * Takes as input the artifact specifier (groupId:artifactId:version) and returns the corresponding file
      * for the jar
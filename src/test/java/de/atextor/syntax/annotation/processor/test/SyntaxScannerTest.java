@@ -0,0 +1,144 @@
+package de.atextor.syntax.annotation.processor.test;
+
+import de.atextor.syntax.annotation.processor.SyntaxScanner;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SyntaxScannerTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private int scan( final String... arguments ) {
+        return SyntaxScanner.run( arguments, new PrintStream( out, true, StandardCharsets.UTF_8 ),
+            new PrintStream( err, true, StandardCharsets.UTF_8 ) );
+    }
+
+    private Path source( final String path, final String code ) throws IOException {
+        final Path file = temporaryFolder.getRoot().toPath().resolve( path );
+        Files.createDirectories( file.getParent() );
+        return Files.writeString( file, code );
+    }
+
+    @Test
+    public void testValidSources() throws IOException {
+        source( "de/atextor/test/Valid.java", """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            class Valid {
+               @Syntax( RegExp.class ) String regExp = "[a-z]+" + "@example\\\\.com";
+            }
+            """ );
+        source( "de/atextor/test/Plain.java", """
+            package de.atextor.test;
+
+            class Plain {
+               String regExp = "[a-z";
+            }
+            """ );
+
+        Assertions.assertThat( scan( temporaryFolder.getRoot().toString() ) ).isEqualTo( 0 );
+        Assertions.assertThat( out.toString( StandardCharsets.UTF_8 ) ).isEmpty();
+        Assertions.assertThat( err.toString( StandardCharsets.UTF_8 ) )
+            .contains( "Validated 1 strings in 2 files: 0 errors, 0 warnings" );
+    }
+
+    @Test
+    public void testInvalidSources() throws IOException {
+        final Path invalid = source( "de/atextor/test/Invalid.java", """
+            package de.atextor.test;
+
+            import de.atextor.syntax.annotation.*;
+
+            class Invalid {
+               String unchecked = "[a-z";
+
+               @Syntax( de.atextor.syntax.RegExp.class )
+               String regExp = "[a-z";
+
+               @Syntax( value = de.atextor.syntax.XML.class ) String xml = "<a></b>";
+            }
+            """ );
+
+        Assertions.assertThat( scan( invalid.toString() ) ).isEqualTo( 1 );
+        final String output = out.toString( StandardCharsets.UTF_8 );
+        Assertions.assertThat( output ).contains( invalid + ":8: error: RegExp syntax validation failed:" );
+        Assertions.assertThat( output ).contains( invalid + ":11: error: XML syntax validation failed:" );
+        Assertions.assertThat( output.indexOf( "RegExp" ) ).isLessThan( output.indexOf( "XML" ) );
+        Assertions.assertThat( err.toString( StandardCharsets.UTF_8 ) ).contains( "2 errors" );
+    }
+
+    @Test
+    public void testCheckerOptions() throws IOException {
+        final Path source = source( "Backtracking.java", """
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            class Backtracking {
+               @Syntax( RegExp.class ) String regExp = "(a+)+b";
+            }
+            """ );
+
+        Assertions.assertThat( scan( "--threads", "2", "-Asyntax.regexp.redos=warning", source.toString() ) )
+            .isEqualTo( 0 );
+        Assertions.assertThat( out.toString( StandardCharsets.UTF_8 ) )
+            .contains( source + ":5: warning: RegExp syntax validation warning:" )
+            .contains( "Possible catastrophic backtracking" );
+    }
+
+    @Test
+    public void testEncodings() throws IOException {
+        final String code = """
+            import de.atextor.syntax.annotation.Syntax;
+            import de.atextor.syntax.RegExp;
+
+            class Encoded {
+               // Grüße
+               @Syntax( RegExp.class ) String regExp = "[ä-ö";
+            }
+            """;
+        final Path utf8 = source( "utf8/Encoded.java", code );
+        final Path utf16 = source( "utf16/Encoded.java", "" );
+        Files.writeString( utf16, code, StandardCharsets.UTF_16 );
+
+        Assertions.assertThat( scan( utf8.toString() ) ).isEqualTo( 1 );
+        Assertions.assertThat( scan( "--encoding", "UTF-16", utf16.toString() ) ).isEqualTo( 1 );
+        Assertions.assertThat( out.toString( StandardCharsets.UTF_8 ) )
+            .contains( utf8 + ":6: error: RegExp syntax validation failed:" )
+            .contains( utf16 + ":6: error: RegExp syntax validation failed:" );
+    }
+
+    @Test
+    public void testListCheckers() {
+        Assertions.assertThat( scan( "--list-checkers" ) ).isEqualTo( 0 );
+        Assertions.assertThat( out.toString( StandardCharsets.UTF_8 ) )
+            .contains( "JSON\tde.atextor.syntax.JSON" )
+            .contains( "Turtle\tde.atextor.syntax.Turtle" )
+            .contains( "URN\tde.atextor.syntax.annotation.processor.test.Checkers$Prefix" );
+    }
+
+    @Test
+    public void testUsage() {
+        Assertions.assertThat( scan( "--threads" ) ).isEqualTo( 2 );
+        Assertions.assertThat( scan() ).isEqualTo( 2 );
+        Assertions.assertThat( scan( "-Asyntax.diagnostics.window=wide", "Test.java" ) ).isEqualTo( 2 );
+        Assertions.assertThat( err.toString( StandardCharsets.UTF_8 ) )
+            .contains( "Invalid value of syntax.diagnostics.window: expected a number" );
+        Assertions.assertThat( err.toString( StandardCharsets.UTF_8 ) ).contains( "Usage: SyntaxScanner" );
+    }
+}
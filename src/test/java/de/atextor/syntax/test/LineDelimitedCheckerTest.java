@@ -0,0 +1,112 @@
+package de.atextor.syntax.test;
+
+import de.atextor.syntax.NDJSON;
+import de.atextor.syntax.NTriples;
+import de.atextor.syntax.annotation.LocatingChecker;
+import de.atextor.syntax.annotation.SyntaxError;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Checks {@link NTriples} and {@link NDJSON}, in particular that the line numbers of errors in strings that are
+ * checked in parallel chunks refer to the whole string
+ */
+public class LineDelimitedCheckerTest {
+    private static final int LINES = 100_000;
+
+    @Test
+    public void testValidNTriples() {
+        final String triples = """
+            # A comment
+            <http://example.com/s> <http://example.com/p> <http://example.com/o> .
+            _:b1 <http://example.com/p> "plain" .
+            _:b1.x <http://example.com/p> "tagged"@en-GB .
+            <http://example.com/s> <http://example.com/p> "typed"^^<http://www.w3.org/2001/XMLSchema#string> .
+
+            <urn:isbn:0451450523><http://example.com/p>_:b2.# No whitespace is needed
+            \t<http://example.com/\\u00e9> <http://example.com/p> "escaped \\"\\t\\U0001F600" . # Trailing comment
+            """;
+        Assertions.assertThat( new NTriples().check( triples ) ).isEmpty();
+    }
+
+    @Test
+    public void testInvalidNTriples() {
+        final List<String> lines = List.of(
+            "<http://example.com/s> <http://example.com/p> <o> .",
+            "<http://example.com/s> _:p <http://example.com/o> .",
+            "<http://example.com/s> <http://example.com/p> \"unterminated .",
+            "<http://example.com/s> <http://example.com/p> \"x\"@ .",
+            "<http://example.com/s> <http://example.com/p> <http://example.com/o>",
+            "<http://example.com/s> <http://example.com/p> <http://example.com/o> . <x>",
+            "<http://example.com/s p> <http://example.com/p> <http://example.com/o> .",
+            "_:-b <http://example.com/p> <http://example.com/o> ." );
+        Assertions.assertThat( lines.stream().map( line -> new NTriples().check( line ) ) )
+            .map( error -> error.map( SyntaxError::formatted ).orElse( "valid" ) )
+            .containsExactly(
+                "[line: 1, col: 47] Relative IRI: IRIs must start with a scheme",
+                "[line: 1, col: 24] Unexpected character '_': expected a predicate IRI",
+                "[line: 1, col: 47] Unterminated literal",
+                "[line: 1, col: 51] Invalid language tag: expected a letter",
+                "[line: 1, col: 69] Unexpected end of line: expected '.'",
+                "[line: 1, col: 72] Unexpected character '<' after the end of the triple",
+                "[line: 1, col: 22] Invalid character ' ' in IRI",
+                "[line: 1, col: 3] Invalid character '-' at the start of a blank node label" );
+    }
+
+    @Test
+    public void testNDJSON() {
+        Assertions.assertThat( new NDJSON().check( "{\"a\": 1}\n[1, 2]\n  \n\"text\"\r\n42" ) ).isEmpty();
+        Assertions.assertThat( new NDJSON().check( "{\"a\": 1}\n{\"a\": 1,}\n" ).map( SyntaxError::formatted ) )
+            .contains( "[line: 2, col: 9] Unexpected character '}': expected a member name" );
+        Assertions.assertThat( new NDJSON().check( "{\"a\":\n1}" ).map( SyntaxError::formatted ) )
+            .contains( "[line: 1, col: 6] Unexpected end of input: expected a value" );
+    }
+
+    @Test
+    public void testErrorLinesInLargeStrings() {
+        for ( final String lineBreak : List.of( "\n", "\r\n", "\r" ) ) {
+            final String triples = generate( index -> "<http://example.com/s" + index + "> <http://example.com/p> \""
+                + index + "\" .", lineBreak );
+            Assertions.assertThat( triples.length() ).isGreaterThan( 1 << 20 );
+            Assertions.assertThat( new NTriples().check( triples ) ).isEmpty();
+            assertFirstError( new NTriples(), triples,
+                "Unexpected character '>': expected a subject IRI or blank node", lineBreak );
+
+            final String json = generate( index -> "{\"id\":" + index + ",\"name\":\"item " + index + "\"}",
+                lineBreak );
+            Assertions.assertThat( new NDJSON().check( json ) ).isEmpty();
+            assertFirstError( new NDJSON(), json, "Unexpected character '>': expected a value", lineBreak );
+        }
+    }
+
+    private static String generate( final IntFunction<String> line, final String lineBreak ) {
+        return IntStream.range( 0, LINES ).mapToObj( line ).collect( Collectors.joining( lineBreak, "", lineBreak ) );
+    }
+
+    /**
+     * Breaks two lines in the second half of the string, so that they are in later chunks, and checks that the first
+     * of them is reported with its line number in the whole string
+     */
+    private static void assertFirstError( final LocatingChecker checker, final String valid, final String message,
+                                          final String lineBreak ) {
+        final List<String> lines = List.of( valid.split( lineBreak, -1 ) );
+        final int firstError = LINES * 3 / 4;
+        final int secondError = LINES - 10;
+        final String invalid = IntStream.range( 0, lines.size() )
+            .mapToObj( index -> index == firstError || index == secondError
+                ? ">" + lines.get( index )
+                : lines.get( index ) )
+            .collect( Collectors.joining( lineBreak ) );
+        final Optional<SyntaxError> error = checker.check( invalid );
+        Assertions.assertThat( error ).isPresent();
+        Assertions.assertThat( error.get().message() ).isEqualTo( message );
+        Assertions.assertThat( error.get().line() ).isEqualTo( firstError + 1 );
+        Assertions.assertThat( error.get().column() ).isEqualTo( 1 );
+    }
+}
@@ -0,0 +1,135 @@
+package de.atextor.syntax.test;
+
+import de.atextor.syntax.RegExp;
+import de.atextor.syntax.annotation.CheckerConfiguration;
+import de.atextor.syntax.annotation.SyntaxError;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Checks the backtracking analysis of {@link RegExp} against a corpus of known vulnerable and known safe expressions
+ */
+public class RegExpTest {
+    /**
+     * Expressions with exponential backtracking on suitable input
+     */
+    private static final List<String> VULNERABLE = List.of(
+        "(a+)+",
+        "(a*)*",
+        "(a+)*b",
+        "(a*)+$",
+        "^(a+)+$",
+        "(\\w+)*!",
+        "^(\\w+\\s?)*$",
+        "(x+x+)+y",
+        "(.*,)*;",
+        "(.*a){2,}",
+        "([a-zA-Z]+)*",
+        "^([a-zA-Z0-9])(([\\-.]|[_]+)?([a-zA-Z0-9]+))*(@){1}[a-z0-9]+[.]{1}(([a-z]{2,3})|([a-z]{2,3}[.]{1}[a-z]{2,3}))$",
+        "(a|a)*",
+        "(a|aa)*b",
+        "(\\w|\\d)+$",
+        "(.|\\s)*<",
+        "(?:ab|abc?)*d",
+        "(?i)(A|a)+$",
+        "((ab)+)+c",
+        "(\\d+|\\d+\\.\\d+)*x",
+        "(?<word>\\w+\\s*)+=",
+        "(a{1,5})+",
+        "^(([a-z])+.)+[A-Z]([a-z])+$"
+    );
+
+    /**
+     * Expressions without exponential backtracking
+     */
+    private static final List<String> SAFE = List.of(
+        "",
+        "foo[bar]",
+        "[a-z]+",
+        "a*b*c*",
+        "(ab+)*",
+        "(\\d+,)*\\d+",
+        "([a-z]+\\.)*[a-z]+",
+        "(\\w+\\s)*",
+        "(ab|ac)*",
+        "(a|b)*",
+        "(?:\\r\\n|\\n)+",
+        "a++",
+        "(a+)++",
+        "(?>a+)+",
+        "(?>(a|aa))*",
+        "(a+){2}",
+        "(a?){5}",
+        "^\\d{4}-\\d{2}-\\d{2}$",
+        "(?=a+)a",
+        "[^\"]*\"",
+        "\"(?:[^\"\\\\]|\\\\.)*\"",
+        "(\\s*\\w+\\s*,)*",
+        "^(([a-z])+\\.)+[A-Z]([a-z])+$",
+        "\\N{LATIN SMALL LETTER A}",
+        "x\\N{DIGIT ONE}",
+        "\\N{DIGIT ONE}+",
+        "[\\N{DIGIT ONE}-\\N{DIGIT NINE}]+"
+    );
+
+    private static RegExp checker( final String severity ) {
+        final RegExp checker = new RegExp();
+        checker.configure( new CheckerConfiguration() {
+            @Override
+            public Optional<String> option( final String name ) {
+                return name.equals( RegExp.REDOS_OPTION ) ? Optional.of( severity ) : Optional.empty();
+            }
+
+            @Override
+            public Optional<URI> resource( final String path ) {
+                return Optional.empty();
+            }
+        } );
+        return checker;
+    }
+
+    @Test
+    public void testVulnerableExpressions() {
+        final RegExp checker = checker( "error" );
+        for ( final String pattern : VULNERABLE ) {
+            Assertions.assertThat( checker.check( pattern ) )
+                .as( pattern )
+                .hasValueSatisfying( error -> {
+                    Assertions.assertThat( error.message() ).startsWith( "Possible catastrophic backtracking" );
+                    Assertions.assertThat( error.severity() ).isEqualTo( SyntaxError.Severity.ERROR );
+                } );
+        }
+    }
+
+    @Test
+    public void testSafeExpressions() {
+        final RegExp checker = checker( "error" );
+        for ( final String pattern : SAFE ) {
+            Assertions.assertThat( checker.check( pattern ) ).as( pattern ).isEmpty();
+        }
+    }
+
+    @Test
+    public void testFindingLocationAndSeverity() {
+        Assertions.assertThat( checker( "warning" ).check( "^[a-z]+:(\\w+\\s?)*$" ) ).hasValue(
+            new SyntaxError( "Possible catastrophic backtracking: The repetition '(\\w+\\s?)*' contains the "
+                + "repetition '\\w+', and the same input can be split between them in exponentially many ways. Make a "
+                + "quantifier possessive, use an atomic group, or change the expression so that the inner and the "
+                + "outer repetition can not match the same characters.", 1, 10, SyntaxError.Severity.WARNING ) );
+    }
+
+    @Test
+    public void testAnalysisIsOptIn() {
+        Assertions.assertThat( new RegExp().check( "(a+)+" ) ).isEmpty();
+        Assertions.assertThat( checker( "off" ).check( "(a+)+" ) ).isEmpty();
+        Assertions.assertThat( checker( "warn" ).check( "(a+)+" ) ).hasValue(
+            new SyntaxError( "Invalid value of syntax.regexp.redos: expected warning, error or off", -1, -1 ) );
+        Assertions.assertThat( checker( "error" ).check( "foo[bar" ) )
+            .hasValueSatisfying( error -> Assertions.assertThat( error.message() )
+                .startsWith( "Unclosed character class near index 6" ) );
+    }
+}
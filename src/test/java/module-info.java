@@ -1,11 +1,17 @@
 module de.atextor.syntax.annotation.test {
     requires jdk.compiler;
     requires java.xml;
+    requires jdk.jfr;
+    requires jdk.management;
     requires org.apache.jena.core;
-    requires com.fasterxml.jackson.databind;
-    requires com.fasterxml.jackson.core;
+    requires org.apache.jena.arq;
     requires compile.testing;
+    requires com.google.common;
     requires junit;
+    requires org.assertj.core;
     requires de.atextor.syntax.annotation;
     exports de.atextor.syntax.annotation.processor.test;
+    exports de.atextor.syntax.test;
+    provides de.atextor.syntax.annotation.CheckerProvider
+        with de.atextor.syntax.annotation.processor.test.Checkers.PrefixProvider;
 }
\ No newline at end of file